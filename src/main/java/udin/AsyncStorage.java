@@ -0,0 +1,213 @@
+package udin;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link TaskStorage} decorator that moves saving off the command thread and coalesces bursts of edits.
+ * <p>
+ * Each mutation only marks the {@link TaskList} dirty and returns. A single background writer
+ * then saves the whole list through the wrapped storage, at most once per flush interval, or
+ * immediately once a batch of mutations has piled up. {@link #save(List)} (used by {@code bye})
+ * and JVM shutdown force a synchronous flush. A failed background write, whether an I/O error or
+ * an unchecked exception from the wrapped storage, is reported on the next mutation.
+ */
+public class AsyncStorage implements TaskStorage {
+    /**
+     * Default time, in milliseconds, a mutation may wait before it is written.
+     */
+    public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 1000;
+
+    /**
+     * Default number of pending mutations that triggers an immediate flush.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 100;
+
+    private final TaskStorage delegate;
+    private final TaskList tasks;
+    private final long flushIntervalMillis;
+    private final int batchSize;
+    private final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "udin-storage-writer");
+        t.setDaemon(true);
+        return t;
+    });
+    private final Object flushLock = new Object();
+
+    private int pendingMutations;
+    private ScheduledFuture<?> scheduledFlush;
+    private long flushedModificationCount;
+    private final Thread shutdownHook = new Thread(this::close, "udin-storage-shutdown");
+
+    /**
+     * The failure of the last background flush, not yet reported. Guarded by this object's monitor.
+     */
+    private IOException lastError;
+
+    /**
+     * Constructs an asynchronous storage with the default flush interval and batch size.
+     *
+     * @param delegate the storage that performs the actual writes
+     * @param tasks the task list whose changes are saved
+     */
+    public AsyncStorage(TaskStorage delegate, TaskList tasks) {
+        this(delegate, tasks, DEFAULT_FLUSH_INTERVAL_MILLIS, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Constructs an asynchronous storage.
+     *
+     * @param delegate the storage that performs the actual writes
+     * @param tasks the task list whose changes are saved
+     * @param flushIntervalMillis the longest time a mutation may wait before it is written
+     * @param batchSize the number of pending mutations that triggers an immediate flush
+     */
+    public AsyncStorage(TaskStorage delegate, TaskList tasks, long flushIntervalMillis, int batchSize) {
+        assert batchSize > 0 : "Batch size must be positive";
+        this.delegate = delegate;
+        this.tasks = tasks;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.batchSize = batchSize;
+        this.flushedModificationCount = tasks.getModificationCount();
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    @Override
+    public List<Task> load() throws Exception {
+        return delegate.load();
+    }
+
+    @Override
+    public LoadReport loadReport() throws Exception {
+        return delegate.loadReport();
+    }
+
+    @Override
+    public TaskArchive getArchive() {
+        return delegate.getArchive();
+    }
+
+    /**
+     * Flushes any pending changes synchronously.
+     * <p>
+     * The argument is ignored; the latest state of the wrapped {@link TaskList} is written.
+     *
+     * @param ignored unused
+     * @throws IOException if writing fails
+     */
+    @Override
+    public void save(List<Task> ignored) throws IOException {
+        cancelScheduledFlush();
+        flush();
+    }
+
+    @Override
+    public void saveAdded(List<Task> ignored, Task added) throws IOException {
+        requestFlush();
+    }
+
+    @Override
+    public void saveMarked(List<Task> ignored, int index) throws IOException {
+        requestFlush();
+    }
+
+    @Override
+    public void saveUnmarked(List<Task> ignored, int index) throws IOException {
+        requestFlush();
+    }
+
+    @Override
+    public void saveRemoved(List<Task> ignored, int index) throws IOException {
+        requestFlush();
+    }
+
+    /**
+     * Records one more pending mutation and schedules a flush if none is scheduled yet.
+     * A failure from an earlier background flush is reported here, on the next mutation.
+     */
+    private synchronized void requestFlush() throws IOException {
+        IOException error = lastError;
+        lastError = null;
+
+        pendingMutations++;
+        if (pendingMutations >= batchSize) {
+            cancelScheduledFlush();
+            scheduledFlush = writer.schedule(this::backgroundFlush, 0, TimeUnit.MILLISECONDS);
+        } else if (scheduledFlush == null) {
+            scheduledFlush = writer.schedule(this::backgroundFlush, flushIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    private synchronized void cancelScheduledFlush() {
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+    }
+
+    private void backgroundFlush() {
+        synchronized (this) {
+            scheduledFlush = null;
+        }
+        try {
+            flush();
+        } catch (IOException e) {
+            synchronized (this) {
+                lastError = e;
+            }
+        }
+    }
+
+    /**
+     * Writes the current tasks through the delegate if anything changed since the last write.
+     * An unchecked exception from the delegate is rethrown as an {@link IOException}, so that it is
+     * reported like any other failed write instead of vanishing into the writer thread.
+     */
+    private void flush() throws IOException {
+        synchronized (flushLock) {
+            // Read the count first: the snapshot is then at least as new as the count, so a change
+            // made in between is saved again on the next flush rather than lost.
+            long modificationCount = tasks.getModificationCount();
+            List<Task> snapshot = tasks.snapshot();
+            synchronized (this) {
+                pendingMutations = 0;
+            }
+            if (modificationCount == flushedModificationCount) {
+                return;
+            }
+            try {
+                delegate.save(snapshot);
+            } catch (RuntimeException e) {
+                throw new IOException("Failed to save tasks: " + e.getMessage(), e);
+            }
+            flushedModificationCount = modificationCount;
+        }
+    }
+
+    /**
+     * Flushes pending changes, stops the background writer and unregisters the shutdown hook,
+     * so that a closed storage and its task list can be garbage collected.
+     */
+    public void close() {
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException e) {
+            // Already shutting down, possibly in this very hook.
+        }
+        cancelScheduledFlush();
+        try {
+            flush();
+        } catch (IOException e) {
+            System.err.println("Failed to save tasks on shutdown: " + e.getMessage());
+        }
+        writer.shutdown();
+    }
+}
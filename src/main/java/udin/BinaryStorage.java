@@ -0,0 +1,37 @@
+package udin;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * A {@link Storage} that saves tasks in the compact {@link BinaryTaskFormat}.
+ * <p>
+ * Loading still accepts either format, so pointing it at an existing CSV save file
+ * converts that file on the first save. A list holding a task whose date was loaded lazily and
+ * cannot be parsed is saved as CSV instead, which keeps the date as written; the next save after
+ * that task is fixed or deleted goes back to binary.
+ */
+public class BinaryStorage extends Storage {
+    /**
+     * Constructs a binary storage for the given save file.
+     *
+     * @param filePath the path of the save file
+     */
+    public BinaryStorage(String filePath) {
+        super(filePath);
+    }
+
+    @Override
+    protected void writeTasks(File target, List<Task> tasks) throws IOException {
+        File parent = target.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists()) {
+            parent.mkdirs();
+        }
+        if (BinaryTaskFormat.hasMalformedDate(tasks)) {
+            super.writeTasks(target, tasks);
+            return;
+        }
+        BinaryTaskFormat.write(target, tasks);
+    }
+}
@@ -0,0 +1,250 @@
+package udin;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads and writes the compact binary save format.
+ * <p>
+ * Layout:
+ * <ul>
+ *   <li>header: the magic bytes {@code UDNB}, a version byte and the task count as a varint</li>
+ *   <li>per task: one byte holding {@code type << 1 | done} (type 0 = todo, 1 = deadline, 2 = event),
+ *       the UTF-8 title prefixed by its length as a varint, then each date as a zigzag varint
+ *       of minutes since the epoch (UTC)</li>
+ * </ul>
+ * {@link Storage#load()} detects this format from the magic bytes, so any storage can read it.
+ * Dates are stored parsed, so a task whose lazily loaded date is malformed cannot be written;
+ * see {@link #hasMalformedDate(List)}.
+ */
+public class BinaryTaskFormat {
+    private static final byte[] MAGIC = {'U', 'D', 'N', 'B'};
+    private static final int VERSION = 1;
+
+    private static final int TYPE_TODO = 0;
+    private static final int TYPE_DEADLINE = 1;
+    private static final int TYPE_EVENT = 2;
+
+    /**
+     * Returns whether the file starts with the binary format's magic bytes.
+     *
+     * @param f the file to check
+     * @return true if the file is in binary format
+     * @throws IOException if the file cannot be read
+     */
+    public static boolean isBinary(File f) throws IOException {
+        byte[] head = new byte[MAGIC.length];
+        try (FileInputStream in = new FileInputStream(f)) {
+            if (in.readNBytes(head, 0, head.length) < head.length) {
+                return false;
+            }
+        }
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (head[i] != MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads all tasks from a binary save file.
+     *
+     * @param path the save file
+     * @return the tasks in file order
+     * @throws Exception if the file cannot be read or is not a valid binary save file
+     */
+    public static List<Task> read(Path path) throws Exception {
+        ByteBuffer buf;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Binary save file too large: " + path);
+            }
+            buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        for (byte b : MAGIC) {
+            if (buf.get() != b) {
+                throw new Exception("Not a binary udin.Storage file: " + path);
+            }
+        }
+        int version = buf.get();
+        if (version != VERSION) {
+            throw new Exception("Unsupported binary udin.Storage version: " + version);
+        }
+        int count = (int) readVarLong(buf);
+        List<Task> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int header = buf.get();
+            String title = readTitle(buf);
+            Task t;
+            switch (header >> 1) {
+                case TYPE_TODO:
+                    t = new ToDo(title);
+                    break;
+                case TYPE_DEADLINE:
+                    t = new Deadline(title, readDate(buf));
+                    break;
+                case TYPE_EVENT:
+                    t = new Event(title, readDate(buf), readDate(buf));
+                    break;
+                default:
+                    throw new Exception("Wrong format of task in udin.Storage");
+            }
+            if ((header & 1) != 0) t.mark();
+            tasks.add(t);
+        }
+        return tasks;
+    }
+
+    /**
+     * Returns whether any task has a lazily loaded date that cannot be parsed.
+     * <p>
+     * Dates that do parse are kept, so the check costs nothing extra on the following write.
+     *
+     * @param tasks the tasks to check
+     * @return true if {@link #write(File, List)} would fail on one of the tasks
+     */
+    public static boolean hasMalformedDate(List<Task> tasks) {
+        for (Task t : tasks) {
+            try {
+                if (t instanceof Deadline) {
+                    ((Deadline) t).getDeadline();
+                } else if (t instanceof Event) {
+                    ((Event) t).getFrom();
+                    ((Event) t).getTo();
+                }
+            } catch (DateTimeParseException e) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Writes the given tasks to {@code target} in binary format, overwriting it.
+     *
+     * @param target the file to write
+     * @param tasks the tasks to write
+     * @throws IOException if writing fails, or if a task has a malformed date
+     */
+    public static void write(File target, List<Task> tasks) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(target), 1 << 16)) {
+            out.write(MAGIC);
+            out.write(VERSION);
+            writeVarLong(out, tasks.size());
+            for (Task t : tasks) {
+                int done = t.isDone ? 1 : 0;
+                if (t instanceof Deadline) {
+                    out.write(TYPE_DEADLINE << 1 | done);
+                    writeTitle(out, t.getTitle());
+                    writeDate(out, ((Deadline) t).getDeadline());
+                } else if (t instanceof Event) {
+                    out.write(TYPE_EVENT << 1 | done);
+                    writeTitle(out, t.getTitle());
+                    writeDate(out, ((Event) t).getFrom());
+                    writeDate(out, ((Event) t).getTo());
+                } else {
+                    out.write(TYPE_TODO << 1 | done);
+                    writeTitle(out, t.getTitle());
+                }
+            }
+        } catch (DateTimeParseException e) {
+            throw new IOException("Cannot save a task with a malformed date in binary format: "
+                    + e.getParsedString(), e);
+        }
+    }
+
+    /**
+     * Converts a save file of either format to binary, keeping the original as {@code <target>.bak}.
+     *
+     * @param source the existing save file
+     * @param target the binary file to write; may be the same as {@code source}
+     * @return the number of tasks converted
+     * @throws Exception if the source cannot be loaded or the target cannot be written
+     */
+    public static int convert(Path source, Path target) throws Exception {
+        List<Task> tasks = new Storage(source.toString()).load();
+        if (Files.exists(target)) {
+            Files.copy(target, Paths.get(target + ".bak"), StandardCopyOption.REPLACE_EXISTING);
+        }
+        File tmp = new File(target + ".tmp");
+        write(tmp, tasks);
+        Files.move(tmp.toPath(), target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return tasks.size();
+    }
+
+    /**
+     * One-shot converter: {@code java -cp udin.jar udin.BinaryTaskFormat [source] [target]}.
+     * <p>
+     * Both paths default to {@code data/tasks.txt}, converting the file in place.
+     *
+     * @param args the optional source and target paths
+     * @throws Exception if the conversion fails
+     */
+    public static void main(String[] args) throws Exception {
+        Path source = Paths.get(args.length > 0 ? args[0] : "data/tasks.txt");
+        Path target = args.length > 1 ? Paths.get(args[1]) : source;
+        int count = convert(source, target);
+        System.out.println("Converted " + count + " tasks from " + source + " to binary format in " + target);
+    }
+
+    private static String readTitle(ByteBuffer buf) {
+        byte[] bytes = new byte[(int) readVarLong(buf)];
+        buf.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeTitle(OutputStream out, String title) throws IOException {
+        byte[] bytes = title.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static LocalDateTime readDate(ByteBuffer buf) {
+        long zigzag = readVarLong(buf);
+        long minutes = (zigzag >>> 1) ^ -(zigzag & 1);
+        return LocalDateTime.ofEpochSecond(minutes * 60, 0, ZoneOffset.UTC);
+    }
+
+    private static void writeDate(OutputStream out, LocalDateTime date) throws IOException {
+        long minutes = Math.floorDiv(date.toEpochSecond(ZoneOffset.UTC), 60);
+        writeVarLong(out, (minutes << 1) ^ (minutes >> 63));
+    }
+
+    private static long readVarLong(ByteBuffer buf) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buf.get();
+            value |= (long) (b & 0x7f) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    private static void writeVarLong(OutputStream out, long value) throws IOException {
+        while ((value & ~0x7fL) != 0) {
+            out.write((int) (value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+}
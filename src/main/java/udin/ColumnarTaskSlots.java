@@ -0,0 +1,339 @@
+package udin;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * {@link TaskSlots} that keep tasks in primitive columns instead of as objects, for lists of millions of tasks.
+ * <p>
+ * A slot is a type byte, a done bit, two epoch-minute {@code long}s, an ID and the bounds of its
+ * title, with the titles packed as UTF-8 into a single byte arena: about 30 bytes plus the title per task, against
+ * 150 or more for a {@link Task} object with its {@link String} and {@link LocalDateTime}s.
+ * <p>
+ * {@link #get(int)} and the other readers return flyweights: a fresh {@link ToDo}, {@link Deadline}
+ * or {@link Event} built from the slot, so callers keep working with ordinary tasks. Views are not
+ * kept, so two reads of the same task return different objects, and a view does not see changes
+ * made after it was built. Marking or unmarking a view writes through to its slot, found by ID.
+ * <p>
+ * Dates are kept to the minute, as in the save format. A lazily loaded date is parsed when its task
+ * is added, so a malformed one is rejected then.
+ * <p>
+ * Tasks are found by ID with a binary search over the slot IDs, in O(log n), rather than through
+ * the hash map {@link TaskSlots} keeps, which would take more memory per task than a slot does.
+ */
+public class ColumnarTaskSlots extends TaskSlots {
+    private static final byte TOMBSTONE = 0;
+    private static final byte TODO = 1;
+    private static final byte DEADLINE = 2;
+    private static final byte EVENT = 3;
+    private static final int MAX_ARENA_SIZE = Integer.MAX_VALUE - 8;
+
+    private byte[] types;
+
+    /**
+     * The due time of a deadline or the start of an event, in minutes since the epoch.
+     */
+    private long[] starts;
+
+    /**
+     * The end of an event, in minutes since the epoch.
+     */
+    private long[] ends;
+
+    /**
+     * Offset of each title in {@link #arena}, and of the byte after it. A restored task's title is
+     * appended to the arena, so titles are not necessarily in slot order.
+     */
+    private int[] titleStarts;
+    private int[] titleEnds;
+
+    private final BitSet done = new BitSet();
+
+    /**
+     * UTF-8 titles of the used slots, back to back. Only ever appended to in place; compaction
+     * writes a new array, so a copy made by {@link #copyTasks()} can keep reading the old one.
+     */
+    private byte[] arena = new byte[1024];
+    private int arenaSize;
+
+    /**
+     * Constructs an empty columnar store.
+     */
+    public ColumnarTaskSlots() {
+        super(false);
+    }
+
+    /**
+     * Returns an unmodifiable copy of the live tasks, in order.
+     * <p>
+     * The copy is columnar too: it copies the columns of the live slots and shares the title
+     * arena, and builds a view for each task as it is read.
+     *
+     * @return the tasks
+     */
+    @Override
+    public List<Task> copyTasks() {
+        int used = usedSlots();
+        Frozen copy = new Frozen(size());
+        int row = 0;
+        for (int slot = 0; slot < used; slot++) {
+            if (isLive(slot)) {
+                copy.types[row] = types[slot];
+                copy.done.set(row, done.get(slot));
+                copy.starts[row] = starts[slot];
+                copy.ends[row] = ends[slot];
+                copy.ids[row] = idAt(slot);
+                copy.titleStarts[row] = titleStarts[slot];
+                copy.titleEnds[row] = titleEnds[slot];
+                row++;
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Returns false: each read builds a new view, so a copy taken earlier does not see later marks.
+     *
+     * @return false
+     */
+    @Override
+    public boolean sharesTasks() {
+        return false;
+    }
+
+    @Override
+    protected void resize(int capacity) {
+        if (types == null) {
+            types = new byte[capacity];
+            starts = new long[capacity];
+            ends = new long[capacity];
+            titleStarts = new int[capacity];
+            titleEnds = new int[capacity];
+        } else {
+            types = Arrays.copyOf(types, capacity);
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            titleStarts = Arrays.copyOf(titleStarts, capacity);
+            titleEnds = Arrays.copyOf(titleEnds, capacity);
+        }
+    }
+
+    @Override
+    protected void store(int slot, Task t, int id) {
+        // Work out every column first, so that a malformed lazy date leaves the slots untouched.
+        byte type = TODO;
+        long start = 0;
+        long end = 0;
+        if (t instanceof Deadline) {
+            type = DEADLINE;
+            start = TimeIndex.minuteOf(((Deadline) t).getDeadline());
+        } else if (t instanceof Event) {
+            type = EVENT;
+            start = TimeIndex.minuteOf(((Event) t).getFrom());
+            end = TimeIndex.minuteOf(((Event) t).getTo());
+        }
+        byte[] title = t.getTitle().getBytes(StandardCharsets.UTF_8);
+        long needed = (long) arenaSize + title.length;
+        if (needed > MAX_ARENA_SIZE) {
+            throw new IllegalStateException("Task titles exceed the columnar store's limit of 2 GB");
+        }
+        if (needed > arena.length) {
+            arena = Arrays.copyOf(arena, (int) Math.min(MAX_ARENA_SIZE, Math.max(needed, arena.length * 2L)));
+        }
+
+        System.arraycopy(title, 0, arena, arenaSize, title.length);
+        titleStarts[slot] = arenaSize;
+        arenaSize += title.length;
+        titleEnds[slot] = arenaSize;
+        types[slot] = type;
+        starts[slot] = start;
+        ends[slot] = end;
+        done.set(slot, t.isDone);
+        t.setId(id);
+    }
+
+    @Override
+    protected Task load(int slot) {
+        int from = titleStarts[slot];
+        String title = new String(arena, from, titleEnds[slot] - from, StandardCharsets.UTF_8);
+        return view(types[slot], done.get(slot), starts[slot], ends[slot], idAt(slot), title);
+    }
+
+    @Override
+    protected boolean isLive(int slot) {
+        return types[slot] != TOMBSTONE;
+    }
+
+    @Override
+    protected void clear(int slot) {
+        types[slot] = TOMBSTONE;
+        done.clear(slot);
+    }
+
+    @Override
+    protected void moveSlots(int from, int count) {
+        System.arraycopy(types, from, types, from + 1, count);
+        System.arraycopy(starts, from, starts, from + 1, count);
+        System.arraycopy(ends, from, ends, from + 1, count);
+        System.arraycopy(titleStarts, from, titleStarts, from + 1, count);
+        System.arraycopy(titleEnds, from, titleEnds, from + 1, count);
+        for (int slot = from + count; slot > from; slot--) {
+            done.set(slot, done.get(slot - 1));
+        }
+    }
+
+    @Override
+    protected int compactSlots(int usedSlots) {
+        int liveBytes = 0;
+        for (int slot = 0; slot < usedSlots; slot++) {
+            if (isLive(slot)) {
+                liveBytes += titleEnds[slot] - titleStarts[slot];
+            }
+        }
+        byte[] packed = new byte[Math.max(1024, liveBytes)];
+        int packedSize = 0;
+        int live = 0;
+        for (int slot = 0; slot < usedSlots; slot++) {
+            if (isLive(slot)) {
+                int from = titleStarts[slot];
+                int length = titleEnds[slot] - from;
+                System.arraycopy(arena, from, packed, packedSize, length);
+                titleStarts[live] = packedSize;
+                packedSize += length;
+                titleEnds[live] = packedSize;
+                types[live] = types[slot];
+                starts[live] = starts[slot];
+                ends[live] = ends[slot];
+                done.set(live, done.get(slot));
+                live++;
+            }
+        }
+        Arrays.fill(types, live, usedSlots, TOMBSTONE);
+        done.clear(live, usedSlots);
+        arena = packed;
+        arenaSize = packedSize;
+        return live;
+    }
+
+    /**
+     * Records a mark or unmark made through a view.
+     */
+    private void setDone(int id, boolean isDone) {
+        int slot = slotOf(id);
+        if (slot >= 0) {
+            done.set(slot, isDone);
+        }
+    }
+
+    private Task view(byte type, boolean isDone, long start, long end, int id, String title) {
+        Task t;
+        if (type == DEADLINE) {
+            t = new DeadlineView(title, dateOf(start));
+        } else if (type == EVENT) {
+            t = new EventView(title, dateOf(start), dateOf(end));
+        } else {
+            t = new ToDoView(title);
+        }
+        t.setId(id);
+        t.isDone = isDone;
+        return t;
+    }
+
+    private static LocalDateTime dateOf(long minute) {
+        return LocalDateTime.ofEpochSecond(minute * 60, 0, ZoneOffset.UTC);
+    }
+
+    private class ToDoView extends ToDo {
+        ToDoView(String title) {
+            super(title);
+        }
+
+        @Override
+        public void mark() {
+            super.mark();
+            setDone(getId(), true);
+        }
+
+        @Override
+        public void unmark() {
+            super.unmark();
+            setDone(getId(), false);
+        }
+    }
+
+    private class DeadlineView extends Deadline {
+        DeadlineView(String title, LocalDateTime deadline) {
+            super(title, deadline);
+        }
+
+        @Override
+        public void mark() {
+            super.mark();
+            setDone(getId(), true);
+        }
+
+        @Override
+        public void unmark() {
+            super.unmark();
+            setDone(getId(), false);
+        }
+    }
+
+    private class EventView extends Event {
+        EventView(String title, LocalDateTime from, LocalDateTime to) {
+            super(title, from, to);
+        }
+
+        @Override
+        public void mark() {
+            super.mark();
+            setDone(getId(), true);
+        }
+
+        @Override
+        public void unmark() {
+            super.unmark();
+            setDone(getId(), false);
+        }
+    }
+
+    /**
+     * The copy returned by {@link #copyTasks()}: the live slots' columns, packed, over the shared arena.
+     */
+    private class Frozen extends AbstractList<Task> {
+        private final byte[] types;
+        private final BitSet done = new BitSet();
+        private final long[] starts;
+        private final long[] ends;
+        private final int[] ids;
+        private final int[] titleStarts;
+        private final int[] titleEnds;
+        private final byte[] titles = arena;
+
+        Frozen(int size) {
+            types = new byte[size];
+            starts = new long[size];
+            ends = new long[size];
+            ids = new int[size];
+            titleStarts = new int[size];
+            titleEnds = new int[size];
+        }
+
+        @Override
+        public Task get(int index) {
+            String title = new String(titles, titleStarts[index], titleEnds[index] - titleStarts[index],
+                    StandardCharsets.UTF_8);
+            return view(types[index], done.get(index), starts[index], ends[index], ids[index], title);
+        }
+
+        @Override
+        public int size() {
+            return types.length;
+        }
+    }
+}
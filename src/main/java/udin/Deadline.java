@@ -2,6 +2,7 @@ package udin;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 
 /**
  * Class for a task with a single deadline
@@ -11,6 +12,11 @@ import java.time.format.DateTimeFormatter;
  */
 public class Deadline extends Task{
     private LocalDateTime deadline;
+    /**
+     * The unparsed deadline of a lazily loaded task, or {@code null} once it has been parsed.
+     * Cleared only after {@link #deadline} is set, so a reader that sees {@code null} here sees the parsed date.
+     */
+    private volatile String rawDeadline;
     private static final DateTimeFormatter INPUT_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HHmm");
     private static final DateTimeFormatter OUTPUT_FORMAT = DateTimeFormatter.ofPattern("MMM dd yyyy, h:mma");
 
@@ -27,22 +33,91 @@ public class Deadline extends Task{
     }
 
     /**
-     * Formats the task for Udin's list method
+     * Constructs a Deadline from an already parsed date, for loaders that decode dates themselves.
+     *
+     * @param title a string to describe the task
+     * @param deadline the deadline
+     */
+    Deadline(String title, LocalDateTime deadline) {
+        super(title);
+        this.deadline = deadline;
+    }
+
+    /**
+     * Constructs a Deadline whose date is parsed only when first needed.
+     * <p>
+     * A malformed date is not detected here; it surfaces as a {@code DateTimeParseException}
+     * from the first call that needs the date.
+     *
+     * @param title a string to describe the task
+     * @param rawDeadline a string for the deadline in yyyy-MM-dd HHmm format
+     * @return the deadline task
+     */
+    static Deadline withLazyDate(String title, String rawDeadline) {
+        Deadline d = new Deadline(title, (LocalDateTime) null);
+        d.rawDeadline = rawDeadline;
+        return d;
+    }
+
+    /**
+     * Returns the deadline of this task, parsing it first if it was loaded lazily.
+     *
+     * @return the deadline
+     * @throws DateTimeParseException if a lazily loaded deadline is malformed
+     */
+    public LocalDateTime getDeadline() {
+        String raw = rawDeadline;
+        if (raw != null) {
+            deadline = LocalDateTime.parse(raw, INPUT_FORMAT);
+            rawDeadline = null;
+        }
+        return deadline;
+    }
+
+    /**
+     * Checks that a lazily loaded deadline can be parsed, without keeping the parsed value.
+     *
+     * @throws DateTimeParseException if the deadline is malformed
+     */
+    void validateDate() {
+        String raw = rawDeadline;
+        if (raw != null) {
+            INPUT_FORMAT.parse(raw);
+        }
+    }
+
+    @Override
+    protected String typeTag() {
+        return "[D]";
+    }
+
+    /**
+     * Formats the deadline for Udin's list method
+     * <p>
+     * A lazily loaded deadline that cannot be parsed is shown as it was saved, so that listing
+     * still works and the user can see which task to fix.
      *
-     * @return a string correctly formatted for list
+     * @return the deadline, formatted for list
      */
     @Override
-    public String display() {
-        return "[D]" + super.display() + " (by: " + this.deadline.format(OUTPUT_FORMAT) + ")";
+    protected String displaySuffix() {
+        try {
+            return " (by: " + getDeadline().format(OUTPUT_FORMAT) + ")";
+        } catch (DateTimeParseException e) {
+            return " (by: " + rawDeadline + ")";
+        }
     }
 
     /**
      * Formats the task to save locally in data/tasks.txt
+     * <p>
+     * A deadline that has not been parsed yet is written back as it was read.
      *
      * @return a string correctly formatted for storage
      */
     @Override
     public String toSaveFormat() {
-        return "D," + (isDone ? "1" : "0") + "," + title + "," + deadline.format(INPUT_FORMAT);
+        String raw = rawDeadline;
+        return "D," + (isDone ? "1" : "0") + "," + title + "," + (raw != null ? raw : deadline.format(INPUT_FORMAT));
     }
 }
@@ -2,6 +2,7 @@ package udin;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 
 /**
  * Class for a task with a start time and end time
@@ -12,6 +13,11 @@ import java.time.format.DateTimeFormatter;
 public class Event extends Task {
     private LocalDateTime from;
     private LocalDateTime to;
+    /**
+     * The unparsed start and end times of a lazily loaded event, or {@code null} once they have been parsed.
+     * Cleared only after {@link #from} and {@link #to} are set, so a reader that sees {@code null} here sees the parsed dates.
+     */
+    private volatile String[] rawDates;
 
     private static final DateTimeFormatter INPUT_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HHmm");
     private static final DateTimeFormatter OUTPUT_FORMAT = DateTimeFormatter.ofPattern("MMM dd yyyy, h:mma");
@@ -31,24 +37,120 @@ public class Event extends Task {
     }
 
     /**
-     * Formats the task for Udin's list method
+     * Constructs an Event from already parsed dates, for loaders that decode dates themselves.
+     *
+     * @param desc a string to describe the task
+     * @param from the start time
+     * @param to the end time
+     */
+    Event(String desc, LocalDateTime from, LocalDateTime to) {
+        super(desc);
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * Constructs an Event whose dates are parsed only when first needed.
+     * <p>
+     * Malformed dates are not detected here; they surface as a {@code DateTimeParseException}
+     * from the first call that needs the dates.
+     *
+     * @param desc a string to describe the task
+     * @param rawFrom a string for the start time in yyyy-MM-dd HHmm format
+     * @param rawTo a string for the end time in yyyy-MM-dd HHmm format
+     * @return the event task
+     */
+    static Event withLazyDates(String desc, String rawFrom, String rawTo) {
+        Event e = new Event(desc, (LocalDateTime) null, null);
+        e.rawDates = new String[] {rawFrom, rawTo};
+        return e;
+    }
+
+    /**
+     * Parses lazily loaded dates, if this event has not done so yet.
+     */
+    private void parseDates() {
+        String[] raw = rawDates;
+        if (raw != null) {
+            LocalDateTime parsedFrom = LocalDateTime.parse(raw[0], INPUT_FORMAT);
+            to = LocalDateTime.parse(raw[1], INPUT_FORMAT);
+            from = parsedFrom;
+            rawDates = null;
+        }
+    }
+
+    /**
+     * Checks that lazily loaded dates can be parsed, without keeping the parsed values.
+     *
+     * @throws DateTimeParseException if a date is malformed
+     */
+    void validateDates() {
+        String[] raw = rawDates;
+        if (raw != null) {
+            INPUT_FORMAT.parse(raw[0]);
+            INPUT_FORMAT.parse(raw[1]);
+        }
+    }
+
+    /**
+     * Returns the start time of this event.
+     *
+     * @return the start time
+     * @throws DateTimeParseException if a lazily loaded date is malformed
+     */
+    public LocalDateTime getFrom() {
+        parseDates();
+        return from;
+    }
+
+    /**
+     * Returns the end time of this event.
+     *
+     * @return the end time
+     * @throws DateTimeParseException if a lazily loaded date is malformed
+     */
+    public LocalDateTime getTo() {
+        parseDates();
+        return to;
+    }
+
+    @Override
+    protected String typeTag() {
+        return "[E]";
+    }
+
+    /**
+     * Formats the event period for Udin's list method
+     * <p>
+     * Lazily loaded dates that cannot be parsed are shown as they were saved, so that listing
+     * still works and the user can see which task to fix.
      *
-     * @return a string correctly formatted for list
+     * @return the start and end, formatted for list
      */
     @Override
-    public String display() {
-        return "[E]" + super.display() +
-                " (from: " + from.format(OUTPUT_FORMAT) +
-                " to: " + to.format(OUTPUT_FORMAT) + ")";
+    protected String displaySuffix() {
+        try {
+            return " (from: " + getFrom().format(OUTPUT_FORMAT) +
+                    " to: " + getTo().format(OUTPUT_FORMAT) + ")";
+        } catch (DateTimeParseException e) {
+            String[] raw = rawDates;
+            return " (from: " + raw[0] + " to: " + raw[1] + ")";
+        }
     }
 
     /**
      * Formats the task to save locally in data/tasks.txt
+     * <p>
+     * Dates that have not been parsed yet are written back as they were read.
      *
      * @return a string correctly formatted for storage
      */
     @Override
     public String toSaveFormat() {
+        String[] raw = rawDates;
+        if (raw != null) {
+            return "E," + (isDone ? "1" : "0") + "," + title + "," + raw[0] + "," + raw[1];
+        }
         return "E," + (isDone ? "1" : "0") + "," + title + "," + from.format(INPUT_FORMAT) + "," + to.format(INPUT_FORMAT);
     }
 }
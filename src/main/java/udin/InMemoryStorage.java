@@ -0,0 +1,83 @@
+package udin;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@link TaskStorage} that keeps the saved tasks in memory and never touches the disk.
+ * <p>
+ * Meant for tests and for measuring command throughput without I/O noise. Saved tasks are
+ * shared with the caller's list rather than copied, so marking a task needs no work here.
+ * The number of saves is counted so a benchmark can check that each command saved.
+ */
+public class InMemoryStorage implements TaskStorage {
+    private final List<Task> saved;
+    private final TaskArchive archive = TaskArchive.inMemory();
+    private long saveCount;
+
+    /**
+     * Constructs an empty in-memory storage.
+     */
+    public InMemoryStorage() {
+        this(new ArrayList<>());
+    }
+
+    /**
+     * Constructs an in-memory storage that starts out holding the given tasks.
+     *
+     * @param initial the tasks to load
+     */
+    public InMemoryStorage(List<Task> initial) {
+        this.saved = new ArrayList<>(initial);
+    }
+
+    @Override
+    public synchronized List<Task> load() {
+        return new ArrayList<>(saved);
+    }
+
+    @Override
+    public synchronized void save(List<Task> tasks) {
+        saved.clear();
+        saved.addAll(tasks);
+        saveCount++;
+    }
+
+    @Override
+    public synchronized void saveAdded(List<Task> tasks, Task added) {
+        saved.add(added);
+        saveCount++;
+    }
+
+    @Override
+    public synchronized void saveMarked(List<Task> tasks, int index) {
+        saved.set(index, tasks.get(index));
+        saveCount++;
+    }
+
+    @Override
+    public synchronized void saveUnmarked(List<Task> tasks, int index) {
+        saved.set(index, tasks.get(index));
+        saveCount++;
+    }
+
+    @Override
+    public synchronized void saveRemoved(List<Task> tasks, int index) {
+        saved.remove(index);
+        saveCount++;
+    }
+
+    @Override
+    public TaskArchive getArchive() {
+        return archive;
+    }
+
+    /**
+     * Returns the number of saves, of any kind, performed so far.
+     *
+     * @return the save count
+     */
+    public synchronized long getSaveCount() {
+        return saveCount;
+    }
+}
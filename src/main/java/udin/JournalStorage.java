@@ -0,0 +1,389 @@
+package udin;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * A {@link Storage} that appends one small record per mutation to a journal file
+ * instead of rewriting the whole save file.
+ * <p>
+ * The save file (e.g. {@code data/tasks.txt}) acts as a snapshot and keeps the usual
+ * CSV format. Mutations are appended to {@code <save file>.journal}, one record per line:
+ * <ul>
+ *   <li>{@code A,<task in save format>} for an added task</li>
+ *   <li>{@code M,<index>} and {@code U,<index>} for a marked or unmarked task</li>
+ *   <li>{@code X,<index>} for a removed task</li>
+ * </ul>
+ * {@link #load()} replays the journal on top of the snapshot. Once the journal grows
+ * past a size threshold, it is rotated and folded into a fresh snapshot on a background thread.
+ * <p>
+ * Each journal starts with a {@code G,<generation>} header, numbered upwards, and a snapshot starts
+ * with the generation of the last journal folded into it. Replaying skips a journal that is not
+ * newer than the snapshot, so a crash between writing a snapshot and deleting the journal it folded
+ * in does not apply that journal twice. Files written before generations were added have no header
+ * and are always replayed.
+ */
+public class JournalStorage extends Storage {
+    /**
+     * Default journal size, in bytes, after which the journal is folded into the snapshot.
+     */
+    public static final long DEFAULT_COMPACTION_THRESHOLD = 1024 * 1024;
+
+    private final File snapshot;
+    private final File journal;
+    private final File rotatedJournal;
+    private final long compactionThreshold;
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "udin-journal-compactor");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private BufferedWriter out;
+    private long journalBytes;
+
+    /**
+     * The generation of the journal being appended to. Guarded by this object's monitor.
+     */
+    private long generation;
+    private volatile Future<?> pendingCompaction;
+
+    /**
+     * Constructs a journaled storage for the given save file with the default compaction threshold.
+     *
+     * @param filePath the path of the snapshot file
+     */
+    public JournalStorage(String filePath) {
+        this(filePath, DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+    /**
+     * Constructs a journaled storage for the given save file.
+     *
+     * @param filePath the path of the snapshot file
+     * @param compactionThreshold the journal size in bytes that triggers a compaction
+     */
+    public JournalStorage(String filePath, long compactionThreshold) {
+        super(filePath);
+        this.snapshot = new File(filePath);
+        this.journal = new File(filePath + ".journal");
+        this.rotatedJournal = new File(filePath + ".journal.old");
+        this.compactionThreshold = compactionThreshold;
+        this.journalBytes = journal.length();
+        long current = readGeneration(journal);
+        this.generation = current >= 0 ? current
+                : Math.max(0, Math.max(readGeneration(snapshot), readGeneration(rotatedJournal))) + 1;
+    }
+
+    /**
+     * Loads the snapshot and replays any journal records on top of it.
+     * <p>
+     * A journal left over from an interrupted compaction is replayed before the current one,
+     * unless the snapshot already holds it.
+     *
+     * @return the list of tasks after all journaled mutations are applied
+     * @throws Exception if the snapshot or a journal record cannot be read
+     */
+    @Override
+    public synchronized List<Task> load() throws Exception {
+        List<Task> tasks;
+        if (!snapshot.exists() && (journal.exists() || rotatedJournal.exists())) {
+            tasks = new ArrayList<>();
+        } else {
+            tasks = super.load();
+        }
+        replayJournals(tasks);
+        return tasks;
+    }
+
+    /**
+     * Loads the snapshot leniently, skipping malformed lines, then replays the journal on top of it.
+     * <p>
+     * Journal records address tasks by their position in the snapshot, counting lines that have
+     * since become malformed. A salvaged snapshot therefore keeps a placeholder for each rejected
+     * line while the journal is replayed, and drops the placeholders only afterwards. A record that
+     * marks or unmarks a rejected line is skipped, since that task is already reported as lost.
+     *
+     * @return the loaded tasks and any problems found in the snapshot
+     * @throws Exception if nothing can be loaded or a journal record is corrupted
+     */
+    @Override
+    public synchronized LoadReport loadReport() throws Exception {
+        if (!snapshot.exists() && (journal.exists() || rotatedJournal.exists())) {
+            List<Task> tasks = new ArrayList<>();
+            replayJournals(tasks);
+            return new LoadReport(tasks);
+        }
+        List<Task> tasks;
+        try {
+            tasks = super.load();
+        } catch (FileNotFoundException e) {
+            throw e;
+        } catch (Exception e) {
+            LoadReport salvaged = new SavedTasksFile(snapshot.getPath()).load(true);
+            replayJournals(salvaged.getTasks());
+            salvaged.getTasks().removeIf(Objects::isNull);
+            return salvaged;
+        }
+        replayJournals(tasks);
+        return new LoadReport(tasks);
+    }
+
+    /**
+     * Replays the rotated journal, then the current one, skipping any that the snapshot already holds.
+     * A rotated journal that was folded in but not deleted is removed, so that compaction can run again.
+     */
+    private void replayJournals(List<Task> tasks) throws Exception {
+        long folded = Math.max(0, readGeneration(snapshot));
+        long rotated = readGeneration(rotatedJournal);
+        if (rotated >= 0 && rotated <= folded) {
+            Files.deleteIfExists(rotatedJournal.toPath());
+        } else {
+            replay(rotatedJournal, tasks);
+        }
+        long current = readGeneration(journal);
+        if (current < 0 || current > folded) {
+            replay(journal, tasks);
+        }
+    }
+
+    /**
+     * Returns the generation in the header of {@code f}, or -1 if it is missing, has no header or cannot be read.
+     */
+    private static long readGeneration(File f) {
+        if (!f.exists()) {
+            return -1;
+        }
+        try (BufferedReader reader = new BufferedReader(new FileReader(f))) {
+            String first = reader.readLine();
+            return first != null && isHeader(first.trim()) ? Long.parseLong(first.trim().substring(2)) : -1;
+        } catch (IOException | NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Applies every record in {@code log} to {@code tasks}, in order.
+     * A final record that cannot be parsed, as left by a crash mid-append, is ignored. A record that
+     * parses but points past the end of the list is corruption, wherever it is, and fails the load.
+     */
+    private void replay(File log, List<Task> tasks) throws Exception {
+        if (!log.exists()) {
+            return;
+        }
+        try (BufferedReader reader = new BufferedReader(new FileReader(log))) {
+            String line = reader.readLine();
+            while (line != null) {
+                String next = reader.readLine();
+                String record = line.trim();
+                Object payload;
+                try {
+                    payload = parseRecord(record);
+                } catch (Exception e) {
+                    if (next != null) {
+                        throw new Exception("Corrupted journal record in " + log.getName() + ": " + line, e);
+                    }
+                    break;
+                }
+                if (payload != null) {
+                    applyRecord(record.charAt(0), payload, tasks, log);
+                }
+                line = next;
+            }
+        }
+    }
+
+    /**
+     * Decodes a record: the added task for {@code A}, the index for {@code M}, {@code U} and {@code X},
+     * or {@code null} for a header or a blank line.
+     *
+     * @throws Exception if the record cannot be parsed
+     */
+    private static Object parseRecord(String record) throws Exception {
+        if (record.isEmpty()) {
+            return null;
+        }
+        if (record.length() < 2 || record.charAt(1) != ',') {
+            throw new Exception("Unknown journal record: " + record);
+        }
+        String payload = record.substring(2);
+        switch (record.charAt(0)) {
+            case 'G':
+                return null;
+            case 'A':
+                return parseTask(payload);
+            case 'M':
+            case 'U':
+            case 'X':
+                return Integer.parseInt(payload);
+            default:
+                throw new Exception("Unknown journal record: " + record);
+        }
+    }
+
+    private static void applyRecord(char type, Object payload, List<Task> tasks, File log) throws Exception {
+        if (payload instanceof Task) {
+            tasks.add((Task) payload);
+            return;
+        }
+        int index = (Integer) payload;
+        if (index < 0 || index >= tasks.size()) {
+            throw new Exception("Journal record out of range in " + log.getName() + ": " + type + "," + index
+                    + " with " + tasks.size() + " tasks");
+        }
+        Task t = tasks.get(index);
+        switch (type) {
+            case 'M':
+                if (t != null) {
+                    t.mark();
+                }
+                break;
+            case 'U':
+                if (t != null) {
+                    t.unmark();
+                }
+                break;
+            default:
+                tasks.remove(index);
+                break;
+        }
+    }
+
+    @Override
+    public void saveAdded(List<Task> tasks, Task added) throws IOException {
+        append("A," + added.toSaveFormat(), tasks);
+    }
+
+    @Override
+    public void saveMarked(List<Task> tasks, int index) throws IOException {
+        append("M," + index, tasks);
+    }
+
+    @Override
+    public void saveUnmarked(List<Task> tasks, int index) throws IOException {
+        append("U," + index, tasks);
+    }
+
+    @Override
+    public void saveRemoved(List<Task> tasks, int index) throws IOException {
+        append("X," + index, tasks);
+    }
+
+    /**
+     * Writes a full snapshot synchronously and empties the journal.
+     *
+     * @param tasks the list of tasks to save
+     * @throws IOException if writing fails
+     */
+    @Override
+    public synchronized void save(List<Task> tasks) throws IOException {
+        awaitCompaction();
+        closeJournal();
+        writeSnapshot(tasks, generation);
+        Files.deleteIfExists(journal.toPath());
+        Files.deleteIfExists(rotatedJournal.toPath());
+        generation++;
+        journalBytes = 0;
+    }
+
+    private synchronized void append(String record, List<Task> tasks) throws IOException {
+        if (out == null) {
+            File parent = journal.getAbsoluteFile().getParentFile();
+            if (parent != null && !parent.exists()) {
+                parent.mkdirs();
+            }
+            out = new BufferedWriter(new FileWriter(journal, true));
+            if (journal.length() == 0) {
+                writeRecord(HEADER_PREFIX + generation);
+            }
+        }
+        writeRecord(record);
+        out.flush();
+        if (journalBytes >= compactionThreshold) {
+            startCompaction(tasks);
+        }
+    }
+
+    /**
+     * Writes one line to the open journal and counts its encoded size towards the compaction threshold.
+     */
+    private void writeRecord(String record) throws IOException {
+        out.write(record);
+        out.write(System.lineSeparator());
+        journalBytes += record.getBytes(Charset.defaultCharset()).length + System.lineSeparator().length();
+    }
+
+    /**
+     * Rotates the journal and folds {@code tasks} into a new snapshot in the background.
+     * Records appended after the rotation go to a fresh journal, so they survive the compaction.
+     */
+    private void startCompaction(List<Task> tasks) throws IOException {
+        if (rotatedJournal.exists()) {
+            // A previous compaction is still running or failed; keep its journal intact.
+            return;
+        }
+        closeJournal();
+        Files.move(journal.toPath(), rotatedJournal.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        long folded = generation++;
+        journalBytes = 0;
+        // Tasks marked after this point may already appear as done in the snapshot;
+        // replaying their M/U records on top is harmless since those are idempotent.
+        List<Task> copy = new ArrayList<>(tasks);
+        pendingCompaction = compactor.submit(() -> {
+            writeSnapshot(copy, folded);
+            Files.deleteIfExists(rotatedJournal.toPath());
+            return null;
+        });
+    }
+
+    /**
+     * Writes {@code tasks}, headed by the generation of the last journal they include, to a temporary
+     * file and atomically moves it over the snapshot.
+     */
+    private void writeSnapshot(List<Task> tasks, long folded) throws IOException {
+        File tmp = new File(snapshot.getPath() + ".tmp");
+        writeTasks(tmp, tasks, HEADER_PREFIX + folded);
+        Files.move(tmp.toPath(), snapshot.toPath(),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void closeJournal() throws IOException {
+        if (out != null) {
+            out.close();
+            out = null;
+        }
+    }
+
+    /**
+     * Blocks until any background compaction has finished.
+     *
+     * @throws IOException if the compaction failed
+     */
+    void awaitCompaction() throws IOException {
+        Future<?> pending = pendingCompaction;
+        if (pending == null) {
+            return;
+        }
+        try {
+            pending.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            throw new IOException("Journal compaction failed: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package udin;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The result of loading a save file: the tasks that could be read, and a
+ * diagnostic for every record that could not.
+ */
+public class LoadReport {
+    /**
+     * Maximum number of diagnostics listed in {@link #summary()}.
+     */
+    private static final int MAX_LISTED = 10;
+
+    private final List<Task> tasks;
+    private final List<String> diagnostics;
+    private final String rejectedFile;
+
+    /**
+     * Constructs a report for a load that found no problems.
+     *
+     * @param tasks the loaded tasks
+     */
+    public LoadReport(List<Task> tasks) {
+        this(tasks, new ArrayList<>(), null);
+    }
+
+    /**
+     * Constructs a report for a load that skipped some records.
+     *
+     * @param tasks the loaded tasks
+     * @param diagnostics one message per skipped record, including its line number
+     * @param rejectedFile the file the skipped records were moved to, or {@code null} if none
+     */
+    public LoadReport(List<Task> tasks, List<String> diagnostics, String rejectedFile) {
+        this.tasks = tasks;
+        this.diagnostics = diagnostics;
+        this.rejectedFile = rejectedFile;
+    }
+
+    /**
+     * Returns the tasks that were loaded successfully.
+     *
+     * @return the loaded tasks
+     */
+    public List<Task> getTasks() {
+        return tasks;
+    }
+
+    /**
+     * Returns one message per skipped record.
+     *
+     * @return the diagnostics
+     */
+    public List<String> getDiagnostics() {
+        return diagnostics;
+    }
+
+    /**
+     * Returns the file the skipped records were moved to.
+     *
+     * @return the rejected file, or {@code null} if nothing was moved
+     */
+    public String getRejectedFile() {
+        return rejectedFile;
+    }
+
+    /**
+     * Returns whether any record had to be skipped.
+     *
+     * @return true if there were problems
+     */
+    public boolean hasProblems() {
+        return !diagnostics.isEmpty();
+    }
+
+    /**
+     * Summarises the load for the user, listing the first few problems.
+     *
+     * @return the summary
+     */
+    public String summary() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Loaded ").append(tasks.size()).append(" tasks");
+        if (!hasProblems()) {
+            return sb.append(".").toString();
+        }
+        sb.append(", skipped ").append(diagnostics.size()).append(" malformed line(s)");
+        if (rejectedFile != null) {
+            sb.append(" (moved to ").append(rejectedFile).append(")");
+        }
+        sb.append(":");
+        for (int i = 0; i < Math.min(MAX_LISTED, diagnostics.size()); i++) {
+            sb.append("\n  ").append(diagnostics.get(i));
+        }
+        if (diagnostics.size() > MAX_LISTED) {
+            sb.append("\n  ...and ").append(diagnostics.size() - MAX_LISTED).append(" more");
+        }
+        return sb.toString();
+    }
+}
@@ -1,5 +1,6 @@
 package udin;
 
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
 import javafx.scene.control.ScrollPane;
@@ -32,9 +33,11 @@ public class MainWindow extends AnchorPane {
         userInput.setFocusTraversable(false);
     }
 
-    /** Injects the Udin instance */
+    /** Injects the Udin instance and shows its reminders in the dialog */
     public void setUdin(Udin d) {
         udin = d;
+        udin.startReminders((task, message) -> Platform.runLater(() ->
+                dialogContainer.getChildren().add(DialogBox.getUdinDialog(message, udinImage))));
     }
 
     /**
@@ -0,0 +1,328 @@
+package udin;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.time.Year;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Loads a save file by memory-mapping it and scanning the bytes for delimiters directly.
+ * <p>
+ * Unlike the {@link java.util.Scanner} path in {@link Storage#load()}, no per-line
+ * {@code String}, trimmed copy or split array is created: the only allocations per
+ * record are the title and the parsed dates. Dates in the usual {@code yyyy-MM-dd HHmm}
+ * form are decoded from the digits; anything else goes through {@link DateTimeFormatter}
+ * so errors and lenient cases behave exactly as before.
+ * <p>
+ * Large files are split into byte ranges that start and end on line breaks. The ranges are
+ * parsed in parallel on a fork-join pool and the results concatenated in file order.
+ */
+public class MappedTaskLoader {
+    /**
+     * Largest region mapped at once; bigger files are mapped in windows ending on a line break.
+     */
+    private static final int MAX_WINDOW = 1 << 30;
+
+    /**
+     * Regions smaller than this, in bytes, are parsed on the calling thread.
+     */
+    static final int PARALLEL_THRESHOLD = 8 * 1024 * 1024;
+
+    private static final DateTimeFormatter INPUT_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HHmm");
+    private static final int DATE_LENGTH = 15;
+
+    private final Charset charset = Charset.defaultCharset();
+    private final ForkJoinPool pool;
+    private final int parallelThreshold;
+    private boolean isLazyDates;
+
+    /**
+     * Constructs a loader that parses large files on the common fork-join pool.
+     */
+    public MappedTaskLoader() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a loader that parses large files on the given pool.
+     *
+     * @param pool the pool to parse chunks on
+     */
+    public MappedTaskLoader(ForkJoinPool pool) {
+        this(pool, PARALLEL_THRESHOLD);
+    }
+
+    /**
+     * Constructs a loader that parses regions of at least {@code parallelThreshold} bytes on the given pool.
+     *
+     * @param pool the pool to parse chunks on
+     * @param parallelThreshold the smallest region, in bytes, worth splitting across workers
+     */
+    MappedTaskLoader(ForkJoinPool pool, int parallelThreshold) {
+        this.pool = pool;
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    /**
+     * Sets whether dates are left as text and parsed only when first needed.
+     *
+     * @param isLazyDates true to defer date parsing
+     * @see Storage#setLazyDates(boolean)
+     */
+    public void setLazyDates(boolean isLazyDates) {
+        this.isLazyDates = isLazyDates;
+    }
+
+    /**
+     * Loads all tasks from the file at {@code path}.
+     *
+     * @param path the save file
+     * @return the tasks in file order
+     * @throws Exception if the file cannot be read or a line is malformed
+     */
+    public List<Task> load(Path path) throws Exception {
+        List<Task> tasks = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            while (position < size) {
+                int length = (int) Math.min(MAX_WINDOW, size - position);
+                MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                int end = length;
+                if (position + length < size) {
+                    end = lastLineBreak(buf, length) + 1;
+                    if (end == 0) {
+                        throw new IOException("Line longer than " + MAX_WINDOW + " bytes in " + path);
+                    }
+                }
+                if (end < parallelThreshold || pool.getParallelism() < 2) {
+                    parseRange(buf, 0, end, tasks);
+                } else {
+                    parseChunks(buf, end, tasks);
+                }
+                position += end;
+            }
+        }
+        return tasks;
+    }
+
+    private static int lastLineBreak(MappedByteBuffer buf, int length) {
+        for (int i = length - 1; i >= 0; i--) {
+            if (buf.get(i) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Splits {@code [0, end)} into one range per worker, aligned on line breaks,
+     * parses the ranges in parallel and appends the results to {@code out} in order.
+     */
+    private void parseChunks(MappedByteBuffer buf, int end, List<Task> out) throws Exception {
+        int chunks = pool.getParallelism() * 4;
+        List<Future<List<Task>>> parts = new ArrayList<>(chunks);
+        int start = 0;
+        for (int i = 1; i <= chunks && start < end; i++) {
+            int chunkEnd = i == chunks ? end : nextLineStart(buf, (int) ((long) end * i / chunks), end);
+            if (chunkEnd <= start) {
+                continue;
+            }
+            int from = start;
+            parts.add(pool.submit(() -> {
+                List<Task> local = new ArrayList<>();
+                parseRange(buf, from, chunkEnd, local);
+                return local;
+            }));
+            start = chunkEnd;
+        }
+        for (Future<List<Task>> part : parts) {
+            try {
+                out.addAll(part.get());
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof Exception) {
+                    throw (Exception) cause;
+                }
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Returns the offset just past the first line break at or after {@code from}, or {@code end} if there is none.
+     */
+    private static int nextLineStart(MappedByteBuffer buf, int from, int end) {
+        for (int i = from; i < end; i++) {
+            if (buf.get(i) == '\n') {
+                return i + 1;
+            }
+        }
+        return end;
+    }
+
+    /**
+     * Parses every line in {@code [start, end)} of {@code buf} and appends the tasks to {@code out}.
+     *
+     * @param buf the mapped file contents
+     * @param start the offset of the first byte of a line
+     * @param end the offset just past the last byte to parse
+     * @param out the list receiving the parsed tasks
+     * @throws Exception if a line is malformed
+     */
+    void parseRange(MappedByteBuffer buf, int start, int end, List<Task> out) throws Exception {
+        int lineStart = start;
+        while (lineStart < end) {
+            int lineEnd = lineStart;
+            while (lineEnd < end && buf.get(lineEnd) != '\n' && buf.get(lineEnd) != '\r') {
+                lineEnd++;
+            }
+            Task t = parseLine(buf, lineStart, lineEnd);
+            if (t != null) {
+                out.add(t);
+            }
+            lineStart = lineEnd + 1;
+        }
+    }
+
+    /**
+     * Returns whether the line in {@code [from, to)} starts with {@link Storage#HEADER_PREFIX},
+     * the same check as {@link Storage#isHeader(String)}.
+     */
+    private static boolean isHeader(MappedByteBuffer buf, int from, int to) {
+        String prefix = Storage.HEADER_PREFIX;
+        if (to - from < prefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (buf.get(from + i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Parses the line in {@code [from, to)}, or returns {@code null} if it is blank or a generation header.
+     */
+    private Task parseLine(MappedByteBuffer buf, int from, int to) throws Exception {
+        while (from < to && (buf.get(from) & 0xff) <= ' ') {
+            from++;
+        }
+        while (to > from && (buf.get(to - 1) & 0xff) <= ' ') {
+            to--;
+        }
+        if (from == to || isHeader(buf, from, to)) {
+            return null;
+        }
+
+        int typeEnd = indexOfComma(buf, from, to);
+        int doneEnd = indexOfComma(buf, typeEnd + 1, to);
+        if (typeEnd - from != 1 || doneEnd >= to) {
+            throw malformed(buf, from, to);
+        }
+        byte type = buf.get(from);
+        boolean done = doneEnd - typeEnd == 2 && buf.get(typeEnd + 1) == '1';
+        int titleStart = doneEnd + 1;
+        int titleEnd = indexOfComma(buf, titleStart, to);
+
+        Task t;
+        switch (type) {
+            case 'T':
+                t = new ToDo(decode(buf, titleStart, titleEnd));
+                break;
+            case 'D': {
+                if (titleEnd >= to) {
+                    throw malformed(buf, from, to);
+                }
+                int byEnd = indexOfComma(buf, titleEnd + 1, to);
+                String title = decode(buf, titleStart, titleEnd);
+                t = isLazyDates
+                        ? Deadline.withLazyDate(title, decode(buf, titleEnd + 1, byEnd))
+                        : new Deadline(title, parseDate(buf, titleEnd + 1, byEnd));
+                break;
+            }
+            case 'E': {
+                int fromEnd = indexOfComma(buf, titleEnd + 1, to);
+                if (titleEnd >= to || fromEnd >= to) {
+                    throw malformed(buf, from, to);
+                }
+                int toEnd = indexOfComma(buf, fromEnd + 1, to);
+                String title = decode(buf, titleStart, titleEnd);
+                t = isLazyDates
+                        ? Event.withLazyDates(title, decode(buf, titleEnd + 1, fromEnd), decode(buf, fromEnd + 1, toEnd))
+                        : new Event(title, parseDate(buf, titleEnd + 1, fromEnd), parseDate(buf, fromEnd + 1, toEnd));
+                break;
+            }
+            default:
+                throw new Exception("Wrong format of task in udin.Storage");
+        }
+        if (done) t.mark();
+        return t;
+    }
+
+    private static int indexOfComma(MappedByteBuffer buf, int from, int to) {
+        int i = from;
+        while (i < to && buf.get(i) != ',') {
+            i++;
+        }
+        return i;
+    }
+
+    private String decode(MappedByteBuffer buf, int from, int to) {
+        byte[] bytes = new byte[to - from];
+        buf.get(from, bytes);
+        return new String(bytes, charset);
+    }
+
+    private Exception malformed(MappedByteBuffer buf, int from, int to) {
+        return new Exception("Malformed task in udin.Storage: " + decode(buf, from, to));
+    }
+
+    /**
+     * Decodes a {@code yyyy-MM-dd HHmm} date straight from its digits, falling back to
+     * the formatter for anything that is not a plainly valid date in that form.
+     */
+    private LocalDateTime parseDate(MappedByteBuffer buf, int from, int to) {
+        if (to - from == DATE_LENGTH && buf.get(from + 4) == '-' && buf.get(from + 7) == '-'
+                && buf.get(from + 10) == ' ') {
+            int year = digits(buf, from, 4);
+            int month = digits(buf, from + 5, 2);
+            int day = digits(buf, from + 8, 2);
+            int hour = digits(buf, from + 11, 2);
+            int minute = digits(buf, from + 13, 2);
+            if (year >= 1 && month >= 1 && month <= 12 && day >= 1
+                    && day <= Month.of(month).length(Year.isLeap(year))
+                    && hour >= 0 && hour <= 23 && minute >= 0 && minute <= 59) {
+                return LocalDateTime.of(year, month, day, hour, minute);
+            }
+        }
+        return LocalDateTime.parse(decode(buf, from, to), INPUT_FORMAT);
+    }
+
+    /**
+     * Returns the value of {@code count} ASCII digits starting at {@code from}, or -1 if any is not a digit.
+     */
+    private static int digits(MappedByteBuffer buf, int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            int d = buf.get(i) - '0';
+            if (d < 0 || d > 9) {
+                return -1;
+            }
+            value = value * 10 + d;
+        }
+        return value;
+    }
+}
@@ -1,7 +1,16 @@
 package udin;
 
 import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 public class Parser {
     // Command prefix lengths
@@ -9,13 +18,27 @@ public class Parser {
     private static final int DEADLINE_PREFIX_LENGTH = 9;
     private static final int EVENT_PREFIX_LENGTH = 6;
     private static final int FIND_PREFIX_LENGTH = 5;
+    private static final int ARCHIVE_PREFIX_LENGTH = 8;
+    private static final int DUE_PREFIX_LENGTH = 4;
+    private static final int BETWEEN_PREFIX_LENGTH = 8;
+    private static final int ON_PREFIX_LENGTH = 3;
+    private static final int LIST_PREFIX_LENGTH = 5;
+    private static final String SORT_OPTION = "--sort=";
+    private static final String FIND_SELECTION_PREFIX = "find:";
+
+    // Date query formats
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HHmm");
+    private static final DateTimeFormatter OUTPUT_FORMAT = DateTimeFormatter.ofPattern("MMM dd yyyy, h:mma");
+    private static final DateTimeFormatter OUTPUT_DAY_FORMAT = DateTimeFormatter.ofPattern("MMM dd yyyy");
+    private static final LocalTime END_OF_DAY = LocalTime.of(23, 59);
     
     // Array indices and validation
     private static final int COMMAND_INDEX = 1;
     private static final int DEADLINE_MIN_PARTS = 2;
     private static final int EVENT_MIN_PARTS = 3;
     
-    public static boolean isList(String cmd) { return "list".equals(cmd); }
+    public static boolean isList(String cmd) { return "list".equals(cmd) || cmd.startsWith("list "); }
     public static boolean isBye(String cmd) { return "bye".equals(cmd); }
     public static boolean isMark(String cmd) { return cmd.startsWith("mark "); }
     public static boolean isUnmark(String cmd) { return cmd.startsWith("unmark "); }
@@ -24,6 +47,13 @@ public class Parser {
     public static boolean isEvent(String cmd) { return cmd.startsWith("event "); }
     public static boolean isDelete(String cmd) { return cmd.startsWith("delete "); }
     public static boolean isHelp(String cmd) { return "help".equals(cmd); }
+    public static boolean isArchive(String cmd) { return "archive".equals(cmd) || cmd.startsWith("archive "); }
+    public static boolean isDue(String cmd) { return cmd.startsWith("due "); }
+    public static boolean isBetween(String cmd) { return cmd.startsWith("between "); }
+    public static boolean isOn(String cmd) { return cmd.startsWith("on "); }
+    public static boolean isStats(String cmd) { return "stats".equals(cmd); }
+    public static boolean isUndo(String cmd) { return "undo".equals(cmd); }
+    public static boolean isRedo(String cmd) { return "redo".equals(cmd); }
 
     public static int parseIndex(String cmd) {
         String[] parts = cmd.split(" ");
@@ -41,6 +71,101 @@ public class Parser {
         }
     }
 
+    /**
+     * Parses the task a command refers to, either by position ({@code mark 3}) or by stable ID ({@code mark #17}).
+     *
+     * @param cmd the command
+     * @param tasks the task list used to look up IDs
+     * @return the zero-based position of the task, or -1 if no task has the given ID
+     * @throws IllegalArgumentException if the argument is missing or not a valid number
+     */
+    public static int parseIndex(String cmd, TaskList tasks) {
+        String[] parts = cmd.split(" ");
+        if (parts.length < 2 || !parts[COMMAND_INDEX].startsWith("#")) {
+            return parseIndex(cmd);
+        }
+        try {
+            return tasks.indexOfId(Integer.parseInt(parts[COMMAND_INDEX].substring(1)));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Task ID must be a valid integer");
+        }
+    }
+
+    /**
+     * Returns whether a mark, unmark or delete command selects several tasks at once:
+     * a range ({@code mark 1-500}), a list ({@code unmark 3,7,#12}) or a search ({@code delete find:milk}).
+     *
+     * @param cmd the command
+     * @return true if the command should be applied as one batch
+     */
+    public static boolean isBulkSelection(String cmd) {
+        int space = cmd.indexOf(' ');
+        if (space < 0) {
+            return false;
+        }
+        String arg = cmd.substring(space + 1).trim();
+        return arg.startsWith(FIND_SELECTION_PREFIX) || arg.contains(",") || arg.matches("\\d+-\\d+");
+    }
+
+    /**
+     * Parses the tasks selected by a bulk command, as recognised by {@link #isBulkSelection(String)}.
+     * <p>
+     * A list may mix numbers, ranges and IDs, e.g. {@code 1-3,7,#12}; a task selected twice is
+     * returned once. {@code find:<keyword>} selects the tasks {@code find <keyword>} would list.
+     *
+     * @param cmd the command
+     * @param tasks the task list to select from
+     * @return the selected tasks, without duplicates
+     * @throws IndexOutOfBoundsException if a number, range or ID does not refer to a task
+     * @throws IllegalArgumentException if the selection is malformed
+     */
+    public static List<Task> parseSelection(String cmd, TaskList tasks) {
+        String arg = cmd.substring(cmd.indexOf(' ') + 1).trim();
+        if (arg.startsWith(FIND_SELECTION_PREFIX)) {
+            String keyword = arg.substring(FIND_SELECTION_PREFIX.length()).trim();
+            if (keyword.isEmpty()) {
+                throw new IllegalArgumentException("Please provide a keyword after find:");
+            }
+            return TokenIndex.isBooleanQuery(keyword) ? tasks.findTasksByQuery(keyword) : tasks.findTasksByKeyword(keyword);
+        }
+        Set<Task> selected = new LinkedHashSet<>();
+        for (String part : arg.split(",")) {
+            part = part.trim();
+            int dash = part.indexOf('-', 1);
+            if (part.startsWith("#")) {
+                Task t = tasks.getById(parseSelectionNumber(part.substring(1)));
+                if (t == null) {
+                    throw new IndexOutOfBoundsException("No task with ID " + part);
+                }
+                selected.add(t);
+            } else if (dash > 0) {
+                int from = parseSelectionNumber(part.substring(0, dash));
+                int to = parseSelectionNumber(part.substring(dash + 1));
+                if (from < 1 || from > to || to > tasks.size()) {
+                    throw new IndexOutOfBoundsException("Invalid task range " + part);
+                }
+                for (int i = from; i <= to; i++) {
+                    selected.add(tasks.get(i - 1));
+                }
+            } else {
+                int number = parseSelectionNumber(part);
+                if (number < 1 || number > tasks.size()) {
+                    throw new IndexOutOfBoundsException("Invalid task number " + part);
+                }
+                selected.add(tasks.get(number - 1));
+            }
+        }
+        return new ArrayList<>(selected);
+    }
+
+    private static int parseSelectionNumber(String s) {
+        try {
+            return Integer.parseInt(s.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Task number must be a valid integer");
+        }
+    }
+
     public static String[] parseDeadlineParts(String input) {
         String[] parts = input.substring(DEADLINE_PREFIX_LENGTH).split("/by", 2);
         return new String[]{ parts[0].trim(), parts.length > 1 ? parts[1].trim() : "" };
@@ -52,6 +177,38 @@ public class Parser {
         return parts;
     }
 
+    /**
+     * Parses the times of a date query, each written as {@code yyyy-MM-dd} optionally followed by {@code HHmm}.
+     * <p>
+     * A time given without {@code HHmm} falls on {@code defaultTimes[i]}, e.g. the start or end of that day.
+     *
+     * @param args the arguments after the command word
+     * @param defaultTimes the time of day to use for each date written without one
+     * @return one time per entry of {@code defaultTimes}
+     * @throws IllegalArgumentException if the number of dates is wrong
+     * @throws DateTimeParseException if a date or time is malformed
+     */
+    public static LocalDateTime[] parseQueryTimes(String args, LocalTime... defaultTimes) {
+        String[] words = args.trim().split("\\s+");
+        LocalDateTime[] times = new LocalDateTime[defaultTimes.length];
+        int w = 0;
+        for (int i = 0; i < times.length; i++) {
+            if (w >= words.length || words[w].isEmpty()) {
+                throw new IllegalArgumentException("Expected " + times.length + " date(s)");
+            }
+            LocalDate date = LocalDate.parse(words[w++], DATE_FORMAT);
+            LocalTime time = defaultTimes[i];
+            if (w < words.length && words[w].length() == 4 && words[w].chars().allMatch(Character::isDigit)) {
+                time = LocalTime.parse(words[w++], TIME_FORMAT);
+            }
+            times[i] = date.atTime(time);
+        }
+        if (w < words.length) {
+            throw new IllegalArgumentException("Expected " + times.length + " date(s)");
+        }
+        return times;
+    }
+
 
     /**
      * Executes a command and returns the result for JavaFX mode.
@@ -61,7 +218,7 @@ public class Parser {
      * @param storage the storage to save tasks
      * @return the response string
      */
-    public static String executeCommand(String command, TaskList tasks, Storage storage) {
+    public static String executeCommand(String command, TaskList tasks, TaskStorage storage) {
         try {
             if (isBye(command)) {
                 try {
@@ -71,7 +228,9 @@ public class Parser {
                 }
                 return "Bye. Hope to see you again soon!";
             } else if (isList(command)) {
-                return tasks.show();
+                return handleListCommand(command, tasks);
+            } else if ((isMark(command) || isUnmark(command) || isDelete(command)) && isBulkSelection(command)) {
+                return handleBulkCommand(command, tasks, storage);
             } else if (isMark(command)) {
                 return handleMarkCommand(command, tasks, storage);
             } else if (isUnmark(command)) {
@@ -88,8 +247,20 @@ public class Parser {
                 return handleDeleteCommand(command, tasks, storage);
             } else if (isHelp(command)) {
                 return Udin.HELP;
+            } else if (isDue(command)) {
+                return handleDueCommand(command, tasks);
+            } else if (isBetween(command)) {
+                return handleBetweenCommand(command, tasks);
+            } else if (isOn(command)) {
+                return handleOnCommand(command, tasks);
+            } else if (isArchive(command)) {
+                return handleArchiveCommand(command, tasks, storage);
+            } else if (isStats(command)) {
+                return handleStatsCommand(tasks);
+            } else if (isUndo(command) || isRedo(command)) {
+                return handleHistoryCommand(isUndo(command), tasks, storage);
             } else if (command.startsWith("find ")) {
-                return handleFindCommand(command, tasks);
+                return handleFindCommand(command, tasks, storage);
             } else if (command.trim().equals("find")) {
                 return "Please provide a keyword to find.";
             } else {
@@ -101,14 +272,65 @@ public class Parser {
     }
 
 
-    private static String handleMarkCommand(String command, TaskList tasks, Storage storage) {
-        int idx = parseIndex(command);
+    /**
+     * Shows one page of the list: {@code list} starts from the top, {@code list next} continues
+     * where the last page ended, {@code list page 5} jumps to a page and {@code list --limit 50}
+     * changes the page size and starts from the top.
+     * <p>
+     * Any of these may add {@code --sort=<key>} to show the tasks in a {@link SortOrder}. The order
+     * stays in effect for {@code list next} and {@code list page}; {@code list} or
+     * {@code list --limit} without it go back to list order.
+     */
+    private static String handleListCommand(String command, TaskList tasks) {
+        List<String> args = new ArrayList<>();
+        SortOrder order = null;
+        if (command.length() > LIST_PREFIX_LENGTH) {
+            for (String arg : command.substring(LIST_PREFIX_LENGTH).trim().split("\\s+")) {
+                if (arg.startsWith(SORT_OPTION)) {
+                    order = SortOrder.fromKey(arg.substring(SORT_OPTION.length()));
+                    if (order == null) {
+                        return "Unknown sort key '" + arg.substring(SORT_OPTION.length())
+                                + "'. Please use --sort=deadline, --sort=type or --sort=status.";
+                    }
+                } else if (!arg.isEmpty()) {
+                    args.add(arg);
+                }
+            }
+        }
+        try {
+            if (args.isEmpty()) {
+                tasks.setPageOrder(order);
+                return tasks.showPage(1);
+            } else if (args.size() == 1 && args.get(0).equals("next")) {
+                if (order != null) {
+                    tasks.setPageOrder(order);
+                }
+                return tasks.showNextPage();
+            } else if (args.size() == 2 && args.get(0).equals("page") && Integer.parseInt(args.get(1)) > 0) {
+                if (order != null) {
+                    tasks.setPageOrder(order);
+                }
+                return tasks.showPage(Integer.parseInt(args.get(1)));
+            } else if (args.size() == 2 && args.get(0).equals("--limit") && Integer.parseInt(args.get(1)) > 0) {
+                tasks.setPageSize(Integer.parseInt(args.get(1)));
+                tasks.setPageOrder(order);
+                return tasks.showPage(1);
+            }
+        } catch (NumberFormatException e) {
+            // Falls through to the usage message.
+        }
+        return "Please use list, list next, list page <number> or list --limit <tasks per page>,"
+                + " optionally with --sort=<deadline|type|status>.";
+    }
+
+    private static String handleMarkCommand(String command, TaskList tasks, TaskStorage storage) {
+        int idx = parseIndex(command, tasks);
         if (idx < 0 || idx >= tasks.size()) {
             return "Invalid task number.";
         } else {
             tasks.mark(idx);
             try {
-                storage.save(tasks.getAll());
+                storage.saveMarked(tasks.getAll(), idx);
             } catch (IOException e) {
                 return "Good boy! This task is all done:\n" + tasks.get(idx).display()
                         + "\nWarning: Failed to save tasks: " + e.getMessage();
@@ -117,14 +339,14 @@ public class Parser {
         }
     }
 
-    private static String handleUnmarkCommand(String command, TaskList tasks, Storage storage) {
-        int idx = parseIndex(command);
+    private static String handleUnmarkCommand(String command, TaskList tasks, TaskStorage storage) {
+        int idx = parseIndex(command, tasks);
         if (idx < 0 || idx >= tasks.size()) {
             return "Invalid task number.";
         } else {
             tasks.unmark(idx);
             try {
-                storage.save(tasks.getAll());
+                storage.saveUnmarked(tasks.getAll(), idx);
             } catch (IOException e) {
                 return "This task was unmarked:\n" + tasks.get(idx).display()
                         + "\nWarning: Failed to save tasks: " + e.getMessage();
@@ -133,7 +355,7 @@ public class Parser {
         }
     }
 
-    private static String handleTodoCommand(String command, TaskList tasks, Storage storage) {
+    private static String handleTodoCommand(String command, TaskList tasks, TaskStorage storage) {
         String desc = command.substring(TODO_PREFIX_LENGTH).trim();
         if (desc.isBlank()) {
             return "The description of a todo cannot be empty.";
@@ -141,7 +363,7 @@ public class Parser {
             Task t = new ToDo(desc);
             tasks.add(t);
             try {
-                storage.save(tasks.getAll());
+                storage.saveAdded(tasks.getAll(), t);
             } catch (IOException e) {
                 return "Got it. I've added this task:\n  " + t.display()
                         + "\nNow you have " + tasks.size() + " tasks in the list.\n"
@@ -152,7 +374,7 @@ public class Parser {
         }
     }
 
-    private static String handleDeadlineCommand(String command, TaskList tasks, Storage storage) {
+    private static String handleDeadlineCommand(String command, TaskList tasks, TaskStorage storage) {
         String[] p = parseDeadlineParts(command);
         if (p.length < DEADLINE_MIN_PARTS || p[0].isBlank() || p[1].isBlank()) {
             return "The description or /by date of a deadline cannot be empty.";
@@ -161,7 +383,7 @@ public class Parser {
                 Task t = new Deadline(p[0], p[1]);
                 tasks.add(t);
                 try {
-                    storage.save(tasks.getAll());
+                    storage.saveAdded(tasks.getAll(), t);
                 } catch (IOException e) {
                     return "Got it. I've added this task:\n  " + t.display()
                             + "\nNow you have " + tasks.size() + " tasks in the list.\n"
@@ -175,7 +397,7 @@ public class Parser {
         }
     }
 
-    private static String handleEventCommand(String command, TaskList tasks, Storage storage) {
+    private static String handleEventCommand(String command, TaskList tasks, TaskStorage storage) {
         String[] p = parseEventParts(command);
         if (p.length < EVENT_MIN_PARTS || p[0].isBlank() || p[1].isBlank() || p[2].isBlank()) {
             return "The description or dates of an event cannot be empty.";
@@ -184,7 +406,7 @@ public class Parser {
                 Task t = new Event(p[0], p[1], p[2]);
                 tasks.add(t);
                 try {
-                    storage.save(tasks.getAll());
+                    storage.saveAdded(tasks.getAll(), t);
                 } catch (IOException e) {
                     return "Got it. I've added this task:\n  " + t.display()
                             + "\nNow you have " + tasks.size() + " tasks in the list.\n"
@@ -198,15 +420,15 @@ public class Parser {
         }
     }
 
-    private static String handleDeleteCommand(String command, TaskList tasks, Storage storage) {
+    private static String handleDeleteCommand(String command, TaskList tasks, TaskStorage storage) {
         try {
-            int idx = parseIndex(command);
+            int idx = parseIndex(command, tasks);
             if (idx < 0 || idx >= tasks.size()) {
                 return "Invalid task number.";
             } else {
                 Task removed = tasks.remove(idx);
                 try {
-                    storage.save(tasks.getAll());
+                    storage.saveRemoved(tasks.getAll(), idx);
                 } catch (IOException e) {
                     return "Noted. I've removed this task:\n   " +
                             removed.display() + "\nNow you have " + tasks.size() + " tasks in the list.\n"
@@ -220,23 +442,218 @@ public class Parser {
         }
     }
 
-    private static String handleFindCommand(String command, TaskList tasks) {
+    /**
+     * Applies a mark, unmark or delete to every selected task in one pass and saves once.
+     * <p>
+     * Deletes go through {@link TaskList#removeMatching}, so the list and its indexes are
+     * compacted a single time however many tasks are removed.
+     */
+    private static String handleBulkCommand(String command, TaskList tasks, TaskStorage storage) {
+        List<Task> selected;
+        try {
+            selected = parseSelection(command, tasks);
+        } catch (IndexOutOfBoundsException e) {
+            return "Invalid task number.";
+        }
+        if (selected.isEmpty()) {
+            return "No tasks found matching your search.";
+        }
+        String summary;
+        if (isMark(command)) {
+            tasks.markAll(selected);
+            summary = "Good boy! Marked " + selected.size() + " task(s) as done.";
+        } else if (isUnmark(command)) {
+            tasks.unmarkAll(selected);
+            summary = "Unmarked " + selected.size() + " task(s).";
+        } else {
+            Set<Task> doomed = new HashSet<>(selected);
+            List<Task> removed = tasks.removeMatching(doomed::contains);
+            summary = "Noted. I've removed " + removed.size() + " task(s).\n"
+                    + "Now you have " + tasks.size() + " tasks in the list.";
+        }
+        try {
+            storage.save(tasks.getAll());
+        } catch (IOException e) {
+            return summary + "\nWarning: Failed to save tasks: " + e.getMessage();
+        }
+        return summary;
+    }
+
+    /**
+     * Lists the unfinished deadlines due by the given time, including overdue ones.
+     */
+    private static String handleDueCommand(String command, TaskList tasks) {
+        LocalDateTime to;
+        try {
+            to = parseQueryTimes(command.substring(DUE_PREFIX_LENGTH), END_OF_DAY)[0];
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return "Please enter the date as yyyy-MM-dd [HHmm], e.g. due 2019-12-02 or due 2019-12-02 1800.";
+        }
+        return formatDatedTasks("Here are the tasks due by " + to.format(OUTPUT_FORMAT) + ":", tasks.findDueBy(to));
+    }
+
+    /**
+     * Lists the deadlines and events that fall within two given times.
+     */
+    private static String handleBetweenCommand(String command, TaskList tasks) {
+        LocalDateTime[] range;
+        try {
+            range = parseQueryTimes(command.substring(BETWEEN_PREFIX_LENGTH), LocalTime.MIDNIGHT, END_OF_DAY);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return "Please enter two dates as yyyy-MM-dd [HHmm], e.g. between 2019-12-02 2019-12-08 1800.";
+        }
+        if (range[1].isBefore(range[0])) {
+            return "The end of the range cannot be before its start.";
+        }
+        return formatDatedTasks("Here are the tasks between " + range[0].format(OUTPUT_FORMAT) + " and "
+                + range[1].format(OUTPUT_FORMAT) + ":", tasks.findBetween(range[0], range[1]));
+    }
+
+    /**
+     * Lists the deadlines and events that fall on a given day.
+     */
+    private static String handleOnCommand(String command, TaskList tasks) {
+        LocalDate day;
+        try {
+            day = LocalDate.parse(command.substring(ON_PREFIX_LENGTH).trim(), DATE_FORMAT);
+        } catch (DateTimeParseException e) {
+            return "Please enter the date as yyyy-MM-dd, e.g. on 2019-12-02.";
+        }
+        return formatDatedTasks("Here are the tasks on " + day.format(OUTPUT_DAY_FORMAT) + ":",
+                tasks.findBetween(day.atStartOfDay(), day.atTime(END_OF_DAY)));
+    }
+
+    private static String formatDatedTasks(String header, List<Task> found) {
+        if (found.isEmpty()) {
+            return "No tasks found for that time.";
+        }
+        StringBuilder result = new StringBuilder(header).append("\n");
+        for (int i = 0; i < found.size(); i++) {
+            result.append(i + 1).append(".").append(found.get(i).display())
+                    .append(" (#").append(found.get(i).getId()).append(")\n");
+        }
+        return result.toString().trim();
+    }
+
+    /**
+     * Moves completed tasks older than the given number of days into the archive.
+     * <p>
+     * Without an argument, the age comes from the {@code udin.archiveAfterDays} system property.
+     * The archive is written before the save file, so a crash in between leaves a task in both
+     * places rather than in neither. Undo cannot take tasks back out of the archive, so archiving
+     * clears the undo history instead of letting an undo duplicate them.
+     */
+    private static String handleArchiveCommand(String command, TaskList tasks, TaskStorage storage) {
+        int days = Integer.getInteger("udin.archiveAfterDays", TaskArchive.DEFAULT_ARCHIVE_AFTER_DAYS);
+        String arg = command.length() > ARCHIVE_PREFIX_LENGTH ? command.substring(ARCHIVE_PREFIX_LENGTH).trim() : "";
+        if (!arg.isEmpty()) {
+            try {
+                days = Integer.parseInt(arg);
+            } catch (NumberFormatException e) {
+                return "Please provide the age in days, e.g. archive 30.";
+            }
+            if (days < 0) {
+                return "The age in days cannot be negative.";
+            }
+        }
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(days);
+        List<Task> archivable = new ArrayList<>(tasks.snapshot());
+        archivable.removeIf(t -> !TaskArchive.isArchivable(t, cutoff));
+        if (archivable.isEmpty()) {
+            return "No completed tasks older than " + days + " day(s) to archive.";
+        }
+        try {
+            storage.getArchive().append(archivable);
+        } catch (IOException e) {
+            return "Failed to archive tasks: " + e.getMessage();
+        }
+        List<Task> removed = tasks.removeMatching(t -> TaskArchive.isArchivable(t, cutoff));
+        tasks.clearHistory();
+        try {
+            storage.save(tasks.getAll());
+        } catch (IOException e) {
+            return "Archived " + removed.size() + " task(s).\nWarning: Failed to save tasks: " + e.getMessage();
+        }
+        return "Archived " + removed.size() + " completed task(s) older than " + days + " day(s).\n"
+                + "Now you have " + tasks.size() + " tasks in the list.\n"
+                + "This cannot be undone, and earlier changes can no longer be undone either.";
+    }
+
+    /**
+     * Undoes or redoes the last change and saves the whole list.
+     * <p>
+     * The change being reversed may have been saved as an append or a journal record, so it is not
+     * reversed record by record; a full save leaves every kind of storage holding exactly the list.
+     * An archive cannot be undone, since it clears the history.
+     */
+    private static String handleHistoryCommand(boolean isUndo, TaskList tasks, TaskStorage storage) {
+        if (tasks.getUndoLimit() == 0) {
+            return "Undo is off. Run with -Dudin.undoLimit=<changes> to turn it on.";
+        }
+        int changed = isUndo ? tasks.undo() : tasks.redo();
+        if (changed < 0) {
+            return isUndo ? "Nothing to undo." : "Nothing to redo.";
+        }
+        String summary = (isUndo ? "Undone" : "Redone") + ": " + changed + " task(s) changed.\n"
+                + "Now you have " + tasks.size() + " tasks in the list.";
+        try {
+            storage.save(tasks.getAll());
+        } catch (IOException e) {
+            return summary + "\nWarning: Failed to save tasks: " + e.getMessage();
+        }
+        return summary;
+    }
+
+    private static String handleStatsCommand(TaskList tasks) {
+        String summary = tasks.getStats().summary();
+        TitlePool pool = TitlePool.getShared();
+        if (pool == null) {
+            return summary + "\nTitle pooling is off. Run with -Dudin.titlePool=true to share repeated task titles.";
+        }
+        return summary + "\n" + pool.report();
+    }
+
+    private static String handleFindCommand(String command, TaskList tasks, TaskStorage storage) {
         String keyword = command.substring(FIND_PREFIX_LENGTH).trim();
         if (keyword.isBlank()) {
             return "Please provide a keyword to find.";
         } else {
-            List<Task> foundTasks = tasks.findTasksByKeyword(keyword);
-            return formatFoundTasks(foundTasks);
+            boolean isQuery = TokenIndex.isBooleanQuery(keyword);
+            List<Task> foundTasks = isQuery ? tasks.findTasksByQuery(keyword) : tasks.findTasksByKeyword(keyword);
+            List<Task> archivedTasks;
+            long unreadableBytes;
+            try {
+                archivedTasks = storage.getArchive().find(keyword);
+                unreadableBytes = storage.getArchive().getUnreadableBytes();
+            } catch (Exception e) {
+                return formatFoundTasks(foundTasks, List.of())
+                        + "\nWarning: Failed to search the archive: " + e.getMessage();
+            }
+            if (unreadableBytes > 0) {
+                return formatFoundTasks(foundTasks, archivedTasks) + "\nWarning: " + unreadableBytes
+                        + " byte(s) of the archive could not be read; tasks archived there are not searched.";
+            }
+            return formatFoundTasks(foundTasks, archivedTasks);
         }
     }
 
-    private static String formatFoundTasks(List<Task> foundTasks) {
-        if (foundTasks.isEmpty()) {
+    private static String formatFoundTasks(List<Task> foundTasks, List<Task> archivedTasks) {
+        if (foundTasks.isEmpty() && archivedTasks.isEmpty()) {
             return "No tasks found matching your search.";
         }
-        StringBuilder result = new StringBuilder("Here are the matching tasks in your list:\n");
-        for (int i = 0; i < foundTasks.size(); i++) {
-            result.append((i + 1)).append(".").append(foundTasks.get(i).display()).append("\n");
+        StringBuilder result = new StringBuilder();
+        if (!foundTasks.isEmpty()) {
+            result.append("Here are the matching tasks in your list:\n");
+            for (int i = 0; i < foundTasks.size(); i++) {
+                result.append((i + 1)).append(".").append(foundTasks.get(i).display())
+                        .append(" (#").append(foundTasks.get(i).getId()).append(")\n");
+            }
+        }
+        if (!archivedTasks.isEmpty()) {
+            result.append("Matching archived tasks:\n");
+            for (Task t : archivedTasks) {
+                result.append("  ").append(t.display()).append("\n");
+            }
         }
         return result.toString().trim();
     }
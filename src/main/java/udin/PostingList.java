@@ -0,0 +1,82 @@
+package udin;
+
+import java.util.Arrays;
+
+/**
+ * A growable, sorted array of task IDs: the posting list of one key in {@link TokenIndex} and {@link TrigramIndex}.
+ * <p>
+ * Adding the newest task appends in amortized O(1). Adding an older ID, and {@link #remove(int)},
+ * shift the later entries and so take O(size): deleting a task whose words appear in most titles
+ * costs time linear in the list. {@link #removeAll(int[], int)} drops many IDs in one pass instead.
+ */
+class PostingList {
+    private int[] ids;
+    private int size;
+
+    /**
+     * Constructs an empty posting list.
+     *
+     * @param capacity the number of IDs to make room for at first
+     */
+    PostingList(int capacity) {
+        ids = new int[Math.max(1, capacity)];
+    }
+
+    int size() {
+        return size;
+    }
+
+    int get(int index) {
+        return ids[index];
+    }
+
+    /**
+     * Returns a copy of the IDs, in order.
+     */
+    int[] toArray() {
+        return Arrays.copyOf(ids, size);
+    }
+
+    void add(int id) {
+        int i = size;
+        if (size > 0 && ids[size - 1] >= id) {
+            // IDs arrive in increasing order, except a restored task's, which goes back in its place.
+            i = Arrays.binarySearch(ids, 0, size, id);
+            if (i >= 0) {
+                return;
+            }
+            i = -i - 1;
+        }
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+        }
+        System.arraycopy(ids, i, ids, i + 1, size - i);
+        ids[i] = id;
+        size++;
+    }
+
+    void remove(int id) {
+        int i = Arrays.binarySearch(ids, 0, size, id);
+        if (i >= 0) {
+            System.arraycopy(ids, i + 1, ids, i, size - i - 1);
+            size--;
+        }
+    }
+
+    /**
+     * Drops every ID found in the first {@code count} entries of the sorted array {@code removed}, in one pass.
+     */
+    void removeAll(int[] removed, int count) {
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            if (Arrays.binarySearch(removed, 0, count, ids[i]) < 0) {
+                ids[kept++] = ids[i];
+            }
+        }
+        size = kept;
+    }
+
+    boolean contains(int id) {
+        return Arrays.binarySearch(ids, 0, size, id) >= 0;
+    }
+}
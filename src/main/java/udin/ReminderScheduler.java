@@ -0,0 +1,317 @@
+package udin;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.Flow;
+
+/**
+ * Reminds the user of pending deadlines as they fall due and of events as they start.
+ * <p>
+ * Reminders wait in a min-heap keyed by epoch minute, so scheduling one costs O(log n). A single
+ * daemon thread waits, without polling, until the earliest reminder is due: between due times it
+ * uses no CPU. The scheduler follows its {@link TaskList} through {@link TaskList#getEvents()}. A
+ * new task is scheduled, and unmarking a task schedules it again. Marking or deleting a task only
+ * forgets it in {@link #dueMinutes}. Its heap entry is dropped when it comes up, or in one pass once
+ * such stale entries outnumber the live ones. If {@link TaskList#setEvents(TaskEventPublisher)}
+ * replaces the publisher, the scheduler follows the new one when the old one completes.
+ * <p>
+ * Tasks that are already overdue when loaded or added are not scheduled, and are left to {@code due}
+ * and {@code stats}. A task due or starting within the lead time is reminded at once, and the message
+ * gives the minutes actually left. A date that cannot be parsed is skipped.
+ */
+public class ReminderScheduler implements Flow.Subscriber<List<TaskEvent>> {
+    /**
+     * Receives each reminder as it falls due.
+     */
+    @FunctionalInterface
+    public interface Listener {
+        /**
+         * Called on the scheduler's thread when a reminder falls due.
+         *
+         * @param task the pending deadline or event
+         * @param message the reminder text to show the user
+         */
+        void remind(Task task, String message);
+    }
+
+    private final TaskList tasks;
+    private final Listener listener;
+    private final Clock clock;
+    private final int leadMinutes;
+
+    /**
+     * Scheduled reminders as {minute, task ID} pairs, earliest first. Guarded by this object's monitor.
+     */
+    private final PriorityQueue<long[]> heap = new PriorityQueue<>((a, b) ->
+            a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+
+    /**
+     * The minute each task is to be reminded at. A heap entry that does not match is stale and is
+     * skipped. Guarded by this object's monitor.
+     */
+    private final Map<Integer, Long> dueMinutes = new HashMap<>();
+
+    /**
+     * The publisher the scheduler follows. Guarded by this object's monitor.
+     */
+    private TaskEventPublisher source;
+
+    private Flow.Subscription subscription;
+    private boolean isRunning;
+
+    /**
+     * Constructs a scheduler for the deadlines and events in {@code tasks}; call {@link #start()} to run it.
+     *
+     * @param tasks the task list to follow
+     * @param listener receives the reminders
+     * @param clock the clock reminders are timed by
+     * @param leadMinutes how many minutes before the due time or start to remind, at least 0
+     */
+    public ReminderScheduler(TaskList tasks, Listener listener, Clock clock, int leadMinutes) {
+        assert leadMinutes >= 0 : "Lead time cannot be negative";
+        this.tasks = tasks;
+        this.listener = listener;
+        this.clock = clock;
+        this.leadMinutes = leadMinutes;
+    }
+
+    /**
+     * Starts the reminder thread, which schedules the tasks already in the list and then waits for the first reminder.
+     */
+    public synchronized void start() {
+        if (isRunning) {
+            return;
+        }
+        isRunning = true;
+        Thread thread = new Thread(this::run, "udin-reminders");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops the reminder thread and stops following the list.
+     */
+    public synchronized void stop() {
+        isRunning = false;
+        if (subscription != null) {
+            subscription.cancel();
+        }
+        notifyAll();
+    }
+
+    /**
+     * Returns the number of reminders still to come.
+     *
+     * @return the scheduled reminder count
+     */
+    public synchronized int size() {
+        return dueMinutes.size();
+    }
+
+    /**
+     * Schedules the tasks already in the list.
+     */
+    synchronized void load() {
+        long now = TimeIndex.minuteOf(LocalDateTime.now(clock));
+        for (Task t : tasks.snapshot()) {
+            schedule(t, now);
+        }
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        synchronized (this) {
+            this.subscription = subscription;
+        }
+        subscription.request(1);
+    }
+
+    @Override
+    public void onNext(List<TaskEvent> batch) {
+        synchronized (this) {
+            for (TaskEvent event : batch) {
+                switch (event.getType()) {
+                case ADDED:
+                case UNMARKED:
+                    schedule(event.getTask(), TimeIndex.minuteOf(LocalDateTime.now(clock)));
+                    break;
+                default:
+                    dueMinutes.remove(event.getId());
+                    break;
+                }
+            }
+            purgeIfStale();
+            notifyAll();
+            if (subscription != null) {
+                subscription.request(1);
+            }
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        stop();
+    }
+
+    /**
+     * Follows the list's new publisher if the one that completed has been replaced, scheduling the
+     * tasks again to catch anything added in between; otherwise stops.
+     */
+    @Override
+    public void onComplete() {
+        synchronized (this) {
+            TaskEventPublisher current = tasks.getEvents();
+            if (isRunning && current != source) {
+                follow(current);
+                load();
+                notifyAll();
+                return;
+            }
+        }
+        stop();
+    }
+
+    /**
+     * Subscribes to the list and schedules its tasks, then sleeps until each reminder is due and
+     * hands it to the listener, outside the lock so the listener may take its time.
+     */
+    private void run() {
+        synchronized (this) {
+            // Subscribing first means a change made while loading is seen twice at worst, which scheduling shrugs off.
+            follow(tasks.getEvents());
+            load();
+        }
+        while (true) {
+            List<Task> due;
+            synchronized (this) {
+                due = takeDue(LocalDateTime.now(clock));
+                while (isRunning && due.isEmpty()) {
+                    try {
+                        if (heap.isEmpty()) {
+                            wait();
+                        } else {
+                            LocalDateTime next = LocalDateTime.ofEpochSecond(heap.peek()[0] * 60, 0, ZoneOffset.UTC);
+                            wait(Math.max(1, Duration.between(LocalDateTime.now(clock), next).toMillis()));
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        isRunning = false;
+                    }
+                    due = takeDue(LocalDateTime.now(clock));
+                }
+                if (!isRunning) {
+                    return;
+                }
+            }
+            for (Task t : due) {
+                listener.remind(t, message(t));
+            }
+        }
+    }
+
+    /**
+     * Subscribes to a publisher of the list's changes. The caller must hold the lock.
+     */
+    private void follow(TaskEventPublisher publisher) {
+        source = publisher;
+        publisher.subscribe(this);
+    }
+
+    /**
+     * Removes and returns the pending tasks whose reminders are due at {@code now}.
+     *
+     * @param now the current time
+     * @return the tasks to remind about, earliest first
+     */
+    synchronized List<Task> takeDue(LocalDateTime now) {
+        long minute = TimeIndex.minuteOf(now);
+        List<Task> due = new ArrayList<>();
+        while (!heap.isEmpty() && heap.peek()[0] <= minute) {
+            long[] entry = heap.poll();
+            int id = (int) entry[1];
+            Long scheduled = dueMinutes.get(id);
+            if (scheduled == null || scheduled != entry[0]) {
+                continue;
+            }
+            dueMinutes.remove(id);
+            Task t = tasks.getById(id);
+            if (t != null && !t.isDone) {
+                due.add(t);
+            }
+        }
+        return due;
+    }
+
+    /**
+     * Schedules a reminder for a pending deadline or event unless it is due before {@code now}, bringing
+     * it forward by the lead time but not to before {@code now}. The caller must hold the lock.
+     */
+    private void schedule(Task t, long now) {
+        if (t.isDone) {
+            return;
+        }
+        long due = dueMinute(t);
+        if (due < now) {
+            return;
+        }
+        long minute = Math.max(due - leadMinutes, now);
+        Long previous = dueMinutes.put(t.getId(), minute);
+        if (previous == null || previous != minute) {
+            heap.add(new long[]{minute, t.getId()});
+        }
+    }
+
+    /**
+     * Returns the minute a deadline falls due or an event starts, or {@link Long#MIN_VALUE} if the
+     * task has no date or its date cannot be parsed.
+     */
+    private static long dueMinute(Task t) {
+        try {
+            if (t instanceof Deadline) {
+                return TimeIndex.minuteOf(((Deadline) t).getDeadline());
+            } else if (t instanceof Event) {
+                return TimeIndex.minuteOf(((Event) t).getFrom());
+            }
+        } catch (DateTimeParseException e) {
+            // Reported by the load-time validation pass; such a task gets no reminder.
+        }
+        return Long.MIN_VALUE;
+    }
+
+    /**
+     * Rebuilds the heap from {@link #dueMinutes} once stale entries make up more than half of it,
+     * so that repeatedly marking and unmarking tasks cannot grow it without limit.
+     */
+    private void purgeIfStale() {
+        if (heap.size() <= 2 * dueMinutes.size() + 16) {
+            return;
+        }
+        heap.clear();
+        for (Map.Entry<Integer, Long> e : dueMinutes.entrySet()) {
+            heap.add(new long[]{e.getValue(), e.getKey()});
+        }
+    }
+
+    /**
+     * Returns the reminder text for a task, counting the minutes left from the current time.
+     *
+     * @param t the deadline or event
+     * @return the message
+     */
+    String message(Task t) {
+        long left = dueMinute(t) - TimeIndex.minuteOf(LocalDateTime.now(clock));
+        String when = left <= 0 ? "now" : "in " + left + " minute(s)";
+        if (t instanceof Event) {
+            return "Reminder: this event starts " + when + ":\n  " + t.display();
+        }
+        return "Reminder: this task is due " + when + ":\n  " + t.display();
+    }
+}
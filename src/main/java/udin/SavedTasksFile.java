@@ -2,11 +2,17 @@ package udin;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Scanner;
 
 /**
  * Represents the file used to persist saved tasks locally.
- * Provides validation to check whether the file is correctly formatted.
+ * Validates and loads the file in a single streaming pass, so a malformed
+ * line is reported and skipped rather than aborting the whole load.
  *
  * @author Clement Chendra
  * @version 0.1
@@ -28,35 +34,115 @@ public class SavedTasksFile extends File {
      * @return true if the file is correctly formatted, false otherwise
      */
     public boolean isCorrectlyFormatted() {
+        try {
+            return !scan().hasProblems();
+        } catch (FileNotFoundException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Validates and loads every line in one pass.
+     * <p>
+     * Lines that fail validation are skipped, reported with their line number,
+     * and moved to {@code <file>.rejected} so they are not lost on the next save.
+     *
+     * @return the loaded tasks and a diagnostic for each skipped line
+     * @throws IOException if the file cannot be read or the rejected lines cannot be written
+     */
+    public LoadReport load() throws IOException {
+        return load(false);
+    }
+
+    /**
+     * Validates and loads every line like {@link #load()}, optionally leaving a {@code null} in the
+     * task list where each rejected line was, so that records addressing tasks by line position
+     * still line up. The caller must remove the placeholders before using the list.
+     *
+     * @param keepsPlaceholders true to put a {@code null} in place of each rejected line
+     * @return the loaded tasks and a diagnostic for each skipped line
+     * @throws IOException if the file cannot be read or the rejected lines cannot be written
+     */
+    public LoadReport load(boolean keepsPlaceholders) throws IOException {
+        List<String> rejectedLines = new ArrayList<>();
+        LoadReport report = scan(rejectedLines, keepsPlaceholders);
+        if (rejectedLines.isEmpty()) {
+            return report;
+        }
+        File rejected = new File(getPath() + ".rejected");
+        try (FileWriter fw = new FileWriter(rejected, true)) {
+            for (String line : rejectedLines) {
+                fw.write(line);
+                fw.write(System.lineSeparator());
+            }
+        }
+        return new LoadReport(report.getTasks(), report.getDiagnostics(), rejected.getPath());
+    }
+
+    private LoadReport scan() throws FileNotFoundException {
+        return scan(new ArrayList<>(), false);
+    }
+
+    private LoadReport scan(List<String> rejectedLines, boolean keepsPlaceholders) throws FileNotFoundException {
+        List<Task> tasks = new ArrayList<>();
+        List<String> diagnostics = new ArrayList<>();
         try (Scanner sc = new Scanner(this)) {
+            int lineNumber = 0;
             while (sc.hasNextLine()) {
+                lineNumber++;
                 String line = sc.nextLine().trim();
-                if (line.isEmpty()) continue;
+                if (line.isEmpty() || Storage.isHeader(line)) continue;
 
-                String[] parts = line.split(",", -1);
-                String type = parts[0];
-
-                switch (type) {
-                    case "T":
-                        if (parts.length < 3) return false;
-                        if (!isValidDone(parts[1])) return false;
-                        break;
-                    case "D":
-                        if (parts.length < 4) return false;
-                        if (!isValidDone(parts[1])) return false;
-                        break;
-                    case "E":
-                        if (parts.length < 5) return false;
-                        if (!isValidDone(parts[1])) return false;
-                        break;
-                    default:
-                        return false;
+                String problem = validate(line.split(",", -1));
+                if (problem == null) {
+                    try {
+                        tasks.add(Storage.parseTask(line));
+                    } catch (DateTimeParseException e) {
+                        problem = "invalid date '" + e.getParsedString() + "'";
+                    } catch (Exception e) {
+                        problem = e.getMessage();
+                    }
+                }
+                if (problem != null) {
+                    diagnostics.add("line " + lineNumber + ": " + problem + ": " + line);
+                    rejectedLines.add(line);
+                    if (keepsPlaceholders) {
+                        tasks.add(null);
+                    }
                 }
             }
-        } catch (FileNotFoundException e) {
-            return false;
         }
-        return true;
+        return new LoadReport(tasks, diagnostics, null);
+    }
+
+    /**
+     * Checks the fields of one line, returning a description of the problem or {@code null} if it looks valid.
+     */
+    private String validate(String[] parts) {
+        int required;
+        switch (parts[0]) {
+            case "T":
+                required = 3;
+                break;
+            case "D":
+                required = 4;
+                break;
+            case "E":
+                required = 5;
+                break;
+            default:
+                return "unknown task type '" + parts[0] + "'";
+        }
+        if (parts.length < required) {
+            return "expected " + required + " fields but found " + parts.length;
+        }
+        if (!isValidDone(parts[1])) {
+            return "done flag must be 0 or 1";
+        }
+        if (parts[2].isBlank()) {
+            return "empty title";
+        }
+        return null;
     }
 
     /**
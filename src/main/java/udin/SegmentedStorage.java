@@ -0,0 +1,343 @@
+package udin;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * A {@link Storage} that splits the task list into fixed-size segment files, so that a single
+ * edit rewrites only the segment holding the edited task.
+ * <p>
+ * Segments live in the directory {@code <save file>.segments}, next to a small {@code manifest}
+ * listing each segment file and its task count in list order. Segment files are never modified
+ * in place: a changed segment is written under a new name and the manifest is then replaced
+ * atomically, so a crash leaves either the old or the new state.
+ * <p>
+ * A delete only shrinks the segment it falls in; boundaries of the other segments stay put.
+ * Segments that become underfull are merged with a neighbour in the background.
+ * If no manifest exists yet, the plain save file is loaded and split into segments on the first save.
+ */
+public class SegmentedStorage extends Storage {
+    /**
+     * Default number of tasks per segment.
+     */
+    public static final int DEFAULT_SEGMENT_SIZE = 1000;
+
+    private static final String MANIFEST = "manifest";
+
+    private final File dir;
+    private final int segmentSize;
+    private final List<Segment> segments = new ArrayList<>();
+    private final ExecutorService merger = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "udin-segment-merger");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private long nextSegmentNumber;
+    private boolean needsFullWrite = true;
+    private volatile Future<?> pendingMerge;
+
+    /**
+     * A run of consecutive tasks stored in one file.
+     */
+    private static class Segment {
+        private String fileName;
+        private int count;
+        private boolean isDirty;
+
+        Segment(String fileName, int count) {
+            this.fileName = fileName;
+            this.count = count;
+        }
+    }
+
+    /**
+     * Constructs a segmented storage for the given save file with the default segment size.
+     *
+     * @param filePath the path of the save file
+     */
+    public SegmentedStorage(String filePath) {
+        this(filePath, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * Constructs a segmented storage for the given save file.
+     *
+     * @param filePath the path of the save file
+     * @param segmentSize the maximum number of tasks per segment
+     */
+    public SegmentedStorage(String filePath, int segmentSize) {
+        super(filePath);
+        assert segmentSize > 0 : "Segment size must be positive";
+        this.dir = new File(filePath + ".segments");
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Loads the tasks of every segment listed in the manifest, or the plain save file if there is no manifest.
+     *
+     * @return the list of tasks in order
+     * @throws Exception if a segment is missing or malformed
+     */
+    @Override
+    public synchronized List<Task> load() throws Exception {
+        File manifest = new File(dir, MANIFEST);
+        if (!manifest.exists()) {
+            needsFullWrite = true;
+            return super.load();
+        }
+        segments.clear();
+        List<Task> tasks = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(manifest))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) continue;
+                String[] parts = line.split(",");
+                Segment segment = new Segment(parts[0], Integer.parseInt(parts[1]));
+                List<Task> segmentTasks = scanTasks(new File(dir, segment.fileName));
+                if (segmentTasks.size() != segment.count) {
+                    throw new Exception("Corrupted segment " + segment.fileName + ": expected "
+                            + segment.count + " tasks, found " + segmentTasks.size());
+                }
+                tasks.addAll(segmentTasks);
+                segments.add(segment);
+                nextSegmentNumber = Math.max(nextSegmentNumber, segmentNumber(segment.fileName) + 1);
+            }
+        }
+        needsFullWrite = false;
+        return tasks;
+    }
+
+    /**
+     * Loads the segments strictly, or salvages the plain save file if there is no manifest yet.
+     *
+     * @return the loaded tasks and any problems found
+     * @throws Exception if a segment is missing or malformed
+     */
+    @Override
+    public synchronized LoadReport loadReport() throws Exception {
+        if (!new File(dir, MANIFEST).exists()) {
+            needsFullWrite = true;
+            return super.loadReport();
+        }
+        return new LoadReport(load());
+    }
+
+    /**
+     * Splits the tasks into fresh segments and rewrites all of them.
+     *
+     * @param tasks the list of tasks to save
+     * @throws IOException if writing fails
+     */
+    @Override
+    public synchronized void save(List<Task> tasks) throws IOException {
+        List<String> oldFiles = new ArrayList<>();
+        for (Segment segment : segments) {
+            oldFiles.add(segment.fileName);
+        }
+        segments.clear();
+        for (int start = 0; start < tasks.size(); start += segmentSize) {
+            Segment segment = new Segment(null, Math.min(segmentSize, tasks.size() - start));
+            segment.isDirty = true;
+            segments.add(segment);
+        }
+        needsFullWrite = false;
+        writeDirtySegments(tasks, oldFiles);
+    }
+
+    @Override
+    public synchronized void saveAdded(List<Task> tasks, Task added) throws IOException {
+        if (needsFullWrite) {
+            save(tasks);
+            return;
+        }
+        Segment last = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+        if (last == null || last.count >= segmentSize) {
+            last = new Segment(null, 0);
+            segments.add(last);
+        }
+        last.count++;
+        last.isDirty = true;
+        writeDirtySegments(tasks, new ArrayList<>());
+    }
+
+    @Override
+    public synchronized void saveMarked(List<Task> tasks, int index) throws IOException {
+        saveChangedAt(tasks, index);
+    }
+
+    @Override
+    public synchronized void saveUnmarked(List<Task> tasks, int index) throws IOException {
+        saveChangedAt(tasks, index);
+    }
+
+    @Override
+    public synchronized void saveRemoved(List<Task> tasks, int index) throws IOException {
+        if (needsFullWrite) {
+            save(tasks);
+            return;
+        }
+        int i = segmentIndexOf(index);
+        Segment segment = segments.get(i);
+        segment.count--;
+        List<String> oldFiles = new ArrayList<>();
+        if (segment.count == 0) {
+            oldFiles.add(segment.fileName);
+            segments.remove(i);
+        } else {
+            segment.isDirty = true;
+        }
+        writeDirtySegments(tasks, oldFiles);
+        if (segment.count > 0 && segment.count < segmentSize / 2) {
+            scheduleMerge();
+        }
+    }
+
+    private void saveChangedAt(List<Task> tasks, int index) throws IOException {
+        if (needsFullWrite) {
+            save(tasks);
+            return;
+        }
+        segments.get(segmentIndexOf(index)).isDirty = true;
+        writeDirtySegments(tasks, new ArrayList<>());
+    }
+
+    /**
+     * Returns the position in {@link #segments} of the segment holding the task at {@code index}.
+     */
+    private int segmentIndexOf(int index) {
+        int start = 0;
+        for (int i = 0; i < segments.size(); i++) {
+            start += segments.get(i).count;
+            if (index < start) {
+                return i;
+            }
+        }
+        throw new IndexOutOfBoundsException("No segment holds task " + index);
+    }
+
+    /**
+     * Writes every dirty segment under a new file name, replaces the manifest, then deletes
+     * the superseded files along with {@code oldFiles}.
+     */
+    private void writeDirtySegments(List<Task> tasks, List<String> oldFiles) throws IOException {
+        dir.mkdirs();
+        int start = 0;
+        for (Segment segment : segments) {
+            if (segment.isDirty) {
+                if (segment.fileName != null) {
+                    oldFiles.add(segment.fileName);
+                }
+                segment.fileName = newSegmentName();
+                writeTasks(new File(dir, segment.fileName), tasks.subList(start, start + segment.count));
+                segment.isDirty = false;
+            }
+            start += segment.count;
+        }
+        writeManifest();
+        for (String fileName : oldFiles) {
+            Files.deleteIfExists(new File(dir, fileName).toPath());
+        }
+    }
+
+    private void writeManifest() throws IOException {
+        File tmp = new File(dir, MANIFEST + ".tmp");
+        try (FileWriter fw = new FileWriter(tmp)) {
+            for (Segment segment : segments) {
+                fw.write(segment.fileName + "," + segment.count + System.lineSeparator());
+            }
+        }
+        Files.move(tmp.toPath(), new File(dir, MANIFEST).toPath(),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private String newSegmentName() {
+        return "seg-" + (nextSegmentNumber++) + ".txt";
+    }
+
+    private static long segmentNumber(String fileName) {
+        return Long.parseLong(fileName.substring("seg-".length(), fileName.length() - ".txt".length()));
+    }
+
+    private void scheduleMerge() {
+        if (pendingMerge == null || pendingMerge.isDone()) {
+            pendingMerge = merger.submit(() -> {
+                mergeUnderfullSegments();
+                return null;
+            });
+        }
+    }
+
+    /**
+     * Merges each underfull segment into its successor when both fit in one segment.
+     * Segment files are concatenated on disk, so the task list itself is not needed.
+     */
+    private synchronized void mergeUnderfullSegments() throws IOException {
+        List<String> oldFiles = new ArrayList<>();
+        int i = 0;
+        while (i + 1 < segments.size()) {
+            Segment current = segments.get(i);
+            Segment next = segments.get(i + 1);
+            boolean isUnderfull = current.count < segmentSize / 2 || next.count < segmentSize / 2;
+            if (isUnderfull && current.count + next.count <= segmentSize) {
+                String merged = newSegmentName();
+                try (OutputStream out = Files.newOutputStream(new File(dir, merged).toPath())) {
+                    Files.copy(new File(dir, current.fileName).toPath(), out);
+                    Files.copy(new File(dir, next.fileName).toPath(), out);
+                }
+                oldFiles.add(current.fileName);
+                oldFiles.add(next.fileName);
+                current.fileName = merged;
+                current.count += next.count;
+                segments.remove(i + 1);
+            } else {
+                i++;
+            }
+        }
+        if (!oldFiles.isEmpty()) {
+            writeManifest();
+            for (String fileName : oldFiles) {
+                Files.deleteIfExists(new File(dir, fileName).toPath());
+            }
+        }
+    }
+
+    /**
+     * Blocks until any background merge has finished.
+     *
+     * @throws IOException if the merge failed
+     */
+    void awaitMerge() throws IOException {
+        Future<?> pending = pendingMerge;
+        if (pending == null) {
+            return;
+        }
+        try {
+            pending.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            throw new IOException("Segment merge failed: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Returns the number of segment files currently in use.
+     *
+     * @return the segment count
+     */
+    synchronized int getSegmentCount() {
+        return segments.size();
+    }
+}
@@ -0,0 +1,79 @@
+package udin;
+
+import java.time.format.DateTimeParseException;
+
+/**
+ * The orders {@code list --sort=<key>} can show tasks in. Ties keep list order, since IDs are given in add order.
+ */
+public enum SortOrder {
+    /**
+     * Deadlines by due time and events by start time, interleaved; then to-dos.
+     */
+    DEADLINE("deadline"),
+
+    /**
+     * To-dos, then deadlines, then events.
+     */
+    TYPE("type"),
+
+    /**
+     * Pending tasks, then done ones.
+     */
+    STATUS("status");
+
+    private final String key;
+
+    SortOrder(String key) {
+        this.key = key;
+    }
+
+    /**
+     * Returns the order named {@code key} in {@code list --sort=<key>}.
+     *
+     * @param key the name, ignoring case
+     * @return the order, or {@code null} if there is none by that name
+     */
+    public static SortOrder fromKey(String key) {
+        for (SortOrder order : values()) {
+            if (order.key.equalsIgnoreCase(key)) {
+                return order;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the name used to select this order.
+     *
+     * @return the key
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Returns the value a task is sorted by; smaller comes first.
+     *
+     * @param t the task
+     * @return the sort value
+     */
+    long sortValue(Task t) {
+        switch (this) {
+        case DEADLINE:
+            try {
+                if (t instanceof Deadline) {
+                    return TimeIndex.minuteOf(((Deadline) t).getDeadline());
+                } else if (t instanceof Event) {
+                    return TimeIndex.minuteOf(((Event) t).getFrom());
+                }
+            } catch (DateTimeParseException e) {
+                // Reported by the load-time validation pass; sorts with the undated tasks.
+            }
+            return Long.MAX_VALUE;
+        case TYPE:
+            return TaskCounters.typeOf(t);
+        default:
+            return t.isDone ? 1 : 0;
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package udin;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.IntFunction;
+
+/**
+ * The tasks of a list kept in a {@link SortOrder}, so that a sorted listing does not re-sort the list.
+ * <p>
+ * Tasks sit in a treap ordered by sort value and then by ID, in which every node also counts the
+ * nodes below it. Adding, removing or re-sorting one task is O(log n), and the tasks at ranks
+ * {@code [from, to)} are found in O(log n + k), so a sorted list can be paged through.
+ * <p>
+ * Like {@link TimeIndex}, the view holds stable task IDs and looks tasks up through a resolver.
+ */
+public class SortedView {
+    private final SortOrder order;
+    private final IntFunction<Task> taskOf;
+    private final Map<Integer, Node> nodes = new HashMap<>();
+    private final Random random = new Random();
+    private Node root;
+
+    /**
+     * Constructs an empty view.
+     *
+     * @param order the order to keep tasks in
+     * @param taskOf looks up a task in the view by its ID
+     */
+    public SortedView(SortOrder order, IntFunction<Task> taskOf) {
+        this.order = order;
+        this.taskOf = taskOf;
+    }
+
+    /**
+     * A treap node, ordered by sort value and then by task ID.
+     */
+    private static class Node {
+        private final long value;
+        private final int id;
+        private final int priority;
+        private int size = 1;
+        private Node left;
+        private Node right;
+
+        Node(long value, int id, int priority) {
+            this.value = value;
+            this.id = id;
+            this.priority = priority;
+        }
+
+        boolean isBefore(Node other) {
+            return value < other.value || (value == other.value && id < other.id);
+        }
+
+        void update() {
+            size = 1 + sizeOf(left) + sizeOf(right);
+        }
+    }
+
+    /**
+     * Returns the order this view keeps.
+     *
+     * @return the order
+     */
+    public SortOrder getOrder() {
+        return order;
+    }
+
+    /**
+     * Returns the number of tasks in the view.
+     *
+     * @return the task count
+     */
+    public int size() {
+        return sizeOf(root);
+    }
+
+    /**
+     * Adds a task in its place.
+     *
+     * @param t the task to add
+     */
+    public void add(Task t) {
+        Node node = new Node(order.sortValue(t), t.getId(), random.nextInt());
+        root = insert(root, node);
+        nodes.put(t.getId(), node);
+    }
+
+    /**
+     * Removes a task; does nothing if it is not in the view.
+     *
+     * @param t the task to remove
+     */
+    public void remove(Task t) {
+        Node node = nodes.remove(t.getId());
+        if (node != null) {
+            root = delete(root, node);
+        }
+    }
+
+    /**
+     * Moves a task whose sort value may have changed, such as after a mark, to its new place.
+     *
+     * @param t the task, in its new state
+     */
+    public void update(Task t) {
+        Node node = nodes.get(t.getId());
+        if (node != null && node.value != order.sortValue(t)) {
+            remove(t);
+            add(t);
+        }
+    }
+
+    /**
+     * Discards the view and adds {@code tasks} afresh.
+     *
+     * @param tasks the tasks to hold
+     */
+    public void rebuild(List<Task> tasks) {
+        nodes.clear();
+        root = null;
+        for (Task t : tasks) {
+            add(t);
+        }
+    }
+
+    /**
+     * Returns the tasks at sorted ranks {@code [from, to)}, clamped to the view.
+     *
+     * @param from the zero-based rank of the first task
+     * @param to the rank after the last task
+     * @return the tasks, in order
+     */
+    public List<Task> getRange(int from, int to) {
+        List<Task> range = new ArrayList<>();
+        collect(root, Math.max(0, from), Math.min(to, size()), range);
+        return range;
+    }
+
+    /**
+     * Appends the tasks of the subtree at ranks {@code [from, to)}, relative to the subtree, in order.
+     */
+    private void collect(Node node, int from, int to, List<Task> out) {
+        if (node == null || from >= to) {
+            return;
+        }
+        int leftSize = sizeOf(node.left);
+        if (from < leftSize) {
+            collect(node.left, from, Math.min(to, leftSize), out);
+        }
+        if (from <= leftSize && leftSize < to) {
+            out.add(taskOf.apply(node.id));
+        }
+        if (to > leftSize + 1) {
+            collect(node.right, Math.max(0, from - leftSize - 1), to - leftSize - 1, out);
+        }
+    }
+
+    private static int sizeOf(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static Node insert(Node root, Node node) {
+        if (root == null) {
+            return node;
+        }
+        if (node.isBefore(root)) {
+            root.left = insert(root.left, node);
+            if (root.left.priority > root.priority) {
+                root = rotateRight(root);
+            }
+        } else {
+            root.right = insert(root.right, node);
+            if (root.right.priority > root.priority) {
+                root = rotateLeft(root);
+            }
+        }
+        root.update();
+        return root;
+    }
+
+    private static Node delete(Node root, Node node) {
+        if (root == null) {
+            return null;
+        }
+        if (root == node) {
+            return merge(root.left, root.right);
+        }
+        if (node.isBefore(root)) {
+            root.left = delete(root.left, node);
+        } else {
+            root.right = delete(root.right, node);
+        }
+        root.update();
+        return root;
+    }
+
+    /**
+     * Joins two treaps where every node of {@code a} comes before every node of {@code b}.
+     */
+    private static Node merge(Node a, Node b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        if (a.priority > b.priority) {
+            a.right = merge(a.right, b);
+            a.update();
+            return a;
+        }
+        b.left = merge(a, b.left);
+        b.update();
+        return b;
+    }
+
+    private static Node rotateRight(Node root) {
+        Node left = root.left;
+        root.left = left.right;
+        left.right = root;
+        root.update();
+        left.update();
+        return left;
+    }
+
+    private static Node rotateLeft(Node root) {
+        Node right = root.right;
+        root.right = right.left;
+        right.left = root;
+        root.update();
+        right.update();
+        return right;
+    }
+}
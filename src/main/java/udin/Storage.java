@@ -11,13 +11,26 @@ import java.util.Scanner;
 /**
  * Handles loading tasks from a file and saving tasks to a file.
  * Tasks are stored in CSV-like format and reconstructed on load.
+ * Subclasses provide faster on-disk backends behind the same {@link TaskStorage} interface.
  *
  * @author Clement Chendra
  * @version 0.1
  * @since 0.1
  */
-public class Storage {
+public class Storage implements TaskStorage {
+    /**
+     * Files at least this large, in bytes, are loaded through {@link MappedTaskLoader}.
+     */
+    static final long MAPPED_LOAD_THRESHOLD = 1024 * 1024;
+
+    /**
+     * Starts the generation header that {@link JournalStorage} writes at the top of its files.
+     */
+    static final String HEADER_PREFIX = "G,";
+
     private final String filePath;
+    private boolean isLazyDates;
+    private TaskArchive archive;
 
     /**
      * Constructs a Storage instance pointing to the given file path.
@@ -28,13 +41,82 @@ public class Storage {
         this.filePath = filePath;
     }
 
+    /**
+     * Returns the path of the save file this storage reads and writes.
+     *
+     * @return the save file path
+     */
+    protected String getFilePath() {
+        return filePath;
+    }
+
+    /**
+     * Returns the archive of completed tasks kept next to the save file, as {@code <save file>.archive.gz}.
+     *
+     * @return the task archive
+     */
+    @Override
+    public synchronized TaskArchive getArchive() {
+        if (archive == null) {
+            archive = new TaskArchive(filePath + ".archive.gz");
+        }
+        return archive;
+    }
+
+    /**
+     * Sets whether CSV dates are left unparsed on load.
+     * <p>
+     * When enabled, {@link Deadline} and {@link Event} keep the date text as read and parse it
+     * the first time it is needed, so loading a date-heavy file costs no date parsing at all.
+     * A malformed date then surfaces when it is first used instead of during the load.
+     *
+     * @param isLazyDates true to defer date parsing
+     */
+    public void setLazyDates(boolean isLazyDates) {
+        this.isLazyDates = isLazyDates;
+    }
+
     /**
      * Loads tasks from the file at {@code filePath}.
+     * <p>
+     * Both the CSV format and the binary format of {@link BinaryTaskFormat} are recognised.
      *
      * @return a list of tasks reconstructed from file
      * @throws IOException if file cannot be read
      */
+    @Override
     public List<Task> load() throws Exception {
+        return loadFile();
+    }
+
+    /**
+     * Loads tasks like {@link #load()}, but salvages what it can from a malformed file instead of failing.
+     * <p>
+     * The file is first loaded on the fast path. Only if that fails is it rescanned by
+     * {@link SavedTasksFile#load()}, which skips bad lines, moves them to a {@code .rejected}
+     * file and reports each one with its line number.
+     *
+     * @return the loaded tasks and any problems found
+     * @throws Exception if the file does not exist or cannot be read at all
+     */
+    @Override
+    public LoadReport loadReport() throws Exception {
+        try {
+            return new LoadReport(loadFile());
+        } catch (FileNotFoundException e) {
+            throw e;
+        } catch (Exception e) {
+            if (BinaryTaskFormat.isBinary(new File(filePath))) {
+                throw e;
+            }
+            return new SavedTasksFile(filePath).load();
+        }
+    }
+
+    /**
+     * Loads the save file itself, in whichever format it is stored.
+     */
+    private List<Task> loadFile() throws Exception {
         File f = new File(filePath);
         
         // If file doesn't exist and it's a relative path, try to create the directory structure
@@ -53,49 +135,141 @@ public class Storage {
                     " (Current working directory: " + System.getProperty("user.dir") + ")");
             }
         }
+        if (BinaryTaskFormat.isBinary(f)) {
+            return BinaryTaskFormat.read(f.toPath());
+        }
+        if (f.length() >= MAPPED_LOAD_THRESHOLD) {
+            MappedTaskLoader loader = new MappedTaskLoader();
+            loader.setLazyDates(isLazyDates);
+            return loader.load(f.toPath());
+        }
+        return scanTasks(f, isLazyDates);
+    }
+
+    /**
+     * Reads tasks line by line through a {@link Scanner}; cheaper than mapping for small files.
+     *
+     * @param f the save file
+     * @return a list of tasks reconstructed from file
+     * @throws Exception if the file cannot be read or a line is malformed
+     */
+    static List<Task> scanTasks(File f) throws Exception {
+        return scanTasks(f, false);
+    }
+
+    /**
+     * Reads tasks line by line through a {@link Scanner}, optionally leaving dates unparsed.
+     *
+     * @param f the save file
+     * @param isLazyDates true to defer date parsing until first use
+     * @return a list of tasks reconstructed from file
+     * @throws Exception if the file cannot be read or a line is malformed
+     */
+    static List<Task> scanTasks(File f, boolean isLazyDates) throws Exception {
         List<Task> tasks = new ArrayList<>();
         try (Scanner sc = new Scanner(f)) {
             while (sc.hasNextLine()) {
                 String line = sc.nextLine().trim();
-                if (line.isEmpty()) continue;
-                String[] parts = line.split(",", -1);
-                String type = parts[0];
-                boolean done = parts[1].equals("1");
-                Task t = null;
-                switch (type) {
-                    case "T":
-                        t = new ToDo(parts[2]);
-                        break;
-                    case "D":
-                        t = new Deadline(parts[2], parts[3]);
-                        break;
-                    case "E":
-                        t = new Event(parts[2], parts[3], parts[4]);
-                        break;
-                    default:
-                        throw new Exception("Wrong format of task in udin.Storage");
-                }
-                if (t != null) {
-                    if (done) t.mark();
-                    tasks.add(t);
-                }
+                if (line.isEmpty() || isHeader(line)) continue;
+                tasks.add(parseTask(line, isLazyDates));
             }
         }
         return tasks;
     }
 
+    /**
+     * Returns whether a trimmed line is a generation header, which holds no task.
+     *
+     * @param line the line
+     * @return true if the line is a header
+     */
+    static boolean isHeader(String line) {
+        return line.startsWith(HEADER_PREFIX);
+    }
+
+    /**
+     * Reconstructs a single task from one trimmed, non-empty line of the save file.
+     *
+     * @param line the line in save format
+     * @return the task described by the line
+     * @throws Exception if the task type is unknown or the line is malformed
+     */
+    static Task parseTask(String line) throws Exception {
+        return parseTask(line, false);
+    }
+
+    /**
+     * Reconstructs a single task from one line, optionally leaving its dates unparsed.
+     *
+     * @param line the line in save format
+     * @param isLazyDates true to defer date parsing until first use
+     * @return the task described by the line
+     * @throws Exception if the task type is unknown or the line is malformed
+     */
+    static Task parseTask(String line, boolean isLazyDates) throws Exception {
+        String[] parts = line.split(",", -1);
+        String type = parts[0];
+        boolean done = parts[1].equals("1");
+        Task t;
+        switch (type) {
+            case "T":
+                t = new ToDo(parts[2]);
+                break;
+            case "D":
+                t = isLazyDates ? Deadline.withLazyDate(parts[2], parts[3]) : new Deadline(parts[2], parts[3]);
+                break;
+            case "E":
+                t = isLazyDates
+                        ? Event.withLazyDates(parts[2], parts[3], parts[4])
+                        : new Event(parts[2], parts[3], parts[4]);
+                break;
+            default:
+                throw new Exception("Wrong format of task in udin.Storage");
+        }
+        if (done) t.mark();
+        return t;
+    }
+
     /**
      * Saves the given tasks to {@code filePath}, overwriting the file if it exists.
      *
      * @param tasks the list of tasks to save
      * @throws IOException if writing fails
      */
+    @Override
     public void save(List<Task> tasks) throws IOException {
-        File parent = new File(filePath).getParentFile();
+        writeTasks(new File(filePath), tasks);
+    }
+
+    /**
+     * Writes the given tasks to {@code target} in save format, creating parent directories if needed.
+     *
+     * @param target the file to overwrite
+     * @param tasks the tasks to write
+     * @throws IOException if writing fails
+     */
+    protected void writeTasks(File target, List<Task> tasks) throws IOException {
+        writeTasks(target, tasks, null);
+    }
+
+    /**
+     * Writes the given tasks to {@code target} in save format after a header line.
+     *
+     * @param target the file to overwrite
+     * @param tasks the tasks to write
+     * @param header the first line, or {@code null} for none
+     * @throws IOException if writing fails
+     */
+    protected void writeTasks(File target, List<Task> tasks, String header) throws IOException {
+        File parent = target.getAbsoluteFile().getParentFile();
         if (parent != null && !parent.exists()) {
             parent.mkdirs();
         }
-        try (FileWriter fw = new FileWriter(filePath)) {
+        try (FileWriter fw = new FileWriter(target)) {
+            if (header != null) {
+                fw.write(header);
+                fw.write(System.lineSeparator());
+            }
             for (Task t : tasks) {
                 fw.write(t.toSaveFormat());
                 fw.write(System.lineSeparator());
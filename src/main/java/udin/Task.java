@@ -17,33 +17,69 @@ public abstract class Task {
      */
     protected boolean isDone;
 
+    /**
+     * The stable ID given by the {@link TaskList} holding this task, or 0 before it is added to one.
+     */
+    private int id;
+
+    /**
+     * The {@link #displaySuffix()}, built on first display. Tasks never change their dates, so it
+     * stays valid; a racing thread at worst builds an equal copy. Only the formatted dates are kept:
+     * the marker and title are joined on at each display, so a task holds no second copy of its title.
+     */
+    private String cachedSuffix;
+
     /**
      * Constructs a task with the given title.
-     * The task is initially marked as not done.
+     * The task is initially marked as not done. If a shared {@link TitlePool} is installed,
+     * the title is replaced by its pooled copy.
      *
      * @param title the description or name of the task
      */
     public Task(String title) {
         assert title != null : "Task title cannot be null";
         assert !title.trim().isEmpty() : "Task title cannot be empty";
-        this.title = title;
+        this.title = TitlePool.canonical(title);
         this.isDone = false;
     }
 
     /**
      * Returns a string representation of the task in display format.
      * <p>
-     * The format is:
+     * The format is the {@link #typeTag()}, then:
      * <ul>
      *   <li>{@code [X] title} if the task is done</li>
      *   <li>{@code [ ] title} if the task is not done</li>
      * </ul>
+     * followed by the {@link #displaySuffix()}. The suffix is cached, so the dates of a task are
+     * formatted only once.
      *
      * @return the formatted display string for this task
      */
     public String display() {
         assert title != null : "Title should not be null when displaying";
-        return (isDone ? "[X] " : "[ ] ") + this.getTitle();
+        String suffix = cachedSuffix;
+        if (suffix == null) {
+            suffix = displaySuffix();
+            cachedSuffix = suffix;
+        }
+        return typeTag() + (isDone ? "[X] " : "[ ] ") + title + suffix;
+    }
+
+    /**
+     * Returns the tag that starts the display line and identifies the task type, such as {@code [T]}.
+     *
+     * @return the type tag
+     */
+    protected abstract String typeTag();
+
+    /**
+     * Returns what the display line shows after the title, such as the dates; empty by default.
+     *
+     * @return the display suffix
+     */
+    protected String displaySuffix() {
+        return "";
     }
 
     /**
@@ -70,6 +106,24 @@ public abstract class Task {
         return this.title;
     }
 
+    /**
+     * Returns the stable ID of this task, which does not change when other tasks are deleted.
+     *
+     * @return the task ID, or 0 if the task is not in a list
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Sets the ID of this task; called by {@link TaskSlots} when the task is added.
+     *
+     * @param id the task ID
+     */
+    void setId(int id) {
+        this.id = id;
+    }
+
     /**
      * Returns the serialized string representation of this task
      * for saving into persistent storage.
@@ -0,0 +1,334 @@
+package udin;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
+
+/**
+ * A compressed, append-only store for completed tasks that no longer need to live in the save file.
+ * <p>
+ * Archived tasks are kept in save format in a gzip file next to the save file. Each archive run
+ * appends a new gzip member, so earlier archived tasks are never rewritten. The archive is only read
+ * when a search reaches into it; the first search decompresses it once into an in-memory index of
+ * titles, and a task is reconstructed only when it matches.
+ * <p>
+ * Members are read one at a time. One that is truncated or corrupt, say by a run interrupted
+ * mid-append, is skipped up to the next member header, so the members after it are still read;
+ * {@link #getUnreadableBytes()} tells how much was skipped.
+ */
+public class TaskArchive {
+    /**
+     * Default age, in days, after which a completed task may be archived.
+     */
+    public static final int DEFAULT_ARCHIVE_AFTER_DAYS = 30;
+
+    /**
+     * The archive file, or {@code null} for an archive kept only in memory.
+     */
+    private final File file;
+
+    /**
+     * Archived lines in save format, or {@code null} until the archive is first searched.
+     */
+    private List<String> lines;
+
+    /**
+     * Lower-cased titles, parallel to {@link #lines}.
+     */
+    private List<String> lowerTitles;
+
+    /**
+     * Bytes of the archive file that did not belong to a readable member.
+     */
+    private long unreadableBytes;
+
+    /**
+     * Constructs an archive stored at the given path.
+     *
+     * @param filePath the path of the gzip archive file
+     */
+    public TaskArchive(String filePath) {
+        this.file = new File(filePath);
+    }
+
+    private TaskArchive() {
+        this.file = null;
+        this.lines = new ArrayList<>();
+        this.lowerTitles = new ArrayList<>();
+    }
+
+    /**
+     * Returns an empty archive that is kept only in memory, for storages without a save file.
+     *
+     * @return the in-memory archive
+     */
+    public static TaskArchive inMemory() {
+        return new TaskArchive();
+    }
+
+    /**
+     * Returns whether a task is completed and old enough to be archived.
+     * <p>
+     * A deadline is aged by its due date and an event by its end time. A to-do carries no
+     * date, so any completed to-do may be archived. A lazily loaded date that cannot be parsed
+     * has no age, so its task stays in the list.
+     *
+     * @param t the task to check
+     * @param cutoff tasks dated before this time are old enough
+     * @return true if the task may be archived
+     */
+    public static boolean isArchivable(Task t, LocalDateTime cutoff) {
+        if (!t.isDone) {
+            return false;
+        }
+        try {
+            if (t instanceof Deadline) {
+                return ((Deadline) t).getDeadline().isBefore(cutoff);
+            }
+            if (t instanceof Event) {
+                return ((Event) t).getTo().isBefore(cutoff);
+            }
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Appends the given tasks to the archive as a new gzip member.
+     *
+     * @param tasks the tasks to archive
+     * @throws IOException if writing fails
+     */
+    public synchronized void append(List<Task> tasks) throws IOException {
+        if (tasks.isEmpty()) {
+            return;
+        }
+        if (file == null) {
+            for (Task t : tasks) {
+                index(t.toSaveFormat());
+            }
+            return;
+        }
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists()) {
+            parent.mkdirs();
+        }
+        List<String> added = new ArrayList<>(tasks.size());
+        try (Writer out = new OutputStreamWriter(
+                new GZIPOutputStream(new FileOutputStream(file, true), 1 << 16), StandardCharsets.UTF_8)) {
+            for (Task t : tasks) {
+                String line = t.toSaveFormat();
+                out.write(line);
+                out.write('\n');
+                added.add(line);
+            }
+        }
+        if (lines != null) {
+            for (String line : added) {
+                index(line);
+            }
+        }
+    }
+
+    /**
+     * Returns the archived tasks whose title contains the keyword (case-insensitive), or whose
+     * words match it if it is a {@link TokenIndex} query using {@code AND}, {@code OR} or {@code NOT}.
+     * <p>
+     * The archive is decompressed and indexed on the first call.
+     *
+     * @param keyword the keyword to search for
+     * @return the matching archived tasks, oldest first
+     * @throws Exception if the archive cannot be read or holds a malformed task
+     */
+    public synchronized List<Task> find(String keyword) throws Exception {
+        List<Task> results = new ArrayList<>();
+        if (file != null && !file.exists()) {
+            return results;
+        }
+        loadIndex();
+        boolean isQuery = TokenIndex.isBooleanQuery(keyword);
+        String lowerKeyword = keyword.toLowerCase();
+        for (int i = 0; i < lowerTitles.size(); i++) {
+            String title = lowerTitles.get(i);
+            if (isQuery ? TokenIndex.matches(keyword, title) : title.contains(lowerKeyword)) {
+                results.add(Storage.parseTask(lines.get(i)));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Returns the number of archived tasks, reading the archive if it has not been read yet.
+     *
+     * @return the archived task count
+     * @throws IOException if the archive cannot be read
+     */
+    public synchronized int size() throws IOException {
+        if (file != null && !file.exists()) {
+            return 0;
+        }
+        loadIndex();
+        return lines.size();
+    }
+
+    /**
+     * Returns how many bytes of the archive file had to be skipped because they did not belong to
+     * a complete, intact gzip member, reading the archive if it has not been read yet. Tasks
+     * archived in those bytes are missing from {@link #find(String)} and {@link #size()}.
+     *
+     * @return the skipped byte count, 0 if the whole archive was readable
+     * @throws IOException if the archive cannot be read
+     */
+    public synchronized long getUnreadableBytes() throws IOException {
+        if (file != null && !file.exists()) {
+            return 0;
+        }
+        loadIndex();
+        return unreadableBytes;
+    }
+
+    /**
+     * Returns whether the archive has been read into memory.
+     *
+     * @return true once the index is loaded
+     */
+    synchronized boolean isLoaded() {
+        return lines != null;
+    }
+
+    private void loadIndex() throws IOException {
+        if (lines != null) {
+            return;
+        }
+        byte[] data = Files.readAllBytes(file.toPath());
+        lines = new ArrayList<>();
+        lowerTitles = new ArrayList<>();
+        int offset = 0;
+        while (offset < data.length) {
+            int end = readMember(data, offset);
+            if (end < 0) {
+                end = nextHeader(data, offset + 1);
+                unreadableBytes += end - offset;
+            }
+            offset = end;
+        }
+    }
+
+    /**
+     * Indexes the lines of the gzip member starting at {@code offset} if it is complete and its
+     * checksum matches.
+     *
+     * @return the offset just past the member, or -1 if it cannot be read
+     */
+    private int readMember(byte[] data, int offset) {
+        int pos = skipHeader(data, offset);
+        if (pos < 0) {
+            return -1;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Inflater inflater = new Inflater(true);
+        int trailer;
+        try {
+            inflater.setInput(data, pos, data.length - pos);
+            byte[] buffer = new byte[1 << 16];
+            while (!inflater.finished()) {
+                int n = inflater.inflate(buffer);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    return -1;
+                }
+                out.write(buffer, 0, n);
+            }
+            trailer = data.length - inflater.getRemaining();
+        } catch (DataFormatException e) {
+            return -1;
+        } finally {
+            inflater.end();
+        }
+        if (trailer + 8 > data.length) {
+            return -1;
+        }
+        byte[] content = out.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(content);
+        if (littleEndianInt(data, trailer) != (int) crc.getValue()
+                || littleEndianInt(data, trailer + 4) != content.length) {
+            return -1;
+        }
+        for (String line : new String(content, StandardCharsets.UTF_8).split("\n")) {
+            if (!line.isBlank()) {
+                index(line);
+            }
+        }
+        return trailer + 8;
+    }
+
+    /**
+     * Returns the offset of the compressed data after the gzip member header at {@code offset},
+     * or -1 if there is no valid header there.
+     */
+    private static int skipHeader(byte[] data, int offset) {
+        if (!isHeaderAt(data, offset) || offset + 10 > data.length) {
+            return -1;
+        }
+        int flags = data[offset + 3];
+        int pos = offset + 10;
+        if ((flags & 4) != 0) {
+            if (pos + 2 > data.length) {
+                return -1;
+            }
+            pos += 2 + ((data[pos] & 0xff) | (data[pos + 1] & 0xff) << 8);
+        }
+        for (int flag : new int[]{8, 16}) {
+            if ((flags & flag) != 0) {
+                while (pos < data.length && data[pos] != 0) {
+                    pos++;
+                }
+                pos++;
+            }
+        }
+        if ((flags & 2) != 0) {
+            pos += 2;
+        }
+        return pos <= data.length ? pos : -1;
+    }
+
+    /**
+     * Returns the offset of the next gzip member header at or after {@code from}, or the end of the data.
+     */
+    private static int nextHeader(byte[] data, int from) {
+        for (int i = from; i < data.length; i++) {
+            if (isHeaderAt(data, i)) {
+                return i;
+            }
+        }
+        return data.length;
+    }
+
+    private static boolean isHeaderAt(byte[] data, int i) {
+        return i + 2 < data.length && data[i] == (byte) 0x1f && data[i + 1] == (byte) 0x8b && data[i + 2] == 8;
+    }
+
+    private static int littleEndianInt(byte[] data, int i) {
+        return (data[i] & 0xff) | (data[i + 1] & 0xff) << 8 | (data[i + 2] & 0xff) << 16 | (data[i + 3] & 0xff) << 24;
+    }
+
+    private void index(String line) {
+        String[] parts = line.split(",", 4);
+        lines.add(line);
+        lowerTitles.add(parts.length > 2 ? parts[2].toLowerCase() : "");
+    }
+}
@@ -0,0 +1,190 @@
+package udin;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.TreeMap;
+
+/**
+ * Running counts of the tasks in a {@link TaskList}, updated by every add, remove, mark and unmark
+ * so that {@link TaskList#getStats()} never scans the list.
+ * <p>
+ * Counts by type and status need no dates and are always kept. The due-date buckets need the
+ * deadlines' dates, so, like the {@link TimeIndex}, they are only set up on the first request for
+ * them; a list loaded with lazy dates does not parse every date at startup. They keep the pending
+ * deadlines per due minute in a {@link TreeMap}, plus, for each bucket boundary, the number due at
+ * or before it. When a request moves a boundary, only the minutes it passed over are summed, and
+ * as time only moves forward between requests, each minute is passed over about once: a request
+ * costs O(1) amortized, however many deadlines there are.
+ * <p>
+ * Not thread-safe; {@link TaskList} calls it under its write lock.
+ */
+public class TaskCounters {
+    public static final int TODO = 0;
+    public static final int DEADLINE = 1;
+    public static final int EVENT = 2;
+
+    private static final int OVERDUE = 0;
+    private static final int TODAY = 1;
+    private static final int WEEK = 2;
+    private static final int DAYS_IN_WEEK = 7;
+
+    /**
+     * Task counts by type, then by 1 for done and 0 for pending.
+     */
+    private final int[][] counts = new int[3][2];
+
+    /**
+     * Number of pending deadlines per due minute, or {@code null} until the buckets are first requested.
+     */
+    private TreeMap<Long, Integer> pendingDue;
+    private int pendingDated;
+
+    /**
+     * The last minute each bucket boundary was moved to, and the pending deadlines due at or before it.
+     */
+    private final long[] boundaries = new long[3];
+    private final int[] dueByBoundary = new int[3];
+
+    /**
+     * Returns the type index of a task.
+     *
+     * @param t the task
+     * @return {@link #TODO}, {@link #DEADLINE} or {@link #EVENT}
+     */
+    static int typeOf(Task t) {
+        if (t instanceof Deadline) {
+            return DEADLINE;
+        } else if (t instanceof Event) {
+            return EVENT;
+        }
+        return TODO;
+    }
+
+    /**
+     * Counts a newly added task.
+     *
+     * @param t the task
+     */
+    public void add(Task t) {
+        counts[typeOf(t)][t.isDone ? 1 : 0]++;
+        if (pendingDue != null && !t.isDone) {
+            addDue(t, 1);
+        }
+    }
+
+    /**
+     * Stops counting a removed task.
+     *
+     * @param t the task, in the state it was removed in
+     */
+    public void remove(Task t) {
+        counts[typeOf(t)][t.isDone ? 1 : 0]--;
+        if (pendingDue != null && !t.isDone) {
+            addDue(t, -1);
+        }
+    }
+
+    /**
+     * Records that a task may have been marked or unmarked.
+     *
+     * @param t the task, in its new state
+     * @param wasDone whether it was done before
+     */
+    public void statusChanged(Task t, boolean wasDone) {
+        if (wasDone == t.isDone) {
+            return;
+        }
+        int type = typeOf(t);
+        counts[type][wasDone ? 1 : 0]--;
+        counts[type][t.isDone ? 1 : 0]++;
+        if (pendingDue != null) {
+            addDue(t, t.isDone ? -1 : 1);
+        }
+    }
+
+    /**
+     * Discards the counts and counts {@code tasks} afresh. The due-date buckets are dropped until next requested.
+     *
+     * @param tasks the tasks to count
+     */
+    public void rebuild(Iterable<Task> tasks) {
+        for (int[] byStatus : counts) {
+            byStatus[0] = 0;
+            byStatus[1] = 0;
+        }
+        pendingDue = null;
+        for (Task t : tasks) {
+            add(t);
+        }
+    }
+
+    /**
+     * Returns the counts as of {@code now}, first setting up the due-date buckets from {@code tasks} if needed.
+     *
+     * @param now the time the buckets are relative to
+     * @param tasks the counted tasks, read only if the buckets are not set up yet
+     * @return the stats
+     */
+    public TaskStats stats(LocalDateTime now, Iterable<Task> tasks) {
+        if (pendingDue == null) {
+            pendingDue = new TreeMap<>();
+            pendingDated = 0;
+            for (int i = 0; i < boundaries.length; i++) {
+                boundaries[i] = Long.MIN_VALUE;
+                dueByBoundary[i] = 0;
+            }
+            for (Task t : tasks) {
+                if (!t.isDone) {
+                    addDue(t, 1);
+                }
+            }
+        }
+        long minute = TimeIndex.minuteOf(now);
+        moveBoundary(OVERDUE, minute - 1);
+        moveBoundary(TODAY, TimeIndex.minuteOf(now.toLocalDate().atTime(LocalTime.of(23, 59))));
+        moveBoundary(WEEK, TimeIndex.minuteOf(now.plusDays(DAYS_IN_WEEK)));
+        return new TaskStats(counts, dueByBoundary[OVERDUE], dueByBoundary[TODAY] - dueByBoundary[OVERDUE],
+                dueByBoundary[WEEK] - dueByBoundary[TODAY], pendingDated - dueByBoundary[WEEK]);
+    }
+
+    /**
+     * Adds {@code delta} pending deadlines at the due minute of {@code t}; does nothing for other tasks.
+     */
+    private void addDue(Task t, int delta) {
+        if (!(t instanceof Deadline)) {
+            return;
+        }
+        long minute;
+        try {
+            minute = TimeIndex.minuteOf(((Deadline) t).getDeadline());
+        } catch (DateTimeParseException e) {
+            // Reported by the load-time validation pass; such a deadline falls in no bucket.
+            return;
+        }
+        pendingDue.merge(minute, delta, (a, b) -> a + b == 0 ? null : a + b);
+        pendingDated += delta;
+        for (int i = 0; i < boundaries.length; i++) {
+            if (minute <= boundaries[i]) {
+                dueByBoundary[i] += delta;
+            }
+        }
+    }
+
+    /**
+     * Moves a boundary, adding or subtracting the deadlines due in the minutes it passes over.
+     */
+    private void moveBoundary(int boundary, long to) {
+        long from = boundaries[boundary];
+        if (to > from) {
+            for (int count : pendingDue.subMap(from, false, to, true).values()) {
+                dueByBoundary[boundary] += count;
+            }
+        } else if (to < from) {
+            for (int count : pendingDue.subMap(to, false, from, true).values()) {
+                dueByBoundary[boundary] -= count;
+            }
+        }
+        boundaries[boundary] = to;
+    }
+}
@@ -0,0 +1,90 @@
+package udin;
+
+/**
+ * One change to a {@link TaskList}, as published by {@link TaskEventPublisher}.
+ * <p>
+ * The position is zero-based and refers to the list as it was just before a {@link Type#REMOVED}
+ * event and just after any other event. Applying the events of each batch in order to a copy of
+ * the list therefore keeps the copy in step, without looking anything up by ID.
+ * <p>
+ * The task itself is the one in the list, not a copy, so by the time a subscriber sees the event it
+ * may have changed again. {@link #isDone()} gives its done state as of the change.
+ */
+public final class TaskEvent {
+    /**
+     * The kinds of change.
+     */
+    public enum Type {
+        ADDED, REMOVED, MARKED, UNMARKED
+    }
+
+    private final Type type;
+    private final int position;
+    private final Task task;
+    private final boolean isDone;
+
+    /**
+     * Constructs an event, right after the change, recording the task's done state.
+     *
+     * @param type the kind of change
+     * @param position the position of the task, before a removal or after any other change
+     * @param task the changed task
+     */
+    public TaskEvent(Type type, int position, Task task) {
+        this.type = type;
+        this.position = position;
+        this.task = task;
+        this.isDone = task.isDone;
+    }
+
+    /**
+     * Returns the kind of change.
+     *
+     * @return the type
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Returns the zero-based position of the task, before a removal or after any other change.
+     *
+     * @return the position
+     */
+    public int getPosition() {
+        return position;
+    }
+
+    /**
+     * Returns the stable ID of the task.
+     *
+     * @return the task ID
+     */
+    public int getId() {
+        return task.getId();
+    }
+
+    /**
+     * Returns the task. It is shared with the list, so its done state may have changed since the event;
+     * use {@link #isDone()} for the state the change left it in.
+     *
+     * @return the task
+     */
+    public Task getTask() {
+        return task;
+    }
+
+    /**
+     * Returns whether the task was done just after the change.
+     *
+     * @return the done state as of the change
+     */
+    public boolean isDone() {
+        return isDone;
+    }
+
+    @Override
+    public String toString() {
+        return type + " " + (position + 1) + " (#" + task.getId() + ")";
+    }
+}
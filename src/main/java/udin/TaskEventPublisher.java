@@ -0,0 +1,107 @@
+package udin;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+
+/**
+ * Publishes the changes made to a {@link TaskList} as a {@link Flow} of {@link TaskEvent} batches,
+ * so that a view or a cache can follow the list instead of rescanning it.
+ * <p>
+ * The list records events while it holds its write lock, which only appends them to the pending
+ * batch, and publishes once it has released the lock. Every event from one call, such as a bulk
+ * mark or an undo, goes out in one batch. Delivery runs on a {@link SubmissionPublisher}, which
+ * gives each subscriber its own bounded buffer. When a buffer is full, publishing blocks until
+ * that subscriber catches up. The writer is slowed down this way, but readers of the list are not.
+ * Events that other writers record in the meantime are delivered together as the next batch, so a
+ * slow subscriber gets fewer, larger batches rather than an unbounded queue.
+ */
+public class TaskEventPublisher implements Flow.Publisher<List<TaskEvent>> {
+    private final SubmissionPublisher<List<TaskEvent>> publisher;
+
+    /**
+     * Serializes publishing, so that batches are submitted in the order their events were recorded.
+     */
+    private final Object publishLock = new Object();
+
+    /**
+     * Events recorded since the last batch was taken. Guarded by this object's monitor.
+     */
+    private List<TaskEvent> pending = new ArrayList<>();
+
+    /**
+     * Constructs a publisher that delivers on the common pool, buffering up to {@link Flow#defaultBufferSize()}
+     * batches per subscriber.
+     */
+    public TaskEventPublisher() {
+        publisher = new SubmissionPublisher<>();
+    }
+
+    /**
+     * Constructs a publisher.
+     *
+     * @param executor the executor that delivers to subscribers
+     * @param bufferSize the most batches buffered per subscriber before publishing blocks
+     */
+    public TaskEventPublisher(Executor executor, int bufferSize) {
+        publisher = new SubmissionPublisher<>(executor, bufferSize);
+    }
+
+    /**
+     * Adds a subscriber, which receives the batches published from now on.
+     *
+     * @param subscriber the subscriber
+     */
+    @Override
+    public void subscribe(Flow.Subscriber<? super List<TaskEvent>> subscriber) {
+        publisher.subscribe(subscriber);
+    }
+
+    /**
+     * Returns whether anyone is subscribed, so that the list can skip making events nobody would receive.
+     *
+     * @return true if there is at least one subscriber
+     */
+    public boolean hasSubscribers() {
+        return publisher.hasSubscribers();
+    }
+
+    /**
+     * Publishes what is pending, then completes every subscription.
+     */
+    public void close() {
+        publish();
+        publisher.close();
+    }
+
+    /**
+     * Adds an event to the pending batch.
+     *
+     * @param event the event
+     */
+    synchronized void record(TaskEvent event) {
+        pending.add(event);
+    }
+
+    /**
+     * Submits the pending batch, if any, waiting while a subscriber's buffer is full.
+     */
+    void publish() {
+        synchronized (publishLock) {
+            List<TaskEvent> batch;
+            synchronized (this) {
+                if (pending.isEmpty()) {
+                    return;
+                }
+                batch = pending;
+                pending = new ArrayList<>();
+            }
+            if (!publisher.isClosed()) {
+                publisher.submit(Collections.unmodifiableList(batch));
+            }
+        }
+    }
+}
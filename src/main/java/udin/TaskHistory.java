@@ -0,0 +1,122 @@
+package udin;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * The versions of a {@link TaskList} that {@code undo} and {@code redo} move between.
+ * <p>
+ * Each version is a {@link TaskVersion} sharing all but a few nodes with its neighbours, so keeping
+ * many of them costs little. Only the last {@code limit} changes can be undone; older versions are
+ * dropped. Recording a new change drops the versions that could have been redone.
+ * <p>
+ * Not thread-safe; {@link TaskList} calls it under its write lock.
+ */
+public class TaskHistory {
+    /**
+     * The number of changes that can be undone unless set otherwise with {@code -Dudin.undoLimit}.
+     */
+    public static final int DEFAULT_LIMIT = 100;
+
+    private final Deque<TaskVersion> undoable = new ArrayDeque<>();
+    private final Deque<TaskVersion> redoable = new ArrayDeque<>();
+    private TaskVersion current;
+    private int limit;
+
+    /**
+     * Constructs a history that starts at {@code initial}, with nothing to undo.
+     *
+     * @param initial the current version
+     * @param limit the most changes that can be undone, at least 1
+     */
+    public TaskHistory(TaskVersion initial, int limit) {
+        assert limit > 0 : "Undo limit must be positive";
+        current = initial;
+        this.limit = limit;
+    }
+
+    /**
+     * Returns the version the list is at.
+     *
+     * @return the current version
+     */
+    public TaskVersion current() {
+        return current;
+    }
+
+    /**
+     * Moves to a new version after a change, dropping the oldest undoable version if over the limit.
+     *
+     * @param version the version after the change
+     */
+    public void record(TaskVersion version) {
+        if (version == current) {
+            return;
+        }
+        undoable.push(current);
+        if (undoable.size() > limit) {
+            undoable.removeLast();
+        }
+        redoable.clear();
+        current = version;
+    }
+
+    /**
+     * Moves back one version.
+     *
+     * @return the version moved to, or {@code null} if there is nothing to undo
+     */
+    public TaskVersion undo() {
+        if (undoable.isEmpty()) {
+            return null;
+        }
+        redoable.push(current);
+        current = undoable.pop();
+        return current;
+    }
+
+    /**
+     * Moves forward one version, after an {@link #undo()}.
+     *
+     * @return the version moved to, or {@code null} if there is nothing to redo
+     */
+    public TaskVersion redo() {
+        if (redoable.isEmpty()) {
+            return null;
+        }
+        undoable.push(current);
+        current = redoable.pop();
+        return current;
+    }
+
+    /**
+     * Changes how many changes can be undone, dropping the oldest versions if there are too many.
+     *
+     * @param limit the most changes that can be undone, at least 1
+     */
+    public void setLimit(int limit) {
+        assert limit > 0 : "Undo limit must be positive";
+        this.limit = limit;
+        while (undoable.size() > limit) {
+            undoable.removeLast();
+        }
+    }
+
+    /**
+     * Returns the number of changes that can be undone now.
+     *
+     * @return the undoable change count
+     */
+    public int undoableCount() {
+        return undoable.size();
+    }
+
+    /**
+     * Returns the number of undone changes that can be redone now.
+     *
+     * @return the redoable change count
+     */
+    public int redoableCount() {
+        return redoable.size();
+    }
+}
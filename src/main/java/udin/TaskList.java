@@ -1,26 +1,136 @@
 package udin;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Predicate;
 
 /**
  * Represents a collection of {@link Task} objects.
  * <p>
  * Provides operations to add, remove, retrieve, and update
  * the completion status of tasks. Internally uses
- * an {@link ArrayList} to store the tasks.
+ * {@link TaskSlots}, so positional operations are O(log n) and
+ * every task keeps a stable ID that can be used instead of its position.
+ * <p>
+ * A TaskList may be shared between threads. Mutations serialize through the write side of a
+ * {@link StampedLock}; {@link #get(int)} and {@link #size()} use optimistic reads, and searches
+ * hold the read lock only while they run. {@link #snapshot()}, {@link #show()} and iteration over
+ * {@link #getAll()} read an immutable copy of the list that is shared until the next structural
+ * change, so they take no lock at all once the copy exists and never wait behind a save.
+ * The tasks themselves are shared, not copied.
+ * <p>
+ * Every change is recorded in a {@link TaskHistory}, so that {@link #undo()} and {@link #redo()}
+ * can move between versions in time proportional to what changed, not to the length of the list.
+ * Subscribers to {@link #getEvents()} receive every change as a {@link TaskEvent}.
  */
 public class TaskList {
     /**
-     * The internal list holding the tasks.
+     * Number of tasks {@code list} shows at a time unless changed with {@link #setPageSize(int)}.
+     */
+    public static final int DEFAULT_PAGE_SIZE = 50;
+
+    private static final String LIST_HEADER = "\n Your tasks:\n";
+
+    /**
+     * Room left for the "Showing tasks ..." line under a page.
+     */
+    private static final int PAGE_FOOTER_LENGTH = 96;
+
+    /**
+     * The internal storage holding the tasks.
+     */
+    private final TaskSlots tasks;
+
+    /**
+     * Live {@link List} view of {@link #tasks}, returned by {@link #getAll()}.
+     */
+    private final List<Task> view = new LiveView();
+
+    /**
+     * Guards {@link #tasks} and the indexes. Not reentrant, so locked methods never call each other.
+     */
+    private final StampedLock lock = new StampedLock();
+
+    /**
+     * Immutable copy of the tasks in order, or {@code null} once a task has been added or removed since it was made.
+     */
+    private volatile List<Task> snapshot;
+
+    /**
+     * Number of mutations applied so far; a background writer compares it to detect unsaved changes.
+     * Only written under the write lock.
+     */
+    private volatile long modificationCount;
+
+    /**
+     * Word index over the task titles, kept in step with {@link #tasks} by every mutator.
+     */
+    private final TokenIndex index;
+
+    /**
+     * Substring index over the task titles, or {@code null} until the first search long enough to use it.
+     */
+    private TrigramIndex trigrams;
+
+    /**
+     * Date index over deadlines and events, or {@code null} until the first date query.
+     * Built lazily so that loading with lazy dates does not parse every date up front.
+     */
+    private TimeIndex timeIndex;
+
+    /**
+     * Counts by type, status and due date, kept in step with {@link #tasks} by every mutator.
+     */
+    private final TaskCounters counters = new TaskCounters();
+
+    /**
+     * Tasks per page, and the zero-based position {@link #showNextPage()} continues from.
+     * Guarded by this object's monitor, which is never held while taking {@link #lock}: a page is
+     * read in one read-lock section, and the monitor is only taken to read these and move the cursor.
+     */
+    private int pageSize = DEFAULT_PAGE_SIZE;
+    private int pageCursor;
+
+    /**
+     * The order pages are shown in, or {@code null} for list order. Guarded like {@link #pageCursor}.
+     */
+    private SortOrder pageOrder;
+
+    /**
+     * Sorted views, each made on the first request for its order and kept up to date by every mutator afterwards.
+     */
+    private final Map<SortOrder, SortedView> sortedViews = new EnumMap<>(SortOrder.class);
+
+    /**
+     * The versions {@link #undo()} and {@link #redo()} move between, or {@code null} until the first
+     * change, so that a list that is only loaded and read makes no version.
+     */
+    private TaskHistory history;
+
+    /**
+     * The most changes that can be undone; 0 turns the history off.
+     */
+    private int undoLimit;
+
+    /**
+     * Publishes the changes, or {@code null} until {@link #getEvents()} is first called. Only set under the write lock.
      */
-    private final List<Task> tasks;
+    private volatile TaskEventPublisher events;
 
     /**
      * Constructs an empty task list.
      */
     public TaskList() {
-        this.tasks = new ArrayList<>();
+        this(new TaskSlots(), List.of());
     }
 
     /**
@@ -29,11 +139,41 @@ public class TaskList {
      * @param initial the tasks to initialize this list with
      */
     public TaskList(List<Task> initial) {
-        this.tasks = new ArrayList<>(initial);
+        this(new TaskSlots(), initial);
+    }
+
+    private TaskList(TaskSlots slots, List<Task> initial) {
+        tasks = slots;
+        // A columnar list would need a view object per task for its first version, which is the memory it exists to save.
+        undoLimit = slots.sharesTasks() ? TaskHistory.DEFAULT_LIMIT : 0;
+        index = new TokenIndex(tasks::getById);
+        for (Task t : initial) {
+            tasks.add(t);
+        }
+        index.rebuild(currentTasks());
+        counters.rebuild(currentTasks());
+    }
+
+    /**
+     * Constructs a task list that keeps its tasks in {@link ColumnarTaskSlots}, for lists of millions of tasks.
+     * <p>
+     * The list behaves like any other, except that the tasks it returns are views built on each
+     * read: the same task read twice gives two objects, and the {@code initial} objects are not kept.
+     * Undo is off until turned on with {@link #setUndoLimit(int)}, since the history would keep a view of every task.
+     *
+     * @param initial the tasks to initialize this list with
+     * @return the columnar task list
+     * @throws java.time.format.DateTimeParseException if a lazily loaded date in {@code initial} is malformed
+     */
+    public static TaskList columnar(List<Task> initial) {
+        return new TaskList(new ColumnarTaskSlots(), initial);
     }
 
     /**
      * Returns a list of tasks whose title contains the specified keyword (case-insensitive).
+     * <p>
+     * Keywords of at least three characters are answered from a {@link TrigramIndex}, built on the
+     * first such search and kept up to date afterwards; shorter keywords scan every title.
      *
      * @param keyword the keyword to search for in task titles
      * @return a list of tasks matching the keyword
@@ -41,14 +181,141 @@ public class TaskList {
     public List<Task> findTasksByKeyword(String keyword) {
         assert keyword != null : "Keyword cannot be null";
         assert !keyword.trim().isEmpty() : "Keyword cannot be empty";
-        List<Task> results = new ArrayList<>();
-        String lowerKeyword = keyword.toLowerCase();
-        for (Task task : tasks) {
-            if (task.getTitle().toLowerCase().contains(lowerKeyword)) {
-                results.add(task);
+        long stamp = lock.readLock();
+        try {
+            if (keyword.length() >= TrigramIndex.MIN_QUERY_LENGTH) {
+                if (trigrams == null) {
+                    stamp = toWriteLock(stamp);
+                    if (trigrams == null) {
+                        TrigramIndex built = new TrigramIndex(tasks::getById);
+                        built.rebuild(currentTasks());
+                        trigrams = built;
+                    }
+                }
+                return trigrams.find(keyword);
+            }
+            List<Task> results = new ArrayList<>();
+            for (Task task : tasks) {
+                if (containsIgnoreCase(task.getTitle(), keyword)) {
+                    results.add(task);
+                }
+            }
+            return results;
+        } finally {
+            lock.unlock(stamp);
+        }
+    }
+
+    /**
+     * Returns whether {@code text} contains {@code keyword}, ignoring case, without allocating lower-cased copies.
+     * <p>
+     * Only positions whose character folds to the keyword's first character are compared in full.
+     */
+    static boolean containsIgnoreCase(String text, String keyword) {
+        if (keyword.isEmpty()) {
+            return true;
+        }
+        char first = fold(keyword.charAt(0));
+        int last = text.length() - keyword.length();
+        for (int i = 0; i <= last; i++) {
+            if (fold(text.charAt(i)) == first && text.regionMatches(true, i, keyword, 0, keyword.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Folds case the way a case-insensitive {@link String#regionMatches(boolean, int, String, int, int)} compares characters.
+     */
+    static char fold(char c) {
+        if (c < 128) {
+            return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+        }
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    /**
+     * Returns the pending deadlines due at or before {@code to}, earliest first.
+     *
+     * @param to the latest due time, inclusive
+     * @return the matching deadlines
+     */
+    public List<Task> findDueBy(LocalDateTime to) {
+        long stamp = lock.readLock();
+        try {
+            stamp = ensureTimeIndex(stamp);
+            return timeIndex.pendingDeadlinesUntil(to);
+        } finally {
+            lock.unlock(stamp);
+        }
+    }
+
+    /**
+     * Returns the deadlines due and the events taking place within {@code [from, to]}, ordered by time.
+     *
+     * @param from the start of the range
+     * @param to the end of the range, inclusive
+     * @return the matching tasks
+     */
+    public List<Task> findBetween(LocalDateTime from, LocalDateTime to) {
+        long stamp = lock.readLock();
+        try {
+            stamp = ensureTimeIndex(stamp);
+            return timeIndex.between(from, to);
+        } finally {
+            lock.unlock(stamp);
+        }
+    }
+
+    /**
+     * Builds the time index if it does not exist yet, upgrading the caller's read lock to do so.
+     *
+     * @return the stamp now held, which may be a write stamp
+     */
+    private long ensureTimeIndex(long stamp) {
+        if (timeIndex == null) {
+            stamp = toWriteLock(stamp);
+            if (timeIndex == null) {
+                TimeIndex built = new TimeIndex(tasks::getById);
+                built.rebuild(currentTasks());
+                timeIndex = built;
             }
         }
-        return results;
+        return stamp;
+    }
+
+    /**
+     * Upgrades a read stamp to a write stamp, releasing and reacquiring if another reader prevents
+     * an in-place upgrade. Callers must recheck whatever they read before the upgrade.
+     */
+    private long toWriteLock(long readStamp) {
+        long writeStamp = lock.tryConvertToWriteLock(readStamp);
+        if (writeStamp != 0) {
+            return writeStamp;
+        }
+        lock.unlockRead(readStamp);
+        return lock.writeLock();
+    }
+
+    /**
+     * Returns the tasks whose title words match a query such as {@code buy AND milk NOT stale}.
+     * <p>
+     * Answered from the word index, so the cost depends on the posting lists involved
+     * rather than on the number of tasks.
+     *
+     * @param query words joined by {@code AND}, {@code OR} and {@code NOT}
+     * @return the matching tasks, in list order
+     * @see TokenIndex
+     */
+    public List<Task> findTasksByQuery(String query) {
+        assert query != null : "Query cannot be null";
+        long stamp = lock.readLock();
+        try {
+            return index.find(query);
+        } finally {
+            lock.unlockRead(stamp);
+        }
     }
   
     /**
@@ -58,7 +325,18 @@ public class TaskList {
      */
     public void add(Task t) { 
         assert t != null : "Cannot add null task";
-        tasks.add(t); 
+        long stamp = lock.writeLock();
+        try {
+            TaskVersion version = startChange();
+            tasks.add(t); 
+            added(t);
+            emit(TaskEvent.Type.ADDED, tasks.size() - 1, t);
+            structureChanged();
+            endChange(version == null ? null : version.with(t));
+        } finally {
+            lock.unlockWrite(stamp);
+            publishEvents();
+        }
     }
 
     /**
@@ -69,7 +347,75 @@ public class TaskList {
      * @throws IndexOutOfBoundsException if the index is out of range
      */
     public Task remove(int index) { 
-        return tasks.remove(index); 
+        long stamp = lock.writeLock();
+        try {
+            TaskVersion version = startChange();
+            Task removed = tasks.remove(index);
+            removed(removed);
+            emit(TaskEvent.Type.REMOVED, index, removed);
+            structureChanged();
+            endChange(version == null ? null : version.without(removed.getId()));
+            return removed;
+        } finally {
+            lock.unlockWrite(stamp);
+            publishEvents();
+        }
+    }
+
+    /**
+     * Removes every task that satisfies the given condition, keeping the order of the rest.
+     *
+     * @param condition the condition a task must satisfy to be removed
+     * @return the removed tasks, in their former order
+     */
+    public List<Task> removeMatching(Predicate<Task> condition) {
+        long stamp = lock.writeLock();
+        try {
+            TaskVersion version = startChange();
+            List<Task> removed;
+            if (isObserved()) {
+                // The slots test each live task in order, so the position of each match is known as it is found.
+                int[] seen = new int[1];
+                List<Integer> positions = new ArrayList<>();
+                removed = tasks.removeMatching(t -> {
+                    boolean isMatch = condition.test(t);
+                    if (isMatch) {
+                        positions.add(seen[0] - positions.size());
+                    }
+                    seen[0]++;
+                    return isMatch;
+                });
+                for (int i = 0; i < removed.size(); i++) {
+                    emit(TaskEvent.Type.REMOVED, positions.get(i), removed.get(i));
+                }
+            } else {
+                removed = tasks.removeMatching(condition);
+            }
+            index.removeAll(removed);
+            if (trigrams != null) {
+                trigrams.removeAll(removed);
+            }
+            for (Task t : removed) {
+                if (timeIndex != null) {
+                    timeIndex.remove(t);
+                }
+                counters.remove(t);
+                for (SortedView sorted : sortedViews.values()) {
+                    sorted.remove(t);
+                }
+                if (version != null) {
+                    version = version.without(t.getId());
+                }
+            }
+            if (!removed.isEmpty()) {
+                structureChanged();
+            }
+            endChange(version);
+            return removed;
+        } finally {
+            lock.unlockWrite(stamp);
+            publishEvents();
+        }
     }
 
     /**
@@ -79,7 +425,23 @@ public class TaskList {
      * @throws IndexOutOfBoundsException if the index is out of range
      */
     public void mark(int index) { 
-        tasks.get(index).mark(); 
+        long stamp = lock.writeLock();
+        try {
+            TaskVersion version = startChange();
+            Task t = tasks.get(index);
+            boolean wasDone = t.isDone;
+            t.mark();
+            counters.statusChanged(t, wasDone);
+            statusChanged(t);
+            if (wasDone != t.isDone) {
+                emit(TaskEvent.Type.MARKED, index, t);
+            }
+            contentChanged();
+            endChange(version == null ? null : version.with(t));
+        } finally {
+            lock.unlockWrite(stamp);
+            publishEvents();
+        }
     }
 
     /**
@@ -89,7 +451,383 @@ public class TaskList {
      * @throws IndexOutOfBoundsException if the index is out of range
      */
     public void unmark(int index) { 
-        tasks.get(index).unmark(); 
+        long stamp = lock.writeLock();
+        try {
+            TaskVersion version = startChange();
+            Task t = tasks.get(index);
+            boolean wasDone = t.isDone;
+            t.unmark();
+            counters.statusChanged(t, wasDone);
+            statusChanged(t);
+            if (wasDone != t.isDone) {
+                emit(TaskEvent.Type.UNMARKED, index, t);
+            }
+            contentChanged();
+            endChange(version == null ? null : version.with(t));
+        } finally {
+            lock.unlockWrite(stamp);
+            publishEvents();
+        }
+    }
+
+    /**
+     * Marks every given task as completed, counting the whole batch as a single change.
+     *
+     * @param targets the tasks to mark, all of which must belong to this list
+     */
+    public void markAll(Collection<Task> targets) {
+        long stamp = lock.writeLock();
+        try {
+            TaskVersion version = startChange();
+            boolean isObserved = isObserved();
+            for (Task t : targets) {
+                Task stored = tasks.getById(t.getId());
+                boolean wasDone = stored != null && stored.isDone;
+                t.mark();
+                if (stored != null) {
+                    counters.statusChanged(t, wasDone);
+                    statusChanged(t);
+                    if (isObserved && wasDone != t.isDone) {
+                        emit(TaskEvent.Type.MARKED, tasks.positionOf(t.getId()), t);
+                    }
+                    if (version != null) {
+                        version = version.with(t);
+                    }
+                }
+            }
+            contentChanged();
+            endChange(version);
+        } finally {
+            lock.unlockWrite(stamp);
+            publishEvents();
+        }
+    }
+
+    /**
+     * Marks every given task as not completed, counting the whole batch as a single change.
+     *
+     * @param targets the tasks to unmark, all of which must belong to this list
+     */
+    public void unmarkAll(Collection<Task> targets) {
+        long stamp = lock.writeLock();
+        try {
+            TaskVersion version = startChange();
+            boolean isObserved = isObserved();
+            for (Task t : targets) {
+                Task stored = tasks.getById(t.getId());
+                boolean wasDone = stored != null && stored.isDone;
+                t.unmark();
+                if (stored != null) {
+                    counters.statusChanged(t, wasDone);
+                    statusChanged(t);
+                    if (isObserved && wasDone != t.isDone) {
+                        emit(TaskEvent.Type.UNMARKED, tasks.positionOf(t.getId()), t);
+                    }
+                    if (version != null) {
+                        version = version.with(t);
+                    }
+                }
+            }
+            contentChanged();
+            endChange(version);
+        } finally {
+            lock.unlockWrite(stamp);
+            publishEvents();
+        }
+    }
+
+    /**
+     * Undoes the last change that has not been undone yet: an add, remove, mark or unmark, or one
+     * batch of them such as {@link #removeMatching(Predicate)}.
+     * <p>
+     * Removed tasks come back under their old IDs, in their old places. Only the tasks that differ
+     * between the two versions are touched, so this costs O(k log n) for a change to k tasks, as
+     * long as the removed tasks' slots are still there. Once tombstones outnumber the live tasks
+     * they are compacted away, and each removed task then goes back by moving the later slots up,
+     * in O(n); see {@link TaskSlots#restore(Task)}.
+     *
+     * @return the number of tasks changed back, or -1 if there is nothing to undo
+     * @see TaskHistory
+     */
+    public int undo() {
+        return travel(true);
+    }
+
+    /**
+     * Redoes the last change undone by {@link #undo()}, unless the list has changed since.
+     *
+     * @return the number of tasks changed again, or -1 if there is nothing to redo
+     */
+    public int redo() {
+        return travel(false);
+    }
+
+    /**
+     * Changes how many changes can be undone. Lowering it forgets the oldest ones; 0 turns undo off
+     * and forgets them all.
+     *
+     * @param limit the most changes that can be undone, or 0
+     * @throws IllegalArgumentException if {@code limit} is negative
+     */
+    public void setUndoLimit(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Undo limit cannot be negative");
+        }
+        long stamp = lock.writeLock();
+        try {
+            undoLimit = limit;
+            if (limit == 0) {
+                history = null;
+            } else if (history != null) {
+                history.setLimit(limit);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Forgets every change that could be undone or redone, for a change made outside the list
+     * that undo could not reverse.
+     */
+    public void clearHistory() {
+        long stamp = lock.writeLock();
+        try {
+            history = null;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Returns the most changes that can be undone.
+     *
+     * @return the undo limit, or 0 if undo is off
+     */
+    public int getUndoLimit() {
+        long stamp = lock.readLock();
+        try {
+            return undoLimit;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Moves one version back or forward and brings the tasks and indexes in line with it.
+     */
+    private int travel(boolean isBack) {
+        long stamp = lock.writeLock();
+        try {
+            if (history == null) {
+                return -1;
+            }
+            TaskVersion from = history.current();
+            TaskVersion to = isBack ? history.undo() : history.redo();
+            if (to == null) {
+                return -1;
+            }
+            int[] changed = new int[2];
+            from.diff(to, (id, before, wasDone, after, isDone) -> {
+                changed[0]++;
+                if (after == null) {
+                    int position = tasks.positionOf(id);
+                    Task removed = tasks.remove(position);
+                    removed(removed);
+                    emit(TaskEvent.Type.REMOVED, position, removed);
+                    changed[1]++;
+                } else if (before == null) {
+                    after.isDone = isDone;
+                    tasks.restore(after);
+                    added(after);
+                    emit(TaskEvent.Type.ADDED, tasks.positionOf(id), after);
+                    changed[1]++;
+                } else {
+                    Task t = tasks.getById(id);
+                    boolean stillDone = t.isDone;
+                    if (isDone) {
+                        t.mark();
+                    } else {
+                        t.unmark();
+                    }
+                    counters.statusChanged(t, stillDone);
+                    statusChanged(t);
+                    if (stillDone != isDone) {
+                        emit(isDone ? TaskEvent.Type.MARKED : TaskEvent.Type.UNMARKED, tasks.positionOf(id), t);
+                    }
+                }
+            });
+            if (changed[1] > 0) {
+                structureChanged();
+            } else {
+                contentChanged();
+            }
+            return changed[0];
+        } finally {
+            lock.unlockWrite(stamp);
+            publishEvents();
+        }
+    }
+
+    /**
+     * Returns the publisher of this list's changes, creating it on the first call.
+     * <p>
+     * Until someone subscribes, changes make no events, so an unobserved list pays nothing for them.
+     *
+     * @return the event publisher
+     */
+    public TaskEventPublisher getEvents() {
+        TaskEventPublisher current = events;
+        if (current != null) {
+            return current;
+        }
+        long stamp = lock.writeLock();
+        try {
+            if (events == null) {
+                events = new TaskEventPublisher();
+            }
+            return events;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Replaces the publisher of this list's changes, for example with one that has its own executor
+     * or buffer size. The previous publisher is closed, so its subscribers receive any events still
+     * pending and then {@code onComplete}.
+     *
+     * @param publisher the new publisher
+     */
+    public void setEvents(TaskEventPublisher publisher) {
+        assert publisher != null : "Publisher cannot be null";
+        TaskEventPublisher previous;
+        long stamp = lock.writeLock();
+        try {
+            previous = events;
+            events = publisher;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        // Closed outside the lock, since publishing what is pending waits for slow subscribers.
+        if (previous != null && previous != publisher) {
+            previous.close();
+        }
+    }
+
+    /**
+     * Returns whether anyone would receive an event. The caller must hold the write lock.
+     */
+    private boolean isObserved() {
+        TaskEventPublisher current = events;
+        return current != null && current.hasSubscribers();
+    }
+
+    /**
+     * Records an event if anyone would receive it. The caller must hold the write lock.
+     */
+    private void emit(TaskEvent.Type type, int position, Task t) {
+        if (isObserved()) {
+            events.record(new TaskEvent(type, position, t));
+        }
+    }
+
+    /**
+     * Publishes the events recorded by a change. Called after releasing the write lock, since
+     * publishing waits for slow subscribers.
+     */
+    private void publishEvents() {
+        TaskEventPublisher current = events;
+        if (current != null) {
+            current.publish();
+        }
+    }
+
+    /**
+     * Returns the version before a change, making the first version from the tasks if there is
+     * none yet, or {@code null} if undo is off. The caller must hold the write lock.
+     */
+    private TaskVersion startChange() {
+        if (undoLimit == 0) {
+            return null;
+        }
+        if (history == null) {
+            history = new TaskHistory(TaskVersion.of(tasks), undoLimit);
+        }
+        return history.current();
+    }
+
+    /**
+     * Records the version after a change begun with {@link #startChange()}. The caller must hold the write lock.
+     */
+    private void endChange(TaskVersion version) {
+        if (version != null) {
+            history.record(version);
+        }
+    }
+
+    /**
+     * Adds a task just put into {@link #tasks} to the indexes, counters and sorted views. The caller must hold the write lock.
+     */
+    private void added(Task t) {
+        index.add(t);
+        if (trigrams != null) {
+            trigrams.add(t);
+        }
+        if (timeIndex != null) {
+            timeIndex.add(t);
+        }
+        counters.add(t);
+        for (SortedView sorted : sortedViews.values()) {
+            sorted.add(t);
+        }
+    }
+
+    /**
+     * Drops a task just taken out of {@link #tasks} from the indexes, counters and sorted views. The caller must hold the write lock.
+     */
+    private void removed(Task t) {
+        index.remove(t);
+        if (trigrams != null) {
+            trigrams.remove(t);
+        }
+        if (timeIndex != null) {
+            timeIndex.remove(t);
+        }
+        counters.remove(t);
+        for (SortedView sorted : sortedViews.values()) {
+            sorted.remove(t);
+        }
+    }
+
+    /**
+     * Returns the task with the given stable ID.
+     *
+     * @param id the task ID
+     * @return the task, or {@code null} if no task in this list has that ID
+     */
+    public Task getById(int id) {
+        long stamp = lock.readLock();
+        try {
+            return tasks.getById(id);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Returns the current zero-based position of the task with the given stable ID.
+     *
+     * @param id the task ID
+     * @return the position, or -1 if no task in this list has that ID
+     */
+    public int indexOfId(int id) {
+        long stamp = lock.readLock();
+        try {
+            return tasks.positionOf(id);
+        } finally {
+            lock.unlockRead(stamp);
+        }
     }
 
     /**
@@ -100,33 +838,472 @@ public class TaskList {
      * @throws IndexOutOfBoundsException if the index is out of range
      */
     public Task get(int index) { 
-        return tasks.get(index); 
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                Task t = tasks.get(index);
+                if (lock.validate(stamp)) {
+                    return t;
+                }
+            } catch (RuntimeException e) {
+                // Read a structure that was being changed; retry under the read lock.
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return tasks.get(index);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Returns the task counts by type and status, and the pending deadlines by due date as of now.
+     * <p>
+     * The counts are kept up to date as the list changes, so this costs O(1) (amortized, once the
+     * due-date buckets are set up by the first call) however long the list is.
+     *
+     * @return the stats
+     * @see TaskCounters
+     */
+    public TaskStats getStats() {
+        return getStats(LocalDateTime.now());
+    }
+
+    /**
+     * Returns the task counts, with the pending deadlines bucketed relative to {@code now}.
+     *
+     * @param now the time the due-date buckets are relative to
+     * @return the stats
+     */
+    public TaskStats getStats(LocalDateTime now) {
+        long stamp = lock.writeLock();
+        try {
+            return counters.stats(now, currentTasks());
+        } finally {
+            lock.unlockWrite(stamp);
+        }
     }
 
     /**
      * Returns the entire list of tasks.
      * <p>
-     * Note: Since the internal list is directly returned, external
-     * modifications will affect this TaskList.
+     * Note: The returned list is a live view, so external
+     * modifications will affect this TaskList. Adding (at the end)
+     * and removing through it go through {@link #add(Task)} and
+     * {@link #remove(int)}, keeping IDs and indexes in step.
+     * Iterating over it walks a {@link #snapshot()}, so it is safe
+     * while other threads change the list.
      *
      * @return the list of all tasks
      */
-    public List<Task> getAll() { return tasks; }
+    public List<Task> getAll() { return view; }
+
+    /**
+     * Returns an immutable copy of the current tasks that is safe to read from another thread.
+     * <p>
+     * The copy is made at most once per structural change and shared by every caller until
+     * the next add or remove (or, for a {@link #columnar} list, the next mark or unmark), so
+     * repeated reads of an unchanged list cost nothing and take no lock.
+     *
+     * @return a snapshot of all tasks
+     */
+    public List<Task> snapshot() {
+        List<Task> current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        long stamp = lock.readLock();
+        try {
+            return currentTasks();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Returns the cached snapshot, making it first if needed. The caller must hold the lock.
+     */
+    private List<Task> currentTasks() {
+        List<Task> current = snapshot;
+        if (current == null) {
+            current = tasks.copyTasks();
+            snapshot = current;
+        }
+        return current;
+    }
+
+    /**
+     * Moves a marked or unmarked task within the sorted views and the time index. The caller must hold the write lock.
+     */
+    private void statusChanged(Task t) {
+        for (SortedView sorted : sortedViews.values()) {
+            sorted.update(t);
+        }
+        if (timeIndex != null) {
+            timeIndex.statusChanged(t);
+        }
+    }
+
+    /**
+     * Records an add or remove. The caller must hold the write lock.
+     */
+    private void structureChanged() {
+        snapshot = null;
+        modificationCount++;
+    }
+
+    /**
+     * Records a mark or unmark. A snapshot only stays valid if it shares the marked task objects.
+     * The caller must hold the write lock.
+     */
+    private void contentChanged() {
+        if (!tasks.sharesTasks()) {
+            snapshot = null;
+        }
+        modificationCount++;
+    }
+
+    /**
+     * Returns the number of mutations applied to this list so far.
+     * <p>
+     * The count changes whenever the list becomes dirty, so a writer can tell
+     * whether anything happened since its last save.
+     *
+     * @return the modification count
+     */
+    public long getModificationCount() {
+        return modificationCount;
+    }
 
     /**
      * Returns the number of tasks in the list.
      *
      * @return the size of the task list
      */
-    public int size() { return tasks.size(); }
+    public int size() {
+        long stamp = lock.tryOptimisticRead();
+        int size = tasks.size();
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                size = tasks.size();
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Returns the tasks at positions {@code [from, to)}, clamped to the list.
+     * <p>
+     * Each task is found through the position index, so the cost depends on the number of tasks
+     * returned rather than the length of the list, and no snapshot is made.
+     *
+     * @param from the zero-based position of the first task
+     * @param to the position after the last task
+     * @return the tasks, in order
+     */
+    public List<Task> getRange(int from, int to) {
+        long stamp = lock.readLock();
+        try {
+            return rangeOf(from, to);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
 
+    /**
+     * Returns the tasks at positions {@code [from, to)}, clamped to the list. The caller must hold the lock.
+     */
+    private List<Task> rangeOf(int from, int to) {
+        int start = Math.max(0, from);
+        int end = Math.min(to, tasks.size());
+        List<Task> range = new ArrayList<>(Math.max(0, end - start));
+        for (int i = start; i < end; i++) {
+            range.add(tasks.get(i));
+        }
+        return range;
+    }
+
+    /**
+     * Renders the whole list.
+     *
+     * @return the task list, one numbered line per task
+     */
     public String show() {
-        String res = "";
-        res += "\n Your tasks:\n";
-        for (int i = 0; i < tasks.size(); i++) {
-            res += (" " + (i + 1) + "." + tasks.get(i).display() + "\n");
+        return renderSized(snapshot(), null, 1, 0).toString();
+    }
+
+    /**
+     * Returns the exact length of what {@link #render} writes for {@code tasks}, so a builder can be
+     * sized once up front. This displays every task, and rendering displays it again; {@link #show()}
+     * and the list pages display each task only once.
+     *
+     * @param tasks the tasks to render
+     * @param firstNumber the number shown for the first task
+     * @return the rendered length in characters
+     */
+    public static int renderedLength(List<Task> tasks, int firstNumber) {
+        long length = 0;
+        int number = firstNumber;
+        for (Task t : tasks) {
+            length += lineLength(number++, t.display(), t.getId());
+        }
+        return (int) Math.min(length, Integer.MAX_VALUE - 8);
+    }
+
+    private static int lineLength(int number, String line, int id) {
+        // " " + number + "." + display + " (#" + id + ")\n"
+        return digits(number) + line.length() + digits(id) + 7;
+    }
+
+    private static int digits(int n) {
+        int digits = 1;
+        while (n >= 10) {
+            n /= 10;
+            digits++;
+        }
+        return digits;
+    }
+
+    /**
+     * Writes numbered lines for {@code tasks} to {@code out}, numbering from {@code firstNumber}.
+     *
+     * @param out where to write, such as a {@link StringBuilder} or the console
+     * @param tasks the tasks to render
+     * @param firstNumber the number shown for the first task
+     * @throws IOException if {@code out} cannot be written to
+     */
+    public static void render(Appendable out, List<Task> tasks, int firstNumber) throws IOException {
+        int number = firstNumber;
+        for (Task t : tasks) {
+            appendLine(out, number++, t.display(), t.getId());
+        }
+    }
+
+    private static void appendLine(Appendable out, int number, String line, int id) throws IOException {
+        out.append(' ').append(Integer.toString(number)).append('.').append(line)
+                .append(" (#").append(Integer.toString(id)).append(")\n");
+    }
+
+    /**
+     * Renders {@code tasks} after the list header into a builder sized exactly, with room for {@code extra}
+     * more characters. Each task is displayed once, and the line is used both to size the builder and to fill it.
+     *
+     * @param numbers the number shown for each task, or {@code null} to number them from {@code firstNumber}
+     */
+    private static StringBuilder renderSized(List<Task> tasks, List<Integer> numbers, int firstNumber, int extra) {
+        String[] lines = new String[tasks.size()];
+        long length = LIST_HEADER.length() + extra;
+        for (int i = 0; i < lines.length; i++) {
+            Task t = tasks.get(i);
+            lines[i] = t.display();
+            length += lineLength(numbers == null ? firstNumber + i : numbers.get(i), lines[i], t.getId());
+        }
+        StringBuilder out = new StringBuilder((int) Math.min(length, Integer.MAX_VALUE - 8));
+        out.append(LIST_HEADER);
+        try {
+            for (int i = 0; i < lines.length; i++) {
+                appendLine(out, numbers == null ? firstNumber + i : numbers.get(i), lines[i], tasks.get(i).getId());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // Unreachable: a StringBuilder never throws.
+        }
+        return out;
+    }
+
+    /**
+     * Returns the tasks at ranks {@code [from, to)} in the given order, clamped to the list.
+     * <p>
+     * Answered from a {@link SortedView}, made on the first request for the order and kept
+     * sorted as the list changes, so a page costs O(log n + k) rather than a sort of the whole list.
+     *
+     * @param order the order
+     * @param from the zero-based rank of the first task
+     * @param to the rank after the last task
+     * @return the tasks, in order
+     */
+    public List<Task> getSorted(SortOrder order, int from, int to) {
+        assert order != null : "Sort order cannot be null";
+        return readPage(order, from, to, false).tasks;
+    }
+
+    /**
+     * One page of tasks, read in the same lock section as the size of the list.
+     */
+    private static final class Page {
+        final List<Task> tasks;
+
+        /**
+         * The one-based list number of each task, or {@code null} if they are not needed.
+         */
+        final List<Integer> numbers;
+
+        final int listSize;
+
+        Page(List<Task> tasks, List<Integer> numbers, int listSize) {
+            this.tasks = tasks;
+            this.numbers = numbers;
+            this.listSize = listSize;
+        }
+    }
+
+    /**
+     * Reads the tasks at ranks {@code [from, to)} in the given order, or at positions
+     * {@code [from, to)} if the order is {@code null}, together with the size of the list, under
+     * one lock so that the two agree.
+     *
+     * @param isNumbered whether to record the list number of each task of a sorted page
+     */
+    private Page readPage(SortOrder order, int from, int to, boolean isNumbered) {
+        long stamp = lock.readLock();
+        try {
+            if (order == null) {
+                return new Page(rangeOf(from, to), null, tasks.size());
+            }
+            SortedView view = sortedViews.get(order);
+            if (view == null) {
+                stamp = toWriteLock(stamp);
+                view = sortedViews.get(order);
+                if (view == null) {
+                    view = new SortedView(order, tasks::getById);
+                    view.rebuild(currentTasks());
+                    sortedViews.put(order, view);
+                }
+            }
+            List<Task> range = view.getRange(from, to);
+            List<Integer> numbers = null;
+            if (isNumbered) {
+                numbers = new ArrayList<>(range.size());
+                for (Task t : range) {
+                    numbers.add(tasks.positionOf(t.getId()) + 1);
+                }
+            }
+            return new Page(range, numbers, tasks.size());
+        } finally {
+            lock.unlock(stamp);
+        }
+    }
+
+    /**
+     * Sets the order {@link #showPage(int)} and {@link #showNextPage()} show tasks in. Each task
+     * keeps its list number, so commands such as {@code mark} still refer to it by that number.
+     *
+     * @param order the order, or {@code null} for list order
+     */
+    public synchronized void setPageOrder(SortOrder order) {
+        pageOrder = order;
+    }
+
+    /**
+     * Sets how many tasks {@link #showPage(int)} and {@link #showNextPage()} show at a time.
+     *
+     * @param size the page size, at least 1
+     */
+    public synchronized void setPageSize(int size) {
+        assert size > 0 : "Page size must be positive";
+        pageSize = size;
+    }
+
+    /**
+     * Renders one page of the list and moves the cursor to the page after it.
+     *
+     * @param page the one-based page number
+     * @return the page, followed by a note on how to see more if it is not the last one
+     */
+    public String showPage(int page) {
+        assert page > 0 : "Page numbers start at 1";
+        int count;
+        SortOrder order;
+        synchronized (this) {
+            count = pageSize;
+            order = pageOrder;
+        }
+        long from = (long) (page - 1) * count;
+        int start = (int) Math.min(from, Integer.MAX_VALUE);
+        Page shown = readPage(order, start, (int) Math.min(from + count, Integer.MAX_VALUE), true);
+        if (from > 0 && from >= shown.listSize) {
+            int pages = (shown.listSize + count - 1) / count;
+            return "There is no page " + page + "; the list has " + pages + " page(s) of " + count + " tasks.";
+        }
+        return renderPage(shown, start, order);
+    }
+
+    /**
+     * Renders the page after the one shown last and moves the cursor past it.
+     *
+     * @return the page, or a note that the end of the list was reached
+     */
+    public String showNextPage() {
+        int from;
+        int count;
+        SortOrder order;
+        synchronized (this) {
+            from = pageCursor;
+            count = pageSize;
+            order = pageOrder;
+        }
+        Page shown = readPage(order, from, (int) Math.min((long) from + count, Integer.MAX_VALUE), true);
+        if (from >= shown.listSize) {
+            return "No more tasks. Type 'list' to start from the top.";
+        }
+        return renderPage(shown, from, order);
+    }
+
+    /**
+     * Renders a page read from position {@code from}, with a footer counted from the same read,
+     * and moves the cursor past it.
+     */
+    private String renderPage(Page page, int from, SortOrder order) {
+        int end = from + page.tasks.size();
+        synchronized (this) {
+            pageCursor = end;
+        }
+        StringBuilder out = renderSized(page.tasks, page.numbers, from + 1, PAGE_FOOTER_LENGTH);
+        if (order != null || from > 0 || end < page.listSize) {
+            out.append(String.format(" Showing tasks %,d-%,d of %,d", from + 1, end, page.listSize));
+            out.append(order == null ? "." : ", sorted by " + order.getKey() + ".");
+            if (end < page.listSize) {
+                out.append(" Type 'list next' for more.");
+            }
+            out.append('\n');
+        }
+        return out.toString();
+    }
+
+    /**
+     * The list returned by {@link #getAll()}; reads and writes go through the enclosing TaskList.
+     */
+    private class LiveView extends AbstractList<Task> {
+        @Override
+        public Task get(int index) {
+            return TaskList.this.get(index);
+        }
+
+        @Override
+        public int size() {
+            return TaskList.this.size();
+        }
+
+        @Override
+        public void add(int index, Task t) {
+            if (index != size()) {
+                throw new UnsupportedOperationException("Tasks can only be added at the end");
+            }
+            TaskList.this.add(t);
+        }
+
+        @Override
+        public Task remove(int index) {
+            return TaskList.this.remove(index);
+        }
+
+        @Override
+        public Iterator<Task> iterator() {
+            return snapshot().iterator();
         }
-        return res;
     }
 
 }
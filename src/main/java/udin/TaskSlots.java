@@ -0,0 +1,520 @@
+package udin;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+
+/**
+ * The ordered storage behind {@link TaskList}: an array of slots, a Fenwick tree counting the live
+ * slots, and the ID of the task in each slot.
+ * <p>
+ * Deleting a task only leaves a tombstone in its slot, so no later task moves. The Fenwick tree
+ * turns a display position into a slot (and back) in O(log n), which makes positional
+ * {@code get}, {@code remove}, {@code mark} and {@code unmark} O(log n) instead of O(n).
+ * Tombstones are squeezed out once they outnumber the live tasks, which keeps the amortized cost
+ * of a delete logarithmic.
+ * <p>
+ * Every added task gets the next ID, starting from 1. IDs never change and are never reused
+ * while the list exists, so a task can be addressed by ID even after earlier tasks are deleted.
+ * A hash map from ID to slot finds a live task by ID in O(1). Slots are filled in ID order and
+ * compaction keeps that order, so a binary search over the slot IDs finds where a deleted task
+ * was, and {@link #restore(Task)} can put it back in its place.
+ * <p>
+ * This class keeps the {@link Task} objects themselves. Subclasses may keep the slots in another
+ * form by overriding the protected slot methods, as {@link ColumnarTaskSlots} does.
+ */
+public class TaskSlots implements Iterable<Task> {
+    protected static final int MIN_CAPACITY = 16;
+
+    /**
+     * The tasks by slot; unused by subclasses that override the slot methods.
+     */
+    private Task[] slots;
+
+    /**
+     * Task IDs by slot, sorted; a tombstone keeps the ID of the task that was removed from it.
+     */
+    private int[] ids = new int[0];
+
+    /**
+     * Fenwick tree over the slots: {@code tree[i]} counts the live slots in a range ending at slot {@code i - 1}.
+     */
+    private int[] tree = new int[1];
+
+    /**
+     * The slot of each live task by ID, or {@code null} if tasks are found by binary search over {@link #ids}.
+     */
+    private final Map<Integer, Integer> slotById;
+
+    private int capacity;
+    private int usedSlots;
+    private int size;
+    private int nextId = 1;
+
+    /**
+     * Changes whenever slots are added, removed or moved, so iterators can detect concurrent changes.
+     */
+    private int structureVersion;
+
+    /**
+     * Constructs an empty store that finds tasks by ID in O(1).
+     */
+    public TaskSlots() {
+        this(true);
+    }
+
+    /**
+     * Constructs an empty store.
+     *
+     * @param mapsIds true to find tasks by ID through a hash map in O(1); false to binary-search
+     *     the slot IDs in O(log n) instead, saving the map's 50 or so bytes per task
+     */
+    protected TaskSlots(boolean mapsIds) {
+        slotById = mapsIds ? new HashMap<>() : null;
+    }
+
+    /**
+     * Returns the number of live tasks.
+     *
+     * @return the task count
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Appends a task and gives it the next ID.
+     *
+     * @param t the task to append
+     * @return the ID assigned to the task
+     */
+    public int add(Task t) {
+        makeRoom();
+        int slot = usedSlots;
+        int id = nextId;
+        store(slot, t, id);
+        ids[slot] = id;
+        if (slotById != null) {
+            slotById.put(id, slot);
+        }
+        usedSlots++;
+        nextId++;
+        update(slot, 1);
+        size++;
+        structureVersion++;
+        return id;
+    }
+
+    /**
+     * Puts a removed task back under its old ID, at the position its ID gives it among the live tasks.
+     * <p>
+     * If the task's tombstone has not been compacted away, this takes O(log n), like an add;
+     * otherwise the later slots are moved up by one to make room, in O(n).
+     *
+     * @param t a task removed from this list, still carrying its ID
+     * @throws IllegalArgumentException if no task with that ID was ever added, or one is in the list now
+     */
+    public void restore(Task t) {
+        int id = t.getId();
+        if (id <= 0 || id >= nextId) {
+            throw new IllegalArgumentException("Task " + id + " was never in this list");
+        }
+        int slot = Arrays.binarySearch(ids, 0, usedSlots, id);
+        if (slot >= 0 && isLive(slot)) {
+            throw new IllegalArgumentException("Task " + id + " is already in this list");
+        }
+        boolean moved = slot < 0;
+        if (moved) {
+            makeRoom();
+            slot = -Arrays.binarySearch(ids, 0, usedSlots, id) - 1;
+            moveSlots(slot, usedSlots - slot);
+            System.arraycopy(ids, slot, ids, slot + 1, usedSlots - slot);
+            usedSlots++;
+        }
+        store(slot, t, id);
+        ids[slot] = id;
+        size++;
+        structureVersion++;
+        if (moved) {
+            mapSlots(slot);
+            rebuildTree();
+        } else {
+            update(slot, 1);
+            if (slotById != null) {
+                slotById.put(id, slot);
+            }
+        }
+    }
+
+    /**
+     * Returns the task at a zero-based display position.
+     *
+     * @param position the position of the task
+     * @return the task
+     * @throws IndexOutOfBoundsException if the position is out of range
+     */
+    public Task get(int position) {
+        return load(slotAt(position));
+    }
+
+    /**
+     * Removes and returns the task at a zero-based display position.
+     *
+     * @param position the position of the task
+     * @return the removed task
+     * @throws IndexOutOfBoundsException if the position is out of range
+     */
+    public Task remove(int position) {
+        int slot = slotAt(position);
+        Task removed = load(slot);
+        bury(slot);
+        if (size < usedSlots / 2 && usedSlots > MIN_CAPACITY) {
+            compact();
+        }
+        return removed;
+    }
+
+    /**
+     * Removes every task that satisfies a condition in a single pass, testing each live task once, in order.
+     *
+     * @param condition the condition a task must satisfy to be removed
+     * @return the removed tasks, in their former order
+     */
+    public List<Task> removeMatching(Predicate<Task> condition) {
+        List<Task> removed = new ArrayList<>();
+        for (int slot = 0; slot < usedSlots; slot++) {
+            if (isLive(slot)) {
+                Task t = load(slot);
+                if (condition.test(t)) {
+                    removed.add(t);
+                    bury(slot);
+                }
+            }
+        }
+        if (size < usedSlots / 2 && usedSlots > MIN_CAPACITY) {
+            compact();
+        }
+        return removed;
+    }
+
+    /**
+     * Returns the task with the given ID, or {@code null} if there is none.
+     *
+     * @param id the task ID
+     * @return the task, or {@code null}
+     */
+    public Task getById(int id) {
+        int slot = slotOf(id);
+        return slot < 0 ? null : load(slot);
+    }
+
+    /**
+     * Returns the zero-based display position of the task with the given ID, or -1 if there is none.
+     *
+     * @param id the task ID
+     * @return the position, or -1
+     */
+    public int positionOf(int id) {
+        int slot = slotOf(id);
+        return slot < 0 ? -1 : prefixCount(slot) - 1;
+    }
+
+    /**
+     * Returns an unmodifiable copy of the live tasks, in order.
+     *
+     * @return the tasks
+     */
+    public List<Task> copyTasks() {
+        List<Task> copy = new ArrayList<>(size);
+        for (Task t : this) {
+            copy.add(t);
+        }
+        return Collections.unmodifiableList(copy);
+    }
+
+    /**
+     * Returns whether {@link #get(int)} hands out the stored tasks themselves, so that marking a
+     * task shows through every list holding it, including a {@link #copyTasks()} taken earlier.
+     *
+     * @return true for this class; false for subclasses that hand out detached views
+     */
+    public boolean sharesTasks() {
+        return true;
+    }
+
+    /**
+     * Iterates over the live tasks in order, skipping tombstones.
+     *
+     * @return an iterator over the tasks
+     */
+    @Override
+    public Iterator<Task> iterator() {
+        return new Iterator<>() {
+            private final int expectedVersion = structureVersion;
+            private int slot = nextLive(0);
+
+            @Override
+            public boolean hasNext() {
+                return slot < usedSlots;
+            }
+
+            @Override
+            public Task next() {
+                if (expectedVersion != structureVersion) {
+                    throw new ConcurrentModificationException();
+                }
+                if (slot >= usedSlots) {
+                    throw new NoSuchElementException();
+                }
+                Task t = load(slot);
+                slot = nextLive(slot + 1);
+                return t;
+            }
+        };
+    }
+
+    /**
+     * Returns the number of slots in use, live or not; slots from here to the capacity are empty.
+     *
+     * @return the used slot count
+     */
+    protected int usedSlots() {
+        return usedSlots;
+    }
+
+    /**
+     * Resizes the slot storage to hold {@code capacity} slots, keeping the used ones.
+     *
+     * @param capacity the new capacity, never less than {@link #usedSlots()}
+     */
+    protected void resize(int capacity) {
+        slots = slots == null ? new Task[capacity] : Arrays.copyOf(slots, capacity);
+    }
+
+    /**
+     * Stores a task in an empty slot, or over a tombstone, and gives it its ID.
+     *
+     * @param slot the slot to fill
+     * @param t the task
+     * @param id the ID assigned to the task
+     */
+    protected void store(int slot, Task t, int id) {
+        slots[slot] = t;
+        t.setId(id);
+    }
+
+    /**
+     * Moves {@code count} used slots starting at {@code from} up by one, leaving slot {@code from}
+     * to be overwritten by {@link #store(int, Task, int)}. There is room for the extra slot.
+     *
+     * @param from the first slot to move
+     * @param count the number of slots to move
+     */
+    protected void moveSlots(int from, int count) {
+        System.arraycopy(slots, from, slots, from + 1, count);
+    }
+
+    /**
+     * Returns the task in a live slot.
+     *
+     * @param slot the slot
+     * @return the task
+     */
+    protected Task load(int slot) {
+        return slots[slot];
+    }
+
+    /**
+     * Returns whether a used slot holds a task rather than a tombstone.
+     *
+     * @param slot the slot
+     * @return true if the slot is live
+     */
+    protected boolean isLive(int slot) {
+        return slots[slot] != null;
+    }
+
+    /**
+     * Turns a live slot into a tombstone.
+     *
+     * @param slot the slot
+     */
+    protected void clear(int slot) {
+        slots[slot] = null;
+    }
+
+    /**
+     * Returns the live slot holding the task with the given ID, or -1 if there is none.
+     *
+     * @param id the task ID
+     * @return the slot, or -1
+     */
+    protected int slotOf(int id) {
+        if (slotById != null) {
+            Integer slot = slotById.get(id);
+            return slot == null ? -1 : slot;
+        }
+        int slot = Arrays.binarySearch(ids, 0, usedSlots, id);
+        return slot >= 0 && isLive(slot) ? slot : -1;
+    }
+
+    /**
+     * Returns the ID of the task in a used slot, or of the task last removed from it.
+     *
+     * @param slot the slot
+     * @return the task ID
+     */
+    protected int idAt(int slot) {
+        return ids[slot];
+    }
+
+    /**
+     * Moves the live tasks among the first {@code usedSlots} slots to the front, in order, dropping tombstones.
+     *
+     * @param usedSlots the number of used slots
+     * @return the number of live tasks, which now fill the slots from 0
+     */
+    protected int compactSlots(int usedSlots) {
+        int live = 0;
+        for (int slot = 0; slot < usedSlots; slot++) {
+            Task t = slots[slot];
+            if (t != null) {
+                slots[live] = t;
+                live++;
+            }
+        }
+        Arrays.fill(slots, live, usedSlots, null);
+        return live;
+    }
+
+    /**
+     * Makes sure there is an empty slot past the used ones, compacting or growing the storage.
+     */
+    private void makeRoom() {
+        if (usedSlots < capacity) {
+            return;
+        }
+        if (size < capacity / 2) {
+            compact();
+        } else {
+            capacity = Math.max(MIN_CAPACITY, capacity * 2);
+            resize(capacity);
+            ids = Arrays.copyOf(ids, capacity);
+            rebuildTree();
+        }
+    }
+
+    private int nextLive(int from) {
+        while (from < usedSlots && !isLive(from)) {
+            from++;
+        }
+        return from;
+    }
+
+    private void bury(int slot) {
+        if (slotById != null) {
+            slotById.remove(ids[slot]);
+        }
+        clear(slot);
+        update(slot, -1);
+        size--;
+        structureVersion++;
+    }
+
+    /**
+     * Finds the slot holding the live task at {@code position} by descending the Fenwick tree.
+     */
+    private int slotAt(int position) {
+        if (position < 0 || position >= size) {
+            throw new IndexOutOfBoundsException("Index " + position + " out of bounds for length " + size);
+        }
+        int remaining = position + 1;
+        int node = 0;
+        for (int step = Integer.highestOneBit(capacity); step > 0; step >>= 1) {
+            int next = node + step;
+            if (next <= capacity && tree[next] < remaining) {
+                node = next;
+                remaining -= tree[next];
+            }
+        }
+        return node;
+    }
+
+    /**
+     * Returns the number of live slots in {@code [0, slot]}.
+     */
+    private int prefixCount(int slot) {
+        int count = 0;
+        for (int i = slot + 1; i > 0; i -= i & -i) {
+            count += tree[i];
+        }
+        return count;
+    }
+
+    private void update(int slot, int delta) {
+        for (int i = slot + 1; i <= capacity; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    /**
+     * Moves the live tasks to the front of the slots, dropping tombstones, and shrinks the storage if it is mostly empty.
+     */
+    private void compact() {
+        int liveIds = 0;
+        for (int slot = 0; slot < usedSlots; slot++) {
+            if (isLive(slot)) {
+                ids[liveIds++] = ids[slot];
+            }
+        }
+        int live = compactSlots(usedSlots);
+        assert live == liveIds : "Compaction must keep every live slot";
+        usedSlots = live;
+        mapSlots(0);
+        int shrunk = Math.max(MIN_CAPACITY, Integer.highestOneBit(Math.max(1, live)) * 2);
+        if (shrunk < capacity / 2) {
+            capacity = shrunk;
+            resize(capacity);
+            ids = Arrays.copyOf(ids, capacity);
+        }
+        rebuildTree();
+        structureVersion++;
+    }
+
+    /**
+     * Records the slots of the live tasks from {@code from} on, after they have moved.
+     */
+    private void mapSlots(int from) {
+        if (slotById == null) {
+            return;
+        }
+        for (int slot = from; slot < usedSlots; slot++) {
+            if (isLive(slot)) {
+                slotById.put(ids[slot], slot);
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the Fenwick tree from the slots in O(n).
+     */
+    private void rebuildTree() {
+        tree = new int[capacity + 1];
+        for (int i = 1; i <= capacity; i++) {
+            if (i <= usedSlots && isLive(i - 1)) {
+                tree[i]++;
+            }
+            int parent = i + (i & -i);
+            if (parent <= capacity) {
+                tree[parent] += tree[i];
+            }
+        }
+    }
+}
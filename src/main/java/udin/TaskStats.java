@@ -0,0 +1,126 @@
+package udin;
+
+/**
+ * Counts of the tasks in a {@link TaskList} at one moment, by type and status, with the pending
+ * deadlines sorted into due-date buckets.
+ * <p>
+ * Returned by {@link TaskList#getStats()}, which reads counters the list keeps up to date as it
+ * changes, so polling does not scan the tasks.
+ */
+public class TaskStats {
+    private final int[][] counts;
+    private final int overdue;
+    private final int dueToday;
+    private final int dueThisWeek;
+    private final int dueLater;
+
+    /**
+     * Constructs the stats.
+     *
+     * @param counts task counts indexed by {@link TaskCounters#TODO}, {@link TaskCounters#DEADLINE} or
+     *     {@link TaskCounters#EVENT}, then by 1 for done and 0 for pending; copied
+     * @param overdue pending deadlines due before now
+     * @param dueToday pending deadlines due from now to the end of today
+     * @param dueThisWeek pending deadlines due after today and within seven days from now
+     * @param dueLater pending deadlines due after that
+     */
+    public TaskStats(int[][] counts, int overdue, int dueToday, int dueThisWeek, int dueLater) {
+        this.counts = new int[][]{counts[0].clone(), counts[1].clone(), counts[2].clone()};
+        this.overdue = overdue;
+        this.dueToday = dueToday;
+        this.dueThisWeek = dueThisWeek;
+        this.dueLater = dueLater;
+    }
+
+    /**
+     * Returns the number of tasks.
+     *
+     * @return the task count
+     */
+    public int getTotal() {
+        return getDone() + getPending();
+    }
+
+    /**
+     * Returns the number of tasks marked as done.
+     *
+     * @return the done count
+     */
+    public int getDone() {
+        return counts[TaskCounters.TODO][1] + counts[TaskCounters.DEADLINE][1] + counts[TaskCounters.EVENT][1];
+    }
+
+    /**
+     * Returns the number of tasks not marked as done.
+     *
+     * @return the pending count
+     */
+    public int getPending() {
+        return counts[TaskCounters.TODO][0] + counts[TaskCounters.DEADLINE][0] + counts[TaskCounters.EVENT][0];
+    }
+
+    /**
+     * Returns the number of tasks of one type and status.
+     *
+     * @param type {@link TaskCounters#TODO}, {@link TaskCounters#DEADLINE} or {@link TaskCounters#EVENT}
+     * @param isDone whether to count done tasks rather than pending ones
+     * @return the count
+     */
+    public int getCount(int type, boolean isDone) {
+        return counts[type][isDone ? 1 : 0];
+    }
+
+    /**
+     * Returns the number of pending deadlines due before now.
+     *
+     * @return the overdue count
+     */
+    public int getOverdue() {
+        return overdue;
+    }
+
+    /**
+     * Returns the number of pending deadlines due from now until the end of today.
+     *
+     * @return the count due today
+     */
+    public int getDueToday() {
+        return dueToday;
+    }
+
+    /**
+     * Returns the number of pending deadlines due after today and no more than seven days from now.
+     *
+     * @return the count due this week
+     */
+    public int getDueThisWeek() {
+        return dueThisWeek;
+    }
+
+    /**
+     * Returns the number of pending deadlines due more than seven days from now.
+     *
+     * @return the count due later
+     */
+    public int getDueLater() {
+        return dueLater;
+    }
+
+    /**
+     * Describes the counts for the {@code stats} command.
+     *
+     * @return the summary
+     */
+    public String summary() {
+        return "Tasks: " + line(getDone(), getPending()) + "\n"
+                + "- To-dos: " + line(counts[TaskCounters.TODO][1], counts[TaskCounters.TODO][0]) + "\n"
+                + "- Deadlines: " + line(counts[TaskCounters.DEADLINE][1], counts[TaskCounters.DEADLINE][0]) + "\n"
+                + "- Events: " + line(counts[TaskCounters.EVENT][1], counts[TaskCounters.EVENT][0]) + "\n"
+                + "Pending deadlines: " + overdue + " overdue, " + dueToday + " due today, "
+                + dueThisWeek + " due this week, " + dueLater + " due later";
+    }
+
+    private static String line(int done, int pending) {
+        return (done + pending) + " (" + done + " done, " + pending + " pending)";
+    }
+}
@@ -0,0 +1,94 @@
+package udin;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * A persistence backend for the task list.
+ * <p>
+ * {@link Parser} only talks to this interface, so backends can be swapped without touching
+ * command code. {@link Storage} and its subclasses persist to disk in various formats,
+ * {@link InMemoryStorage} keeps everything in memory for tests and benchmarks, and
+ * {@link AsyncStorage} moves the writes of another backend onto a background thread.
+ * <p>
+ * After each command, {@code Parser} calls the hook describing the change. The hooks default
+ * to a full {@link #save(List)}; backends that can record a single change more cheaply override them.
+ */
+public interface TaskStorage {
+    /**
+     * Loads all saved tasks.
+     *
+     * @return the tasks in order
+     * @throws Exception if the saved tasks cannot be read or are malformed
+     */
+    List<Task> load() throws Exception;
+
+    /**
+     * Loads all saved tasks, skipping and reporting malformed entries where the backend can.
+     *
+     * @return the loaded tasks and any problems found
+     * @throws Exception if the saved tasks cannot be read at all
+     */
+    default LoadReport loadReport() throws Exception {
+        return new LoadReport(load());
+    }
+
+    /**
+     * Replaces the saved tasks with {@code tasks}.
+     *
+     * @param tasks the list of tasks to save
+     * @throws IOException if writing fails
+     */
+    void save(List<Task> tasks) throws IOException;
+
+    /**
+     * Persists the list after {@code added} was appended to it.
+     *
+     * @param tasks the list of all tasks after the change
+     * @param added the task that was appended
+     * @throws IOException if writing fails
+     */
+    default void saveAdded(List<Task> tasks, Task added) throws IOException {
+        save(tasks);
+    }
+
+    /**
+     * Persists the list after the task at {@code index} was marked as done.
+     *
+     * @param tasks the list of all tasks after the change
+     * @param index the zero-based index of the marked task
+     * @throws IOException if writing fails
+     */
+    default void saveMarked(List<Task> tasks, int index) throws IOException {
+        save(tasks);
+    }
+
+    /**
+     * Persists the list after the task at {@code index} was marked as not done.
+     *
+     * @param tasks the list of all tasks after the change
+     * @param index the zero-based index of the unmarked task
+     * @throws IOException if writing fails
+     */
+    default void saveUnmarked(List<Task> tasks, int index) throws IOException {
+        save(tasks);
+    }
+
+    /**
+     * Persists the list after the task previously at {@code index} was removed.
+     *
+     * @param tasks the list of all tasks after the change
+     * @param index the zero-based index the removed task used to occupy
+     * @throws IOException if writing fails
+     */
+    default void saveRemoved(List<Task> tasks, int index) throws IOException {
+        save(tasks);
+    }
+
+    /**
+     * Returns the archive that completed tasks are moved to.
+     *
+     * @return the task archive
+     */
+    TaskArchive getArchive();
+}
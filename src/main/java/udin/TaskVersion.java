@@ -0,0 +1,250 @@
+package udin;
+
+/**
+ * One version of the contents of a {@link TaskList}, as kept by {@link TaskHistory} for undo and
+ * redo: an immutable map from task ID to the task and whether it was done.
+ * <p>
+ * The map is a persistent 32-way trie indexed by ID. Changing a task copies only the nodes on the
+ * path to its leaf, about four for a million tasks, and shares every other node with the version it
+ * was made from, so a version costs O(log n) time and a few hundred bytes however long the list is.
+ * {@link #diff(TaskVersion, Difference)} only descends into nodes the two versions do not share,
+ * so finding what a command changed costs O(k log n) for the k tasks it touched. Putting those
+ * tasks back is up to the list, and can cost more; see {@link TaskList#undo()}.
+ * <p>
+ * A task's fields other than its done flag never change, which is why a version can hold the task
+ * itself and keep the flag beside it.
+ */
+public final class TaskVersion {
+    /**
+     * The version with no tasks.
+     */
+    public static final TaskVersion EMPTY = new TaskVersion(null, 0);
+
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+
+    /**
+     * Receives the tasks that differ between two versions.
+     */
+    @FunctionalInterface
+    public interface Difference {
+        /**
+         * Called once for each ID whose task or done flag differs, in increasing ID order.
+         *
+         * @param id the task ID
+         * @param before the task in this version, or {@code null} if it has none with this ID
+         * @param wasDone whether it was done in this version
+         * @param after the task in the other version, or {@code null} if it has none with this ID
+         * @param isDone whether it is done in the other version
+         */
+        void changed(int id, Task before, boolean wasDone, Task after, boolean isDone);
+    }
+
+    /**
+     * A trie node: child nodes in a branch, tasks in a leaf. Never changed once a version holding it
+     * has been returned; {@link #of(Iterable)} fills fresh nodes in place, which is why {@code doneBits} is not final.
+     */
+    private static final class Node {
+        private final Object[] slots;
+
+        /**
+         * In a leaf, bit {@code i} is set if the task in slot {@code i} is done.
+         */
+        private int doneBits;
+
+        Node(Object[] slots, int doneBits) {
+            this.slots = slots;
+            this.doneBits = doneBits;
+        }
+    }
+
+    private final Node root;
+
+    /**
+     * The number of ID bits below the root: 0 if the root is a leaf. The trie holds IDs below {@code 1 << (shift + BITS)}.
+     */
+    private final int shift;
+
+    private TaskVersion(Node root, int shift) {
+        this.root = root;
+        this.shift = shift;
+    }
+
+    /**
+     * Returns the version holding {@code tasks}, each with its current done flag, in O(n).
+     *
+     * @param tasks the tasks, each with its ID set
+     * @return the version
+     */
+    public static TaskVersion of(Iterable<Task> tasks) {
+        int maxId = 0;
+        for (Task t : tasks) {
+            maxId = Math.max(maxId, t.getId());
+        }
+        int shift = shiftFor(maxId);
+        Node root = new Node(new Object[WIDTH], 0);
+        for (Task t : tasks) {
+            int id = t.getId();
+            Node node = root;
+            for (int level = shift; level > 0; level -= BITS) {
+                int i = (id >>> level) & MASK;
+                if (node.slots[i] == null) {
+                    node.slots[i] = new Node(new Object[WIDTH], 0);
+                }
+                node = (Node) node.slots[i];
+            }
+            int i = id & MASK;
+            node.slots[i] = t;
+            if (t.isDone) {
+                node.doneBits |= 1 << i;
+            }
+        }
+        return new TaskVersion(root, shift);
+    }
+
+    /**
+     * Returns this version with {@code t} stored under its ID with its current done flag.
+     *
+     * @param t the task
+     * @return the new version, or this one if it already holds {@code t} in that state
+     */
+    public TaskVersion with(Task t) {
+        return set(t.getId(), t, t.isDone);
+    }
+
+    /**
+     * Returns this version without the task with the given ID.
+     *
+     * @param id the task ID
+     * @return the new version, or this one if it has no such task
+     */
+    public TaskVersion without(int id) {
+        if (shiftFor(id) > shift) {
+            return this;
+        }
+        return set(id, null, false);
+    }
+
+    /**
+     * Returns the task with the given ID, or {@code null} if there is none.
+     *
+     * @param id the task ID
+     * @return the task, or {@code null}
+     */
+    public Task get(int id) {
+        Node leaf = leafOf(id);
+        return leaf == null ? null : (Task) leaf.slots[id & MASK];
+    }
+
+    /**
+     * Returns whether the task with the given ID is done in this version.
+     *
+     * @param id the task ID
+     * @return true if there is such a task and it is done
+     */
+    public boolean isDone(int id) {
+        Node leaf = leafOf(id);
+        return leaf != null && (leaf.doneBits >>> (id & MASK) & 1) != 0;
+    }
+
+    /**
+     * Reports every ID whose task or done flag differs between this version and {@code other}.
+     *
+     * @param other the version to compare with
+     * @param out receives the differences, as changes from this version to {@code other}
+     */
+    public void diff(TaskVersion other, Difference out) {
+        int level = Math.max(shift, other.shift);
+        diff(rootAt(level), other.rootAt(level), level, 0, out);
+    }
+
+    private static void diff(Node a, Node b, int level, int firstId, Difference out) {
+        if (a == b) {
+            return;
+        }
+        for (int i = 0; i < WIDTH; i++) {
+            Object before = a == null ? null : a.slots[i];
+            Object after = b == null ? null : b.slots[i];
+            if (level > 0) {
+                diff((Node) before, (Node) after, level - BITS, firstId + (i << level), out);
+                continue;
+            }
+            boolean wasDone = a != null && (a.doneBits >>> i & 1) != 0;
+            boolean isDone = b != null && (b.doneBits >>> i & 1) != 0;
+            if (before != after || (before != null && wasDone != isDone)) {
+                out.changed(firstId + i, (Task) before, wasDone, (Task) after, isDone);
+            }
+        }
+    }
+
+    private TaskVersion set(int id, Task t, boolean isDone) {
+        int level = Math.max(shift, shiftFor(id));
+        Node grown = rootAt(level);
+        Node updated = set(grown, level, id, t, isDone);
+        return updated == grown ? this : new TaskVersion(updated, level);
+    }
+
+    /**
+     * Returns {@code node} with the task for {@code id} replaced, copying the nodes on its path,
+     * or {@code node} itself if nothing changes.
+     */
+    private static Node set(Node node, int level, int id, Task t, boolean isDone) {
+        int i = (id >>> level) & MASK;
+        if (level == 0) {
+            Object old = node == null ? null : node.slots[i];
+            int doneBits = node == null ? 0 : node.doneBits;
+            boolean wasDone = (doneBits >>> i & 1) != 0;
+            if (old == t && wasDone == isDone) {
+                return node;
+            }
+            Object[] slots = node == null ? new Object[WIDTH] : node.slots.clone();
+            slots[i] = t;
+            return new Node(slots, isDone ? doneBits | 1 << i : doneBits & ~(1 << i));
+        }
+        Node child = node == null ? null : (Node) node.slots[i];
+        Node updated = set(child, level - BITS, id, t, isDone);
+        if (updated == child) {
+            return node;
+        }
+        Object[] slots = node == null ? new Object[WIDTH] : node.slots.clone();
+        slots[i] = updated;
+        return new Node(slots, 0);
+    }
+
+    private Node leafOf(int id) {
+        if (shiftFor(id) > shift) {
+            return null;
+        }
+        Node node = root;
+        for (int level = shift; node != null && level > 0; level -= BITS) {
+            node = (Node) node.slots[(id >>> level) & MASK];
+        }
+        return node;
+    }
+
+    /**
+     * Returns the root as seen from a trie of {@code level}, which is at least {@link #shift}:
+     * the same root, under as many new first-child branches as the extra levels need.
+     */
+    private Node rootAt(int level) {
+        Node node = root;
+        for (int s = shift; s < level && node != null; s += BITS) {
+            Object[] slots = new Object[WIDTH];
+            slots[0] = node;
+            node = new Node(slots, 0);
+        }
+        return node;
+    }
+
+    /**
+     * Returns the smallest root shift whose trie can hold {@code id}.
+     */
+    private static int shiftFor(int id) {
+        int shift = 0;
+        while ((id >>> shift >>> BITS) != 0) {
+            shift += BITS;
+        }
+        return shift;
+    }
+}
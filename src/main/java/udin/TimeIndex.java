@@ -0,0 +1,388 @@
+package udin;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.function.IntFunction;
+
+/**
+ * Orders deadlines and events by time so that date range queries do not scan the whole list.
+ * <p>
+ * Deadlines sit in {@link TreeMap}s keyed by due minute, so the deadlines in a range are found in
+ * O(log n + k). Pending and done deadlines are kept in separate maps, and the list moves a deadline
+ * between them through {@link #statusChanged(Task)} when it is marked or unmarked, so asking what
+ * is still due never walks past the finished ones. Events sit in an interval tree: a treap ordered by start time in which every node
+ * also records the latest end time below it, so whole subtrees that end before a query starts are
+ * skipped. Times are kept as minutes since the epoch.
+ * <p>
+ * To-dos carry no date and are only counted. A task whose lazily loaded date turns out to be
+ * malformed is counted but left out of the index.
+ * <p>
+ * Like {@link TokenIndex}, the index holds stable task IDs and looks results up through a resolver.
+ */
+public class TimeIndex {
+    private final TreeMap<Long, List<Integer>> pendingDeadlines = new TreeMap<>();
+    private final TreeMap<Long, List<Integer>> doneDeadlines = new TreeMap<>();
+    private final Map<Integer, Node> eventNodes = new HashMap<>();
+    private final Map<Integer, Long> deadlineKeys = new HashMap<>();
+    private final Random random = new Random();
+    private final IntFunction<Task> taskOf;
+    private Node eventRoot;
+    private int size;
+
+    /**
+     * Constructs an empty index.
+     *
+     * @param taskOf looks up an indexed task by its ID
+     */
+    public TimeIndex(IntFunction<Task> taskOf) {
+        this.taskOf = taskOf;
+    }
+
+    /**
+     * A node of the event treap, ordered by start time and then by task ID.
+     */
+    private static class Node {
+        private final long from;
+        private final long to;
+        private final int id;
+        private final int priority;
+        private long maxTo;
+        private Node left;
+        private Node right;
+
+        Node(long from, long to, int id, int priority) {
+            this.from = from;
+            this.to = to;
+            this.id = id;
+            this.priority = priority;
+            this.maxTo = to;
+        }
+
+        boolean isBefore(Node other) {
+            return from < other.from || (from == other.from && id < other.id);
+        }
+
+        void update() {
+            maxTo = to;
+            if (left != null && left.maxTo > maxTo) {
+                maxTo = left.maxTo;
+            }
+            if (right != null && right.maxTo > maxTo) {
+                maxTo = right.maxTo;
+            }
+        }
+    }
+
+    /**
+     * Converts a date to minutes since the epoch.
+     *
+     * @param time the date
+     * @return the minute it falls in
+     */
+    static long minuteOf(LocalDateTime time) {
+        return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    /**
+     * Returns the number of tasks added and not yet removed, including undated ones.
+     *
+     * @return the task count
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Adds a task to the index.
+     *
+     * @param t the task to add
+     */
+    public void add(Task t) {
+        size++;
+        int id = t.getId();
+        try {
+            if (t instanceof Deadline) {
+                long key = minuteOf(((Deadline) t).getDeadline());
+                addAt(t.isDone ? doneDeadlines : pendingDeadlines, key, id);
+                deadlineKeys.put(id, key);
+            } else if (t instanceof Event) {
+                Event e = (Event) t;
+                Node node = new Node(minuteOf(e.getFrom()), minuteOf(e.getTo()), id, random.nextInt());
+                eventRoot = insert(eventRoot, node);
+                eventNodes.put(id, node);
+            }
+        } catch (DateTimeParseException e) {
+            // Reported by the load-time validation pass; such a task simply never matches a date query.
+        }
+    }
+
+    /**
+     * Removes a task from the index.
+     *
+     * @param t the task to remove
+     */
+    public void remove(Task t) {
+        size--;
+        int id = t.getId();
+        Long key = deadlineKeys.remove(id);
+        if (key != null && !removeAt(pendingDeadlines, key, id)) {
+            removeAt(doneDeadlines, key, id);
+        }
+        Node node = eventNodes.remove(id);
+        if (node != null) {
+            eventRoot = delete(eventRoot, node);
+        }
+    }
+
+    /**
+     * Moves a deadline between the pending and done maps after it was marked or unmarked.
+     *
+     * @param t the task whose done state changed
+     */
+    public void statusChanged(Task t) {
+        Long key = deadlineKeys.get(t.getId());
+        if (key == null) {
+            return;
+        }
+        TreeMap<Long, List<Integer>> from = t.isDone ? pendingDeadlines : doneDeadlines;
+        if (removeAt(from, key, t.getId())) {
+            addAt(t.isDone ? doneDeadlines : pendingDeadlines, key, t.getId());
+        }
+    }
+
+    private static void addAt(TreeMap<Long, List<Integer>> map, long key, int id) {
+        map.computeIfAbsent(key, k -> new ArrayList<>(1)).add(id);
+    }
+
+    /**
+     * Removes {@code id} from the bucket at {@code key}, returning false if it was not there.
+     */
+    private static boolean removeAt(TreeMap<Long, List<Integer>> map, long key, int id) {
+        List<Integer> atKey = map.get(key);
+        if (atKey == null || !atKey.remove(Integer.valueOf(id))) {
+            return false;
+        }
+        if (atKey.isEmpty()) {
+            map.remove(key);
+        }
+        return true;
+    }
+
+    /**
+     * Discards the index and indexes {@code tasks} afresh.
+     *
+     * @param tasks the tasks to index
+     */
+    public void rebuild(List<Task> tasks) {
+        pendingDeadlines.clear();
+        doneDeadlines.clear();
+        deadlineKeys.clear();
+        eventNodes.clear();
+        eventRoot = null;
+        size = 0;
+        for (Task t : tasks) {
+            add(t);
+        }
+    }
+
+    /**
+     * Returns the deadlines due within {@code [from, to]}, earliest first.
+     *
+     * @param from the start of the range
+     * @param to the end of the range, inclusive
+     * @return the matching deadlines
+     */
+    public List<Task> deadlinesBetween(LocalDateTime from, LocalDateTime to) {
+        return resolve(deadlineIdsBetween(from, to));
+    }
+
+    /**
+     * Returns the pending deadlines due at or before {@code to}, earliest first. Done deadlines are
+     * not visited, so this costs O(log n + k) for k results.
+     *
+     * @param to the latest due time, inclusive
+     * @return the matching deadlines
+     */
+    public List<Task> pendingDeadlinesUntil(LocalDateTime to) {
+        List<Integer> ids = new ArrayList<>();
+        for (List<Integer> atMinute : pendingDeadlines.headMap(minuteOf(to), true).values()) {
+            ids.addAll(atMinute);
+        }
+        return resolve(ids);
+    }
+
+    /**
+     * Returns the events that overlap {@code [from, to]}, ordered by start time.
+     *
+     * @param from the start of the range
+     * @param to the end of the range, inclusive
+     * @return the matching events
+     */
+    public List<Task> eventsBetween(LocalDateTime from, LocalDateTime to) {
+        return resolve(eventIdsBetween(from, to));
+    }
+
+    /**
+     * Returns the deadlines and events within {@code [from, to]}, ordered by their (start) time.
+     *
+     * @param from the start of the range
+     * @param to the end of the range, inclusive
+     * @return the matching tasks
+     */
+    public List<Task> between(LocalDateTime from, LocalDateTime to) {
+        return resolve(mergeByTime(deadlineIdsBetween(from, to), eventIdsBetween(from, to)));
+    }
+
+    /**
+     * Merges the pending and done deadlines within the range by due minute.
+     */
+    private List<Integer> deadlineIdsBetween(LocalDateTime from, LocalDateTime to) {
+        long start = minuteOf(from);
+        long end = minuteOf(to);
+        Iterator<Map.Entry<Long, List<Integer>>> pending =
+                pendingDeadlines.subMap(start, true, end, true).entrySet().iterator();
+        Iterator<Map.Entry<Long, List<Integer>>> done =
+                doneDeadlines.subMap(start, true, end, true).entrySet().iterator();
+        Map.Entry<Long, List<Integer>> p = pending.hasNext() ? pending.next() : null;
+        Map.Entry<Long, List<Integer>> d = done.hasNext() ? done.next() : null;
+        List<Integer> ids = new ArrayList<>();
+        while (p != null || d != null) {
+            if (d == null || (p != null && p.getKey() <= d.getKey())) {
+                ids.addAll(p.getValue());
+                p = pending.hasNext() ? pending.next() : null;
+            } else {
+                ids.addAll(d.getValue());
+                d = done.hasNext() ? done.next() : null;
+            }
+        }
+        return ids;
+    }
+
+    private List<Integer> eventIdsBetween(LocalDateTime from, LocalDateTime to) {
+        List<Integer> ids = new ArrayList<>();
+        collectOverlapping(eventRoot, minuteOf(from), minuteOf(to), ids);
+        return ids;
+    }
+
+    private List<Task> resolve(List<Integer> ids) {
+        List<Task> results = new ArrayList<>(ids.size());
+        for (int id : ids) {
+            results.add(taskOf.apply(id));
+        }
+        return results;
+    }
+
+    /**
+     * In-order walk that prunes subtrees ending before {@code from} and right subtrees starting after {@code to}.
+     */
+    private static void collectOverlapping(Node node, long from, long to, Collection<Integer> out) {
+        if (node == null || node.maxTo < from) {
+            return;
+        }
+        collectOverlapping(node.left, from, to, out);
+        if (node.from > to) {
+            return;
+        }
+        if (node.to >= from) {
+            out.add(node.id);
+        }
+        collectOverlapping(node.right, from, to, out);
+    }
+
+    private List<Integer> mergeByTime(List<Integer> deadlineResults, List<Integer> eventResults) {
+        List<Integer> merged = new ArrayList<>(deadlineResults.size() + eventResults.size());
+        int i = 0;
+        int j = 0;
+        while (i < deadlineResults.size() || j < eventResults.size()) {
+            if (j == eventResults.size() || (i < deadlineResults.size()
+                    && deadlineKeys.get(deadlineResults.get(i)) <= eventNodes.get(eventResults.get(j)).from)) {
+                merged.add(deadlineResults.get(i++));
+            } else {
+                merged.add(eventResults.get(j++));
+            }
+        }
+        return merged;
+    }
+
+    private static Node insert(Node root, Node node) {
+        if (root == null) {
+            return node;
+        }
+        if (node.isBefore(root)) {
+            root.left = insert(root.left, node);
+            if (root.left.priority > root.priority) {
+                root = rotateRight(root);
+            }
+        } else {
+            root.right = insert(root.right, node);
+            if (root.right.priority > root.priority) {
+                root = rotateLeft(root);
+            }
+        }
+        root.update();
+        return root;
+    }
+
+    private static Node delete(Node root, Node node) {
+        if (root == null) {
+            return null;
+        }
+        if (root == node) {
+            return merge(root.left, root.right);
+        }
+        if (node.isBefore(root)) {
+            root.left = delete(root.left, node);
+        } else {
+            root.right = delete(root.right, node);
+        }
+        root.update();
+        return root;
+    }
+
+    /**
+     * Joins two treaps where every node of {@code a} comes before every node of {@code b}.
+     */
+    private static Node merge(Node a, Node b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        if (a.priority > b.priority) {
+            a.right = merge(a.right, b);
+            a.update();
+            return a;
+        }
+        b.left = merge(a, b.left);
+        b.update();
+        return b;
+    }
+
+    private static Node rotateRight(Node root) {
+        Node left = root.left;
+        root.left = left.right;
+        left.right = root;
+        root.update();
+        left.update();
+        return left;
+    }
+
+    private static Node rotateLeft(Node root) {
+        Node right = root.right;
+        root.right = right.left;
+        right.left = root;
+        root.update();
+        right.update();
+        return right;
+    }
+}
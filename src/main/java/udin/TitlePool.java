@@ -0,0 +1,171 @@
+package udin;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Canonicalizes task titles, so that tasks with the same title share one {@link String}.
+ * <p>
+ * Task files repeat titles a lot (recurring chores, test entries), and every loader creates a
+ * fresh string per line. When a pool is installed with {@link #setShared(TitlePool)}, every
+ * {@link Task} constructor passes its title through it, which covers loading as well as new tasks.
+ * <p>
+ * The pool holds its titles weakly, so a title no task uses any more is dropped by the garbage
+ * collector, and it stops taking new titles once it holds {@code capacity} of them, so it cannot
+ * grow without limit. Titles it does not take are used as they are.
+ */
+public class TitlePool {
+    /**
+     * The number of titles a pool created from the {@code udin.titlePool} property holds at most.
+     */
+    public static final int DEFAULT_CAPACITY = 100_000;
+
+    private static final int STRING_HEADER_BYTES = 24;
+    private static final int ARRAY_HEADER_BYTES = 16;
+
+    private static volatile TitlePool shared;
+
+    /**
+     * Maps each pooled title to itself. Both sides are weak: the value is wrapped so that it does
+     * not keep its own key alive.
+     */
+    private final Map<String, WeakReference<String>> titles = new WeakHashMap<>();
+    private final int capacity;
+    private long lookups;
+    private long duplicates;
+    private long bytesSaved;
+    private long rejected;
+
+    /**
+     * Constructs an empty pool.
+     *
+     * @param capacity the most titles the pool holds at once
+     */
+    public TitlePool(int capacity) {
+        assert capacity > 0 : "Pool capacity must be positive";
+        this.capacity = capacity;
+    }
+
+    /**
+     * Returns the pool used by task constructors, or {@code null} if titles are not pooled.
+     *
+     * @return the shared pool, or {@code null}
+     */
+    public static TitlePool getShared() {
+        return shared;
+    }
+
+    /**
+     * Sets the pool used by task constructors from now on.
+     *
+     * @param pool the pool, or {@code null} to stop pooling
+     */
+    public static void setShared(TitlePool pool) {
+        shared = pool;
+    }
+
+    /**
+     * Returns the canonical copy of {@code title} from the shared pool, or {@code title} itself if there is no pool.
+     *
+     * @param title the title
+     * @return an equal title
+     */
+    static String canonical(String title) {
+        TitlePool pool = shared;
+        return pool == null ? title : pool.intern(title);
+    }
+
+    /**
+     * Returns the pooled title equal to {@code title}, pooling {@code title} if there is none yet and room for it.
+     *
+     * @param title the title
+     * @return an equal title, shared with earlier callers where possible
+     */
+    public synchronized String intern(String title) {
+        lookups++;
+        WeakReference<String> ref = titles.get(title);
+        String pooled = ref == null ? null : ref.get();
+        if (pooled != null) {
+            if (pooled != title) {
+                duplicates++;
+                bytesSaved += sizeOf(title);
+            }
+            return pooled;
+        }
+        if (titles.size() >= capacity) {
+            rejected++;
+            return title;
+        }
+        titles.put(title, new WeakReference<>(title));
+        return title;
+    }
+
+    /**
+     * Returns the number of titles held now; titles whose tasks are gone may linger until the next collection.
+     *
+     * @return the pooled title count
+     */
+    public synchronized int size() {
+        return titles.size();
+    }
+
+    /**
+     * Returns the number of duplicate titles replaced by a pooled copy so far.
+     *
+     * @return the duplicate count
+     */
+    public synchronized long getDuplicates() {
+        return duplicates;
+    }
+
+    /**
+     * Returns the estimated heap, in bytes, taken by the duplicate titles replaced so far.
+     *
+     * @return the estimated bytes saved
+     */
+    public synchronized long getBytesSaved() {
+        return bytesSaved;
+    }
+
+    /**
+     * Describes how many titles were pooled and how much memory that saved.
+     *
+     * @return the report
+     */
+    public synchronized String report() {
+        String report = String.format("Title pool: %,d title(s) pooled (limit %,d), %,d of %,d titles were duplicates,"
+                + " saving about %s.", titles.size(), capacity, duplicates, lookups, formatBytes(bytesSaved));
+        if (rejected > 0) {
+            report += String.format("\n%,d title(s) were not pooled because the pool was full.", rejected);
+        }
+        return report;
+    }
+
+    /**
+     * Estimates the heap taken by a string: its object and its compact (Latin-1) or UTF-16 byte array.
+     */
+    static long sizeOf(String s) {
+        int bytesPerChar = 1;
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) > 0xFF) {
+                bytesPerChar = 2;
+                break;
+            }
+        }
+        return STRING_HEADER_BYTES + align(ARRAY_HEADER_BYTES + (long) s.length() * bytesPerChar);
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    private static String formatBytes(long bytes) {
+        if (bytes < 1024) {
+            return bytes + " bytes";
+        } else if (bytes < 1024 * 1024) {
+            return String.format("%.1f KB", bytes / 1024.0);
+        }
+        return String.format("%.1f MB", bytes / (1024.0 * 1024));
+    }
+}
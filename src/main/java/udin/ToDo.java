@@ -19,16 +19,14 @@ public class ToDo extends Task {
     }
 
     /**
-     * Returns the display string for this ToDo task.
-     * <p>
-     * The format is {@code [T][X] title} if the task is done,
-     * or {@code [T][ ] title} if not done.
+     * Returns the type tag for this ToDo task, so it displays as {@code [T][X] title}
+     * if the task is done, or {@code [T][ ] title} if not done.
      *
-     * @return the formatted display string for this ToDo task
+     * @return {@code [T]}
      */
     @Override
-    public String display() {
-        return "[T]" + super.display();
+    protected String typeTag() {
+        return "[T]";
     }
 
     /**
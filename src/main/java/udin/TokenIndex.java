@@ -0,0 +1,325 @@
+package udin;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntFunction;
+
+/**
+ * An inverted index from the words of task titles to the tasks containing them.
+ * <p>
+ * Tasks are indexed by their stable ID, which grows in the order tasks are added and so follows
+ * their order in the {@link TaskList}. Each word maps to a sorted posting list of IDs, so word
+ * queries are answered by merging posting lists instead of scanning every title, and results
+ * come out in list order. The index keeps only IDs and looks the matching tasks up through a
+ * resolver, so it works the same whether the list keeps task objects or flyweight views.
+ * <p>
+ * Queries are words joined by the operators {@code AND}, {@code OR} and {@code NOT}, written in
+ * capitals. {@code AND} binds tighter than {@code OR}, and adjacent words are implicitly joined by
+ * {@code AND}, so {@code buy milk OR bread NOT stale} means (buy and milk) or (bread and not stale).
+ * Words are matched whole and case-insensitively.
+ */
+public class TokenIndex {
+    private final Map<String, PostingList> postings = new HashMap<>();
+    private final BitSet indexed = new BitSet();
+    private final IntFunction<Task> taskOf;
+    private int size;
+
+    /**
+     * Constructs an empty index.
+     *
+     * @param taskOf looks up an indexed task by its ID
+     */
+    public TokenIndex(IntFunction<Task> taskOf) {
+        this.taskOf = taskOf;
+    }
+
+    /**
+     * Returns whether a search string uses any of the query operators.
+     *
+     * @param query the search string
+     * @return true if it contains {@code AND}, {@code OR} or {@code NOT} as a separate word
+     */
+    public static boolean isBooleanQuery(String query) {
+        for (String word : query.trim().split("\\s+")) {
+            if (isOperator(word)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isOperator(String word) {
+        return word.equals("AND") || word.equals("OR") || word.equals("NOT");
+    }
+
+    /**
+     * Splits a title into lower-cased words, treating anything other than letters and digits as a separator.
+     *
+     * @param title the text to split
+     * @return the distinct words, in order of first appearance
+     */
+    static Set<String> tokenize(String title) {
+        Set<String> tokens = new LinkedHashSet<>();
+        int start = -1;
+        for (int i = 0; i <= title.length(); i++) {
+            boolean isWordChar = i < title.length() && Character.isLetterOrDigit(title.charAt(i));
+            if (isWordChar && start < 0) {
+                start = i;
+            } else if (!isWordChar && start >= 0) {
+                tokens.add(title.substring(start, i).toLowerCase());
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Returns the number of indexed tasks.
+     *
+     * @return the indexed task count
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Adds a task, usually one newer than every task indexed so far, which costs nothing extra. A
+     * task restored under an older ID is inserted into each posting list in ID order.
+     *
+     * @param t the task to index, which must not be indexed already
+     */
+    public void add(Task t) {
+        int id = t.getId();
+        indexed.set(id);
+        size++;
+        for (String token : tokenize(t.getTitle())) {
+            postings.computeIfAbsent(token, k -> new PostingList(4)).add(id);
+        }
+    }
+
+    /**
+     * Removes a task from the index; does nothing if it was not indexed.
+     *
+     * @param t the task to remove
+     */
+    public void remove(Task t) {
+        int id = t.getId();
+        if (!indexed.get(id)) {
+            return;
+        }
+        indexed.clear(id);
+        size--;
+        for (String token : tokenize(t.getTitle())) {
+            PostingList list = postings.get(token);
+            list.remove(id);
+            if (list.size() == 0) {
+                postings.remove(token);
+            }
+        }
+    }
+
+    /**
+     * Removes several tasks at once, filtering each affected posting list a single time
+     * instead of once per removed task.
+     *
+     * @param tasks the tasks to remove; ones that are not indexed are ignored
+     */
+    public void removeAll(Collection<Task> tasks) {
+        int[] removed = new int[tasks.size()];
+        int count = 0;
+        Set<String> affected = new HashSet<>();
+        for (Task t : tasks) {
+            int id = t.getId();
+            if (indexed.get(id)) {
+                indexed.clear(id);
+                size--;
+                removed[count++] = id;
+                affected.addAll(tokenize(t.getTitle()));
+            }
+        }
+        Arrays.sort(removed, 0, count);
+        for (String token : affected) {
+            PostingList list = postings.get(token);
+            list.removeAll(removed, count);
+            if (list.size() == 0) {
+                postings.remove(token);
+            }
+        }
+    }
+
+    /**
+     * Discards the index and indexes {@code tasks} afresh, in order.
+     *
+     * @param tasks the tasks to index
+     */
+    public void rebuild(List<Task> tasks) {
+        postings.clear();
+        indexed.clear();
+        size = 0;
+        for (Task t : tasks) {
+            add(t);
+        }
+    }
+
+    /**
+     * Returns the tasks matching a query, in list order.
+     *
+     * @param query words joined by {@code AND}, {@code OR} and {@code NOT}
+     * @return the matching tasks
+     */
+    public List<Task> find(String query) {
+        List<int[]> groups = new ArrayList<>();
+        int total = 0;
+        for (Clause clause : parse(query)) {
+            int[] ids = evaluate(clause);
+            groups.add(ids);
+            total += ids.length;
+        }
+        int[] merged = groups.size() == 1 ? groups.get(0) : union(groups, total);
+        List<Task> results = new ArrayList<>(merged.length);
+        for (int id : merged) {
+            results.add(taskOf.apply(id));
+        }
+        return results;
+    }
+
+    /**
+     * Returns whether a title matches a query, without using an index.
+     *
+     * @param query words joined by {@code AND}, {@code OR} and {@code NOT}
+     * @param title the title to test
+     * @return true if the title matches
+     */
+    public static boolean matches(String query, String title) {
+        Set<String> tokens = tokenize(title);
+        for (Clause clause : parse(query)) {
+            if (tokens.containsAll(clause.required) && clause.excluded.stream().noneMatch(tokens::contains)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A conjunction of required and excluded words; a query is a disjunction of clauses.
+     */
+    private static class Clause {
+        private final List<String> required = new ArrayList<>();
+        private final List<String> excluded = new ArrayList<>();
+    }
+
+    private static List<Clause> parse(String query) {
+        List<Clause> clauses = new ArrayList<>();
+        Clause current = new Clause();
+        boolean isNegated = false;
+        for (String word : query.trim().split("\\s+")) {
+            if (word.equals("OR")) {
+                addClause(clauses, current);
+                current = new Clause();
+                isNegated = false;
+            } else if (word.equals("NOT")) {
+                isNegated = true;
+            } else if (!word.equals("AND")) {
+                for (String token : tokenize(word)) {
+                    (isNegated ? current.excluded : current.required).add(token);
+                }
+                isNegated = false;
+            }
+        }
+        addClause(clauses, current);
+        return clauses;
+    }
+
+    private static void addClause(List<Clause> clauses, Clause clause) {
+        if (!clause.required.isEmpty() || !clause.excluded.isEmpty()) {
+            clauses.add(clause);
+        }
+    }
+
+    /**
+     * Intersects the posting lists of the required words, starting from the shortest, then drops excluded words.
+     * A clause with only excluded words starts from every indexed task.
+     */
+    private int[] evaluate(Clause clause) {
+        List<PostingList> lists = new ArrayList<>();
+        for (String token : new HashSet<>(clause.required)) {
+            PostingList list = postings.get(token);
+            if (list == null) {
+                return new int[0];
+            }
+            lists.add(list);
+        }
+        lists.sort((a, b) -> Integer.compare(a.size(), b.size()));
+
+        int[] candidates;
+        int count;
+        if (lists.isEmpty()) {
+            candidates = indexed.stream().toArray();
+            count = candidates.length;
+        } else {
+            PostingList shortest = lists.get(0);
+            candidates = shortest.toArray();
+            count = shortest.size();
+        }
+
+        List<PostingList> excluded = new ArrayList<>();
+        for (String token : clause.excluded) {
+            PostingList list = postings.get(token);
+            if (list != null) {
+                excluded.add(list);
+            }
+        }
+
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            int id = candidates[i];
+            if (containsAll(lists, 1, id) && !containsAny(excluded, id)) {
+                candidates[kept++] = id;
+            }
+        }
+        return Arrays.copyOf(candidates, kept);
+    }
+
+    private static boolean containsAll(List<PostingList> lists, int from, int id) {
+        for (int i = from; i < lists.size(); i++) {
+            if (!lists.get(i).contains(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean containsAny(List<PostingList> lists, int id) {
+        for (PostingList list : lists) {
+            if (list.contains(id)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int[] union(List<int[]> groups, int total) {
+        int[] all = new int[total];
+        int n = 0;
+        for (int[] ids : groups) {
+            System.arraycopy(ids, 0, all, n, ids.length);
+            n += ids.length;
+        }
+        Arrays.sort(all);
+        int distinct = 0;
+        for (int i = 0; i < n; i++) {
+            if (distinct == 0 || all[distinct - 1] != all[i]) {
+                all[distinct++] = all[i];
+            }
+        }
+        return Arrays.copyOf(all, distinct);
+    }
+}
@@ -0,0 +1,195 @@
+package udin;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntFunction;
+
+/**
+ * An index from every three-character substring of a title to the tasks containing it.
+ * <p>
+ * A substring query of at least three characters can only match titles that contain all of its
+ * trigrams, so intersecting their posting lists yields a small candidate set, which is then
+ * checked with the same case-insensitive {@code contains} test as a full scan. Results are
+ * therefore exactly those of the scan, in list order.
+ * <p>
+ * Characters are case-folded the way {@link String#regionMatches(boolean, int, String, int, int)}
+ * compares them, so the index never rules out a title the scan would accept.
+ * <p>
+ * Like {@link TokenIndex}, postings hold stable task IDs, and candidates are looked up through a resolver.
+ */
+public class TrigramIndex {
+    /**
+     * Shortest query the index can answer; shorter ones must be scanned.
+     */
+    public static final int MIN_QUERY_LENGTH = 3;
+
+    private final Map<Long, PostingList> postings = new HashMap<>();
+    private final BitSet indexed = new BitSet();
+    private final IntFunction<Task> taskOf;
+    private int size;
+
+    /**
+     * Constructs an empty index.
+     *
+     * @param taskOf looks up an indexed task by its ID
+     */
+    public TrigramIndex(IntFunction<Task> taskOf) {
+        this.taskOf = taskOf;
+    }
+
+    /**
+     * Returns the number of indexed tasks.
+     *
+     * @return the indexed task count
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Adds a task, usually one newer than every task indexed so far, which costs nothing extra. A
+     * task restored under an older ID is inserted into each posting list in ID order.
+     *
+     * @param t the task to index, which must not be indexed already
+     */
+    public void add(Task t) {
+        int id = t.getId();
+        indexed.set(id);
+        size++;
+        String title = t.getTitle();
+        for (int i = 0; i + MIN_QUERY_LENGTH <= title.length(); i++) {
+            postings.computeIfAbsent(trigramAt(title, i), k -> new PostingList(2)).add(id);
+        }
+    }
+
+    /**
+     * Removes a task from the index; does nothing if it was not indexed.
+     *
+     * @param t the task to remove
+     */
+    public void remove(Task t) {
+        int id = t.getId();
+        if (!indexed.get(id)) {
+            return;
+        }
+        indexed.clear(id);
+        size--;
+        String title = t.getTitle();
+        for (int i = 0; i + MIN_QUERY_LENGTH <= title.length(); i++) {
+            long trigram = trigramAt(title, i);
+            PostingList list = postings.get(trigram);
+            if (list != null) {
+                list.remove(id);
+                if (list.size() == 0) {
+                    postings.remove(trigram);
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes several tasks at once, filtering each affected posting list a single time
+     * instead of once per removed task.
+     *
+     * @param tasks the tasks to remove; ones that are not indexed are ignored
+     */
+    public void removeAll(Collection<Task> tasks) {
+        int[] removed = new int[tasks.size()];
+        int count = 0;
+        Set<Long> affected = new HashSet<>();
+        for (Task t : tasks) {
+            int id = t.getId();
+            if (indexed.get(id)) {
+                indexed.clear(id);
+                size--;
+                removed[count++] = id;
+                String title = t.getTitle();
+                for (int i = 0; i + MIN_QUERY_LENGTH <= title.length(); i++) {
+                    affected.add(trigramAt(title, i));
+                }
+            }
+        }
+        Arrays.sort(removed, 0, count);
+        for (long trigram : affected) {
+            PostingList list = postings.get(trigram);
+            if (list != null) {
+                list.removeAll(removed, count);
+                if (list.size() == 0) {
+                    postings.remove(trigram);
+                }
+            }
+        }
+    }
+
+    /**
+     * Discards the index and indexes {@code tasks} afresh, in order.
+     *
+     * @param tasks the tasks to index
+     */
+    public void rebuild(List<Task> tasks) {
+        postings.clear();
+        indexed.clear();
+        size = 0;
+        for (Task t : tasks) {
+            add(t);
+        }
+    }
+
+    /**
+     * Returns the tasks whose title contains {@code keyword}, ignoring case, in list order.
+     *
+     * @param keyword a search string of at least {@link #MIN_QUERY_LENGTH} characters
+     * @return the matching tasks
+     */
+    public List<Task> find(String keyword) {
+        assert keyword.length() >= MIN_QUERY_LENGTH : "Keyword too short for the trigram index";
+        List<PostingList> lists = new ArrayList<>();
+        for (int i = 0; i + MIN_QUERY_LENGTH <= keyword.length(); i++) {
+            PostingList list = postings.get(trigramAt(keyword, i));
+            if (list == null) {
+                return new ArrayList<>();
+            }
+            if (!lists.contains(list)) {
+                lists.add(list);
+            }
+        }
+        lists.sort((a, b) -> Integer.compare(a.size(), b.size()));
+
+        List<Task> results = new ArrayList<>();
+        PostingList shortest = lists.get(0);
+        for (int i = 0; i < shortest.size(); i++) {
+            int id = shortest.get(i);
+            if (containsAll(lists, id)) {
+                Task t = taskOf.apply(id);
+                if (TaskList.containsIgnoreCase(t.getTitle(), keyword)) {
+                    results.add(t);
+                }
+            }
+        }
+        return results;
+    }
+
+    private static boolean containsAll(List<PostingList> lists, int id) {
+        for (int i = 1; i < lists.size(); i++) {
+            if (!lists.get(i).contains(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Packs the three case-folded characters starting at {@code i} into one key.
+     */
+    private static long trigramAt(String s, int i) {
+        return (long) TaskList.fold(s.charAt(i)) << 32 | (long) TaskList.fold(s.charAt(i + 1)) << 16
+                | TaskList.fold(s.charAt(i + 2));
+    }
+}
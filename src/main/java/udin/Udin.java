@@ -3,6 +3,9 @@ package udin;
 
 import java.io.File;
 import java.io.IOException;
+import java.time.Clock;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.List;
 
 
@@ -10,7 +13,7 @@ import java.util.List;
 * The main entry point and controller class for the Udin task manager application.
 * <p>
 * This class coordinates interactions between the user interface ({@link Ui}),
-* persistent data storage ({@link Storage}), and the in-memory task list ({@link TaskList}).
+* persistent data storage ({@link TaskStorage}), and the in-memory task list ({@link TaskList}).
 * <p>
 * Responsibilities:
 * <ul>
@@ -28,7 +31,9 @@ public class Udin {
     */
    public static final String HELP =
            "Command list: \n" +
-                   "- list: List your tasks.\n" +
+                   "- list: List your tasks, 50 at a time. Continue with list next, jump with list page <number>,\n" +
+                   "  or change how many are shown with list --limit <number>.\n" +
+                   "  Add --sort=deadline, --sort=type or --sort=status (pending first) to sort them.\n" +
                    "- bye: End the conversation with Udin, yours truly.\n" +
                    "- mark <task number>: Mark a task as done.\n" +
                    "- unmark <task number>: Mark a task as not done.\n" +
@@ -36,10 +41,25 @@ public class Udin {
                    "- deadline <description> <deadline>: Create a new deadline task with a description and a deadline.\n" +
                    "- event <description> <from> <to>: Create a new event task with a start and end time.\n" +
                    "- delete <task number>: Delete a task from the task list.\n" +
+                   "- due <date>: List unfinished deadlines due by the date.\n" +
+                   "- between <from> <to>: List deadlines and events within a period.\n" +
+                   "- on <date>: List deadlines and events on a day.\n" +
+                   "- archive [days]: Move completed tasks older than the given days (default 30) to the archive.\n" +
+                   "- stats: Count tasks by type, status and due date, and show memory statistics.\n" +
+                   "- undo: Undo the last add, delete, mark or unmark (up to 100 of them, back to the last archive).\n" +
+                   "- redo: Redo the last change undone.\n" +
                    "- help: Show this command list.\n" +
                    "\n" +
+                   "Udin reminds you when a deadline falls due or an event starts while it is running.\n" +
+                   "\n" +
+                   "Tasks can also be given by ID instead of number, e.g. mark #12;\n" +
+                   "IDs are shown after each task in the list and do not change when tasks are deleted.\n" +
+                   "mark, unmark and delete accept several tasks at once: a range (mark 1-5),\n" +
+                   "a list (delete 3,7,#12) or a search (mark find:groceries).\n" +
+                   "\n" +
                    "All times (for deadline and event commands) must be\n" +
-                   "formatted as yyyy-mm-dd hhmm.";
+                   "formatted as yyyy-mm-dd hhmm. Dates in due, between and on\n" +
+                   "may leave out the hhmm part.";
 
 
    /**
@@ -51,7 +71,7 @@ public class Udin {
    /**
     * Manages reading from and writing to the persistent storage file.
     */
-   private final Storage storage;
+   private final TaskStorage storage;
 
 
    /**
@@ -63,8 +83,9 @@ public class Udin {
    /**
     * Constructs a new Udin instance with the given file path for storage.
     * <p>
-    * Attempts to load existing tasks from the specified file. If loading fails,
-    * initializes with an empty {@link TaskList}.
+    * Attempts to load existing tasks from the specified file. Malformed lines are skipped,
+    * reported and moved out of the file; if the file cannot be read at all, initializes with
+    * an empty {@link TaskList}.
     *
     * @param filePath the file path where tasks are saved and loaded
     */
@@ -72,17 +93,139 @@ public class Udin {
        ui = new Ui();
        // Resolve the file path to handle JAR execution
        String resolvedPath = resolveFilePath(filePath);
-       storage = new Storage(resolvedPath);
+       boolean isColumnar = Boolean.getBoolean("udin.columnar");
+       // The columnar store parses every date as it loads, so deferring the parse would gain nothing.
+       boolean isLazyDates = Boolean.getBoolean("udin.lazyDates") && !isColumnar;
+       // The columnar store packs titles itself and builds a new title on every read, which a pool would only slow down.
+       if (Boolean.getBoolean("udin.titlePool") && !isColumnar) {
+           TitlePool.setShared(new TitlePool(Integer.getInteger("udin.titlePoolSize", TitlePool.DEFAULT_CAPACITY)));
+       }
+       TaskStorage base = createStorage(resolvedPath, isLazyDates);
        TaskList tmp;
        try {
-           tmp = new TaskList(storage.load());
+           LoadReport report = base.loadReport();
+           if (report.hasProblems()) {
+               ui.showError(report.summary());
+           }
+           if (report.getRejectedFile() != null) {
+               rewriteSalvaged(base, report);
+           }
+           tmp = isColumnar ? TaskList.columnar(report.getTasks()) : new TaskList(report.getTasks());
        } catch (Exception e) {
            ui.showError("Failed to load tasks: " + e.getMessage());
-           tmp = new TaskList();
+           tmp = isColumnar ? TaskList.columnar(List.of()) : new TaskList();
        }
        tasks = tmp;
+       // Off by default for the columnar store; see TaskList.columnar.
+       tasks.setUndoLimit(Math.max(0, Integer.getInteger("udin.undoLimit",
+               isColumnar ? 0 : TaskHistory.DEFAULT_LIMIT)));
+       storage = wrapAsync(base, tasks);
+       if (isLazyDates) {
+           startDateValidation(tasks.snapshot());
+       }
+   }
+
+   /**
+    * Rewrites the save file without the lines a salvaging load moved to the rejected file,
+    * so that they are not rejected, and appended to that file, again on every start.
+    *
+    * @param base the storage the tasks were loaded from
+    * @param report the salvaged tasks
+    */
+   private void rewriteSalvaged(TaskStorage base, LoadReport report) {
+       try {
+           base.save(report.getTasks());
+       } catch (IOException e) {
+           ui.showError("Failed to rewrite the save file: " + e.getMessage());
+       }
+   }
+
+   /**
+    * Checks the dates of lazily loaded tasks on a background thread and reports any malformed ones.
+    * <p>
+    * Dates are only checked, not kept, so the loaded tasks still parse them on first use.
+    *
+    * @param loaded the tasks as loaded from disk
+    */
+   private void startDateValidation(List<Task> loaded) {
+       Thread validator = new Thread(() -> {
+           List<String> problems = new ArrayList<>();
+           for (int i = 0; i < loaded.size(); i++) {
+               Task t = loaded.get(i);
+               try {
+                   if (t instanceof Deadline) {
+                       ((Deadline) t).validateDate();
+                   } else if (t instanceof Event) {
+                       ((Event) t).validateDates();
+                   }
+               } catch (DateTimeParseException e) {
+                   problems.add("task " + (i + 1) + ": invalid date '" + e.getParsedString() + "'");
+               }
+           }
+           if (!problems.isEmpty()) {
+               ui.showError(problems.size() + " saved task(s) have invalid dates:\n" + String.join("\n", problems));
+           }
+       }, "udin-date-validator");
+       validator.setDaemon(true);
+       validator.start();
    }
    
+   /**
+    * Creates the storage backend selected by the {@code udin.storage} system property.
+    * <p>
+    * {@code journal} selects a {@link JournalStorage}, {@code binary} a {@link BinaryStorage},
+    * {@code segmented} a {@link SegmentedStorage} and {@code memory} an {@link InMemoryStorage}
+    * that never touches the disk; anything else keeps the plain CSV {@link Storage}.
+    *
+    * @param filePath the resolved save file path
+    * @param isLazyDates whether file-backed storages defer date parsing on load
+    * @return the storage to load from and save to
+    */
+   private static TaskStorage createStorage(String filePath, boolean isLazyDates) {
+       String type = System.getProperty("udin.storage", "csv");
+       Storage storage;
+       switch (type) {
+           case "memory":
+               return new InMemoryStorage();
+           case "journal":
+               storage = new JournalStorage(filePath);
+               break;
+           case "binary":
+               storage = new BinaryStorage(filePath);
+               break;
+           case "segmented":
+               storage = new SegmentedStorage(filePath);
+               break;
+           default:
+               storage = new Storage(filePath);
+               break;
+       }
+       storage.setLazyDates(isLazyDates);
+       return storage;
+   }
+
+   /**
+    * Wraps a full-rewrite storage in an {@link AsyncStorage} so that commands do not wait for the disk.
+    * <p>
+    * Enabled unless {@code udin.async} is {@code false}. The journal and segmented storages already
+    * write only what changed, and the in-memory storage does not write at all, so they are left
+    * synchronous. The flush interval and batch size can be tuned with
+    * {@code udin.flushIntervalMillis} and {@code udin.flushBatchSize}.
+    *
+    * @param storage the storage that performs the writes
+    * @param tasks the task list to save
+    * @return the storage commands should save through
+    */
+   private static TaskStorage wrapAsync(TaskStorage storage, TaskList tasks) {
+       if (storage instanceof JournalStorage || storage instanceof SegmentedStorage
+               || storage instanceof InMemoryStorage || "false".equals(System.getProperty("udin.async"))) {
+           return storage;
+       }
+       long interval = Long.getLong("udin.flushIntervalMillis", AsyncStorage.DEFAULT_FLUSH_INTERVAL_MILLIS);
+       int batchSize = Integer.getInteger("udin.flushBatchSize", AsyncStorage.DEFAULT_BATCH_SIZE);
+       return new AsyncStorage(storage, tasks, interval, batchSize);
+   }
+
    /**
     * Resolves the file path to work correctly both in development and JAR execution.
     * 
@@ -138,6 +281,26 @@ public class Udin {
    }
 
 
+   /**
+    * Starts reminding about pending deadlines as they fall due and events as they start.
+    * <p>
+    * Does nothing if run with {@code -Dudin.reminders=false}; {@code -Dudin.reminderLeadMinutes=<n>}
+    * makes reminders come that many minutes early.
+    *
+    * @param listener receives each reminder, on the reminder thread
+    * @return the running scheduler, or {@code null} if reminders are off
+    */
+   public ReminderScheduler startReminders(ReminderScheduler.Listener listener) {
+       if ("false".equals(System.getProperty("udin.reminders"))) {
+           return null;
+       }
+       int leadMinutes = Math.max(0, Integer.getInteger("udin.reminderLeadMinutes", 0));
+       ReminderScheduler reminders = new ReminderScheduler(tasks, listener, Clock.systemDefaultZone(), leadMinutes);
+       reminders.start();
+       return reminders;
+   }
+
+
     /**
      * Runs the interactive command loop for the Udin application.
      * <p>
@@ -148,6 +311,7 @@ public class Udin {
     public void run() {
         ui.showWelcome();
         ui.showLoadSuccess();
+        ReminderScheduler reminders = startReminders((t, message) -> ui.showMessage(message));
 
         while (true) {
             String command = ui.readCommand();
@@ -155,6 +319,9 @@ public class Udin {
 
             if (Parser.isBye(command)) {
                 Parser.executeCommand(command, tasks, storage);
+                if (reminders != null) {
+                    reminders.stop();
+                }
                 break;
             } else {
                 String response = Parser.executeCommand(command, tasks, storage);
@@ -1,5 +1,6 @@
 package udin;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Scanner;
 
@@ -62,14 +63,18 @@ public class Ui {
 
     /**
      * Displays the full list of tasks.
+     * <p>
+     * Lines are written straight to the console as they are rendered, so the list is never held as one string.
      *
      * @param tasks the list of tasks to display
      */
     public void showList(TaskList tasks) {
         System.out.println(LINE);
         System.out.println("\n Your tasks:");
-        for (int i = 0; i < tasks.size(); i++) {
-            System.out.println(" " + (i + 1) + "." + tasks.get(i).display());
+        try {
+            TaskList.render(System.out, tasks.snapshot(), 1);
+        } catch (IOException e) {
+            // PrintStream never throws; it records errors instead.
         }
         System.out.println(LINE);
     }
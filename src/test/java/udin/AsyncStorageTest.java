@@ -0,0 +1,111 @@
+package udin;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class AsyncStorageTest {
+    private TaskList taskList;
+    private CountingStorage delegate;
+
+    @BeforeEach
+    public void setUp() {
+        taskList = new TaskList();
+        delegate = new CountingStorage();
+    }
+
+    @Test
+    public void testSaveFlushesSynchronously() throws IOException {
+        AsyncStorage storage = new AsyncStorage(delegate, taskList, 60_000, 100);
+        Task t = new ToDo("task");
+        taskList.add(t);
+        storage.saveAdded(taskList.getAll(), t);
+        assertEquals(0, delegate.saves);
+
+        storage.save(taskList.getAll());
+        assertEquals(1, delegate.saves);
+        assertEquals(1, delegate.lastSaved.size());
+    }
+
+    @Test
+    public void testSaveSkipsWhenNothingChanged() throws IOException {
+        AsyncStorage storage = new AsyncStorage(delegate, taskList, 60_000, 100);
+        storage.save(taskList.getAll());
+        assertEquals(0, delegate.saves);
+    }
+
+    @Test
+    public void testBurstIsCoalescedIntoOneWrite() throws Exception {
+        AsyncStorage storage = new AsyncStorage(delegate, taskList, 50, 1000);
+        for (int i = 0; i < 20; i++) {
+            Task t = new ToDo("task " + i);
+            taskList.add(t);
+            storage.saveAdded(taskList.getAll(), t);
+        }
+        waitForSaves(1);
+        assertEquals(1, delegate.saves);
+        assertEquals(20, delegate.lastSaved.size());
+    }
+
+    @Test
+    public void testBatchSizeTriggersFlush() throws Exception {
+        AsyncStorage storage = new AsyncStorage(delegate, taskList, 60_000, 3);
+        for (int i = 0; i < 3; i++) {
+            Task t = new ToDo("task " + i);
+            taskList.add(t);
+            storage.saveAdded(taskList.getAll(), t);
+        }
+        waitForSaves(1);
+        assertEquals(3, delegate.lastSaved.size());
+    }
+
+    @Test
+    public void testUncheckedFailureIsReported() throws Exception {
+        delegate.failure = new IllegalStateException("disk on fire");
+        AsyncStorage storage = new AsyncStorage(delegate, taskList, 60_000, 1);
+        Task t = new ToDo("task");
+        taskList.add(t);
+        storage.saveAdded(taskList.getAll(), t);
+        waitForSaves(1);
+        Thread.sleep(50);
+
+        Task next = new ToDo("next");
+        taskList.add(next);
+        IOException e = assertThrows(IOException.class, () -> storage.saveAdded(taskList.getAll(), next));
+        assertTrue(e.getMessage().contains("disk on fire"));
+        assertThrows(IOException.class, () -> storage.save(taskList.getAll()));
+
+        delegate.failure = null;
+        storage.close();
+        assertEquals(2, delegate.lastSaved.size());
+    }
+
+    private void waitForSaves(int expected) throws InterruptedException {
+        for (int i = 0; i < 100 && delegate.saves < expected; i++) {
+            Thread.sleep(20);
+        }
+    }
+
+    private static class CountingStorage extends Storage {
+        private volatile int saves;
+        private volatile List<Task> lastSaved;
+        private volatile RuntimeException failure;
+
+        CountingStorage() {
+            super("unused.txt");
+        }
+
+        @Override
+        public void save(List<Task> tasks) {
+            saves++;
+            if (failure != null) {
+                throw failure;
+            }
+            lastSaved = new ArrayList<>(tasks);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package udin;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.List;
+
+public class BinaryTaskFormatTest {
+    private String testFilePath = "test_binary.txt";
+    private File testFile = new File(testFilePath);
+    private File backupFile = new File(testFilePath + ".bak");
+
+    @AfterEach
+    public void tearDown() {
+        testFile.delete();
+        backupFile.delete();
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        List<Task> original = List.of(
+            new ToDo("todo, with a comma"),
+            new Deadline("deadline task", "2024-12-25 1200"),
+            new Event("\u00e9v\u00e8nement", "1960-01-01 0000", "2024-12-25 1400")
+        );
+        original.get(1).mark();
+
+        BinaryTaskFormat.write(testFile, original);
+        assertTrue(BinaryTaskFormat.isBinary(testFile));
+
+        List<Task> loaded = BinaryTaskFormat.read(testFile.toPath());
+        assertEquals(original.size(), loaded.size());
+        for (int i = 0; i < original.size(); i++) {
+            assertEquals(original.get(i).getClass(), loaded.get(i).getClass());
+            assertEquals(original.get(i).display(), loaded.get(i).display());
+        }
+    }
+
+    @Test
+    public void testStorageDetectsFormat() throws Exception {
+        new BinaryStorage(testFilePath).save(List.of(new ToDo("binary task")));
+        assertFalse(new String(java.nio.file.Files.readAllBytes(testFile.toPath())).contains("T,0"));
+
+        List<Task> loaded = new Storage(testFilePath).load();
+        assertEquals(1, loaded.size());
+        assertEquals("binary task", loaded.get(0).getTitle());
+    }
+
+    @Test
+    public void testConvertInPlace() throws Exception {
+        try (FileWriter writer = new FileWriter(testFile)) {
+            writer.write("T,1,todo task\nD,0,deadline task,2024-12-25 1200\n");
+        }
+        assertFalse(BinaryTaskFormat.isBinary(testFile));
+
+        assertEquals(2, BinaryTaskFormat.convert(testFile.toPath(), testFile.toPath()));
+
+        assertTrue(BinaryTaskFormat.isBinary(testFile));
+        assertTrue(backupFile.exists());
+        List<Task> loaded = new Storage(testFilePath).load();
+        assertEquals("T,1,todo task", loaded.get(0).toSaveFormat());
+        assertEquals("D,0,deadline task,2024-12-25 1200", loaded.get(1).toSaveFormat());
+    }
+
+    @Test
+    public void testMalformedLazyDateFallsBackToCsv() throws Exception {
+        try (FileWriter writer = new FileWriter(testFile)) {
+            writer.write("T,0,todo task\nD,1,deadline task,2024-13-45 1200\n");
+        }
+        BinaryStorage storage = new BinaryStorage(testFilePath);
+        storage.setLazyDates(true);
+        List<Task> tasks = storage.load();
+        assertTrue(BinaryTaskFormat.hasMalformedDate(tasks));
+
+        storage.save(tasks);
+
+        assertFalse(BinaryTaskFormat.isBinary(testFile));
+        List<Task> loaded = storage.load();
+        assertEquals(2, loaded.size());
+        assertEquals("D,1,deadline task,2024-13-45 1200", loaded.get(1).toSaveFormat());
+        assertThrows(IOException.class, () -> BinaryTaskFormat.write(testFile, loaded));
+    }
+
+    @Test
+    public void testIsBinaryOnShortFile() throws IOException {
+        testFile.createNewFile();
+        assertFalse(BinaryTaskFormat.isBinary(testFile));
+    }
+}
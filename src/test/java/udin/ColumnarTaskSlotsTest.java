@@ -0,0 +1,148 @@
+package udin;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+public class ColumnarTaskSlotsTest {
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 12, 1, 9, 30);
+
+    @Test
+    public void testRoundTripsEveryTaskType() {
+        ColumnarTaskSlots slots = new ColumnarTaskSlots();
+        Task deadline = new Deadline("submit report", BASE);
+        deadline.mark();
+        List<Task> originals = List.of(new ToDo("caf\u00e9 \u4e2d\u6587 \ud83d\ude00"), deadline,
+                new Event("team meeting", BASE, BASE.plusHours(2)), new ToDo("x"));
+        for (Task t : originals) {
+            slots.add(t);
+        }
+
+        assertEquals(originals.size(), slots.size());
+        for (int i = 0; i < originals.size(); i++) {
+            Task t = slots.get(i);
+            assertEquals(originals.get(i).getClass(), t.getClass().getSuperclass());
+            assertEquals(originals.get(i).toSaveFormat(), t.toSaveFormat());
+            assertEquals(originals.get(i).display(), t.display());
+            assertEquals(i + 1, t.getId());
+        }
+        assertEquals(BASE.plusHours(2), ((Event) slots.getById(3)).getTo());
+    }
+
+    @Test
+    public void testMarkWritesThrough() {
+        ColumnarTaskSlots slots = new ColumnarTaskSlots();
+        slots.add(new ToDo("a"));
+        slots.add(new Deadline("b", BASE));
+
+        slots.get(1).mark();
+        assertTrue(slots.get(1).isDone);
+        assertFalse(slots.get(0).isDone);
+        slots.getById(2).unmark();
+        assertFalse(slots.get(1).isDone);
+
+        Task detached = slots.get(0);
+        slots.remove(0);
+        detached.mark();
+        assertFalse(slots.get(0).isDone);
+    }
+
+    @Test
+    public void testCopySurvivesCompaction() {
+        ColumnarTaskSlots slots = new ColumnarTaskSlots();
+        for (int i = 0; i < 100; i++) {
+            slots.add(new ToDo("task " + i));
+        }
+        List<Task> copy = slots.copyTasks();
+        slots.removeMatching(t -> t.getId() % 10 != 0);
+        slots.add(new ToDo("overwrites the arena"));
+
+        assertEquals(100, copy.size());
+        assertEquals("task 57", copy.get(57).getTitle());
+        assertEquals("task 99", copy.get(99).getTitle());
+        assertEquals(11, slots.size());
+        assertEquals("task 89", slots.get(8).getTitle());
+        assertThrows(UnsupportedOperationException.class, () -> copy.remove(0));
+    }
+
+    @Test
+    public void testMatchesTaskSlotsUnderRandomEdits() {
+        Random random = new Random(3);
+        ColumnarTaskSlots columnar = new ColumnarTaskSlots();
+        TaskSlots reference = new TaskSlots();
+        for (int i = 0; i < 20000; i++) {
+            int op = random.nextInt(10);
+            if (reference.size() == 0 || op < 5) {
+                Supplier<Task> task = randomTask(random, i);
+                columnar.add(task.get());
+                reference.add(task.get());
+            } else if (op < 8) {
+                int position = random.nextInt(reference.size());
+                assertEquals(reference.remove(position).toSaveFormat(), columnar.remove(position).toSaveFormat());
+            } else if (op < 9) {
+                int position = random.nextInt(reference.size());
+                reference.get(position).mark();
+                columnar.get(position).mark();
+            } else {
+                int k = random.nextInt(7) + 2;
+                assertEquals(reference.removeMatching(t -> t.getId() % k == 0).size(),
+                        columnar.removeMatching(t -> t.getId() % k == 0).size());
+            }
+            assertEquals(reference.size(), columnar.size());
+            if (i % 1000 == 0) {
+                assertEquals(saveFormats(reference.copyTasks()), saveFormats(columnar.copyTasks()));
+                for (Task t : reference) {
+                    assertEquals(reference.positionOf(t.getId()), columnar.positionOf(t.getId()));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testColumnarTaskListRunsCommands() {
+        List<Task> initial = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            initial.add(i % 2 == 0 ? new ToDo("read chapter " + i) : new Deadline("submit report " + i, BASE.plusDays(i)));
+        }
+        TaskList taskList = TaskList.columnar(initial);
+        InMemoryStorage storage = new InMemoryStorage();
+
+        assertEquals("Good boy! Marked 3 task(s) as done.", Parser.executeCommand("mark 1-3", taskList, storage));
+        assertTrue(taskList.snapshot().get(2).isDone);
+        assertTrue(storage.load().get(1).isDone);
+        Parser.executeCommand("mark 5", taskList, storage);
+        assertTrue(storage.load().get(4).isDone);
+        assertTrue(Parser.executeCommand("find chapter 4", taskList, storage).contains("read chapter 48"));
+        assertTrue(Parser.executeCommand("due 2024-12-04", taskList, storage).contains("submit report 3"));
+        Parser.executeCommand("delete #2", taskList, storage);
+        assertEquals(49, taskList.size());
+        assertEquals("read chapter 2", taskList.get(1).getTitle());
+        assertEquals(-1, taskList.indexOfId(2));
+    }
+
+    private static Supplier<Task> randomTask(Random random, int i) {
+        LocalDateTime start = BASE.plusMinutes(random.nextInt(100000));
+        LocalDateTime end = start.plusMinutes(random.nextInt(5000));
+        switch (random.nextInt(3)) {
+        case 0:
+            return () -> new ToDo("todo \u00e9 " + i);
+        case 1:
+            return () -> new Deadline("deadline " + i, start);
+        default:
+            return () -> new Event("event " + i, start, end);
+        }
+    }
+
+    private static List<String> saveFormats(List<Task> tasks) {
+        List<String> formats = new ArrayList<>();
+        for (Task t : tasks) {
+            formats.add(t.toSaveFormat());
+        }
+        return formats;
+    }
+}
@@ -14,6 +14,24 @@ public class DeadlineTest {
         deadline.unmark();
     }
 
+    @Test
+    public void displayMalformedLazyDateTest() {
+        Deadline broken = Deadline.withLazyDate("broken", "2000-13-45 1800");
+        assertEquals("[D][ ] broken (by: 2000-13-45 1800)", broken.display());
+        assertEquals("D,0,broken,2000-13-45 1800", broken.toSaveFormat());
+    }
+
+    @Test
+    public void displayCacheTest() {
+        String pending = deadline.display();
+        deadline.mark();
+        String done = deadline.display();
+        assertEquals("[D][X] test (by: Dec 12 2000, 6:00PM)", done);
+        assertEquals(done, deadline.display());
+        deadline.isDone = false;
+        assertEquals(pending, deadline.display());
+    }
+
     @Test
     public void toSaveFormatTest() {
         assertEquals("D,0,test,2000-12-12 1800", deadline.toSaveFormat());
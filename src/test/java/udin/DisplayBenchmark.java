@@ -0,0 +1,84 @@
+package udin;
+
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Measures rendering a large list with cached date suffixes against formatting every line afresh,
+ * the way {@link Task#display()} worked before it cached.
+ * <p>
+ * Not a unit test; run with {@code ./gradlew displayBenchmark} or pass list sizes as arguments.
+ */
+public class DisplayBenchmark {
+    private static final DateTimeFormatter OUTPUT_FORMAT = DateTimeFormatter.ofPattern("MMM dd yyyy, h:mma");
+    private static final int ROUNDS = 20;
+
+    public static void main(String[] args) {
+        String[] sizes = args.length > 0 ? args : new String[]{"100000"};
+        for (String size : sizes) {
+            int count = Integer.parseInt(size);
+            TaskList tasks = new TaskList();
+            for (int i = 0; i < count; i++) {
+                switch (i % 3) {
+                case 0:
+                    tasks.add(new ToDo("read chapter " + i));
+                    break;
+                case 1:
+                    tasks.add(new Deadline("submit report " + i, "2024-12-25 1800"));
+                    break;
+                default:
+                    tasks.add(new Event("team meeting " + i, "2024-12-25 1400", "2024-12-25 1600"));
+                    break;
+                }
+            }
+            System.out.printf("%,d tasks%n", count);
+            measure("uncached      ", () -> renderUncached(tasks.snapshot()));
+            measure("cached        ", () -> tasks.show().length());
+            measure("cached, marked", () -> {
+                for (int i = 0; i < count; i += 10) {
+                    tasks.get(i).isDone = !tasks.get(i).isDone;
+                }
+                return tasks.show().length();
+            });
+        }
+    }
+
+    private interface Render {
+        int run();
+    }
+
+    private static void measure(String name, Render render) {
+        int length = 0;
+        for (int i = 0; i < 3; i++) {
+            length += render.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            length += render.run();
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("  %s: %,8.1f ms per list (%d chars)%n", name, elapsed / 1e6 / ROUNDS, length / (ROUNDS + 3));
+    }
+
+    /**
+     * Renders the list the way it was rendered before display lines were cached.
+     */
+    private static int renderUncached(List<Task> tasks) {
+        StringBuilder out = new StringBuilder("\n Your tasks:\n");
+        int number = 1;
+        for (Task t : tasks) {
+            String marked = (t.isDone ? "[X] " : "[ ] ") + t.getTitle();
+            String line;
+            if (t instanceof Deadline) {
+                line = "[D]" + marked + " (by: " + ((Deadline) t).getDeadline().format(OUTPUT_FORMAT) + ")";
+            } else if (t instanceof Event) {
+                line = "[E]" + marked + " (from: " + ((Event) t).getFrom().format(OUTPUT_FORMAT)
+                        + " to: " + ((Event) t).getTo().format(OUTPUT_FORMAT) + ")";
+            } else {
+                line = "[T]" + marked;
+            }
+            out.append(" " + number++ + "." + line + " (#" + t.getId() + ")\n");
+        }
+        return out.length();
+    }
+}
@@ -14,6 +14,12 @@ public class EventTest {
         event.unmark();
     }
 
+    @Test
+    public void displayMalformedLazyDateTest() {
+        Event broken = Event.withLazyDates("broken", "2000-12-12 1800", "tomorrow");
+        assertEquals("[E][ ] broken (from: 2000-12-12 1800 to: tomorrow)", broken.display());
+    }
+
     @Test
     public void toSaveFormatTest() {
         assertEquals("E,0,test,2000-12-12 1800,2001-11-11 0000", event.toSaveFormat());
@@ -0,0 +1,42 @@
+package udin;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+public class InMemoryStorageTest {
+    private TaskList taskList = new TaskList();
+    private InMemoryStorage storage = new InMemoryStorage();
+
+    @Test
+    public void testCommandsPersistWithoutDisk() throws Exception {
+        Parser.executeCommand("todo first", taskList, storage);
+        Parser.executeCommand("todo second", taskList, storage);
+        Parser.executeCommand("mark 2", taskList, storage);
+        Parser.executeCommand("delete 1", taskList, storage);
+
+        List<Task> loaded = storage.load();
+        assertEquals(1, loaded.size());
+        assertEquals("T,1,second", loaded.get(0).toSaveFormat());
+        assertEquals(4, storage.getSaveCount());
+    }
+
+    @Test
+    public void testLoadInitialTasks() throws Exception {
+        InMemoryStorage seeded = new InMemoryStorage(List.of(new ToDo("seed")));
+        assertEquals("seed", seeded.load().get(0).getTitle());
+        assertFalse(seeded.loadReport().hasProblems());
+    }
+
+    @Test
+    public void testArchiveStaysInMemory() throws Exception {
+        Parser.executeCommand("todo old chore", taskList, storage);
+        Parser.executeCommand("mark 1", taskList, storage);
+        Parser.executeCommand("archive 0", taskList, storage);
+
+        assertEquals(0, taskList.size());
+        assertTrue(storage.load().isEmpty());
+        assertEquals(1, storage.getArchive().find("chore").size());
+    }
+}
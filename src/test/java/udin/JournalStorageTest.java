@@ -0,0 +1,232 @@
+package udin;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class JournalStorageTest {
+    private String testFilePath = "test_journal.txt";
+    private File snapshotFile = new File(testFilePath);
+    private File journalFile = new File(testFilePath + ".journal");
+    private File rotatedFile = new File(testFilePath + ".journal.old");
+    private File rejectedFile = new File(testFilePath + ".rejected");
+
+    @BeforeEach
+    public void setUp() {
+        tearDown();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        snapshotFile.delete();
+        journalFile.delete();
+        rotatedFile.delete();
+        rejectedFile.delete();
+    }
+
+    @Test
+    public void testMutationsAppendToJournal() throws Exception {
+        createSnapshot("T,0,existing task\n");
+        JournalStorage storage = new JournalStorage(testFilePath);
+        List<Task> tasks = storage.load();
+
+        Task added = new ToDo("new task");
+        tasks.add(added);
+        storage.saveAdded(tasks, added);
+        tasks.get(0).mark();
+        storage.saveMarked(tasks, 0);
+
+        String snapshot = readFile(snapshotFile);
+        assertEquals("T,0,existing task\n", snapshot);
+        assertTrue(journalFile.exists());
+        assertTrue(readFile(journalFile).contains("A,T,0,new task"));
+        assertTrue(readFile(journalFile).contains("M,0"));
+    }
+
+    @Test
+    public void testLoadReplaysJournal() throws Exception {
+        createSnapshot("T,0,task 1\nT,0,task 2\n");
+        JournalStorage storage = new JournalStorage(testFilePath);
+        List<Task> tasks = storage.load();
+
+        tasks.get(1).mark();
+        storage.saveMarked(tasks, 1);
+        tasks.remove(0);
+        storage.saveRemoved(tasks, 0);
+        Task added = new Deadline("task 3", "2024-12-25 1200");
+        tasks.add(added);
+        storage.saveAdded(tasks, added);
+
+        List<Task> loaded = new JournalStorage(testFilePath).load();
+        assertEquals(2, loaded.size());
+        assertEquals("task 2", loaded.get(0).getTitle());
+        assertTrue(loaded.get(0).isDone);
+        assertTrue(loaded.get(1) instanceof Deadline);
+    }
+
+    @Test
+    public void testLoadWithoutSnapshot() throws Exception {
+        JournalStorage storage = new JournalStorage(testFilePath);
+        assertThrows(Exception.class, () -> storage.load());
+
+        List<Task> tasks = new ArrayList<>();
+        Task added = new ToDo("first task");
+        tasks.add(added);
+        storage.saveAdded(tasks, added);
+
+        List<Task> loaded = new JournalStorage(testFilePath).load();
+        assertEquals(1, loaded.size());
+        assertEquals("first task", loaded.get(0).getTitle());
+    }
+
+    @Test
+    public void testIgnoresTornFinalRecord() throws Exception {
+        createSnapshot("T,0,task 1\n");
+        try (FileWriter writer = new FileWriter(journalFile)) {
+            writer.write("M,0\nA,T,0");
+        }
+        List<Task> loaded = new JournalStorage(testFilePath).load();
+        assertEquals(1, loaded.size());
+        assertTrue(loaded.get(0).isDone);
+    }
+
+    @Test
+    public void testOutOfRangeRecordFailsLoad() throws Exception {
+        createSnapshot("T,0,task 1\n");
+        try (FileWriter writer = new FileWriter(journalFile)) {
+            writer.write("M,0\nX,3\n");
+        }
+        Exception e = assertThrows(Exception.class, () -> new JournalStorage(testFilePath).load());
+        assertTrue(e.getMessage().contains("out of range"));
+
+        try (FileWriter writer = new FileWriter(journalFile)) {
+            writer.write("X,0\nM,0\nA,T,0,task 2\n");
+        }
+        assertThrows(Exception.class, () -> new JournalStorage(testFilePath).load());
+    }
+
+    @Test
+    public void testSalvagedSnapshotKeepsJournalPositions() throws Exception {
+        createSnapshot("G,1\nQ,0,a\nT,0,b\nT,0,c\nT,0,d\n");
+        try (FileWriter writer = new FileWriter(journalFile)) {
+            writer.write("G,2\nX,2\nM,2\nM,0\nA,T,0,e\n");
+        }
+        LoadReport report = new JournalStorage(testFilePath).loadReport();
+
+        List<Task> tasks = report.getTasks();
+        assertEquals(3, tasks.size());
+        assertEquals("b", tasks.get(0).getTitle());
+        assertFalse(tasks.get(0).isDone);
+        assertEquals("d", tasks.get(1).getTitle());
+        assertTrue(tasks.get(1).isDone);
+        assertEquals("e", tasks.get(2).getTitle());
+        assertEquals(1, report.getDiagnostics().size());
+        assertTrue(report.getDiagnostics().get(0).startsWith("line 2:"));
+        assertEquals("Q,0,a", readFile(rejectedFile).trim());
+    }
+
+    @Test
+    public void testSaveFoldsJournalIntoSnapshot() throws Exception {
+        createSnapshot("");
+        JournalStorage storage = new JournalStorage(testFilePath);
+        List<Task> tasks = storage.load();
+        Task added = new ToDo("task");
+        tasks.add(added);
+        storage.saveAdded(tasks, added);
+
+        storage.save(tasks);
+
+        assertFalse(journalFile.exists());
+        assertTrue(readFile(snapshotFile).contains("T,0,task"));
+    }
+
+    @Test
+    public void testBackgroundCompaction() throws Exception {
+        createSnapshot("");
+        JournalStorage storage = new JournalStorage(testFilePath, 64);
+        List<Task> tasks = storage.load();
+        for (int i = 0; i < 20; i++) {
+            Task added = new ToDo("task " + i);
+            tasks.add(added);
+            storage.saveAdded(tasks, added);
+        }
+        storage.awaitCompaction();
+
+        assertFalse(rotatedFile.exists());
+        assertTrue(readFile(snapshotFile).contains("T,0,task 0"));
+        List<Task> loaded = new JournalStorage(testFilePath).load();
+        assertEquals(20, loaded.size());
+        assertEquals("task 19", loaded.get(19).getTitle());
+    }
+
+    @Test
+    public void testSkipsJournalAlreadyInSnapshot() throws Exception {
+        // As left by a crash after a compaction moved its snapshot into place but before it deleted the old journal.
+        createSnapshot("G,1\nT,0,task 1\nT,0,task 2\n");
+        try (FileWriter writer = new FileWriter(rotatedFile)) {
+            writer.write("G,1\nA,T,0,task 2\n");
+        }
+        try (FileWriter writer = new FileWriter(journalFile)) {
+            writer.write("G,2\nA,T,0,task 3\n");
+        }
+        JournalStorage storage = new JournalStorage(testFilePath);
+        List<Task> tasks = storage.load();
+        assertEquals(3, tasks.size());
+        assertEquals("task 3", tasks.get(2).getTitle());
+        assertFalse(rotatedFile.exists());
+
+        Task added = new ToDo("task 4");
+        tasks.add(added);
+        storage.saveAdded(tasks, added);
+        storage.save(tasks);
+        assertTrue(readFile(snapshotFile).startsWith("G,2\n"));
+
+        tasks.get(0).mark();
+        storage.saveMarked(tasks, 0);
+        assertTrue(readFile(journalFile).startsWith("G,3\n"));
+        List<Task> loaded = new JournalStorage(testFilePath).load();
+        assertEquals(4, loaded.size());
+        assertTrue(loaded.get(0).isDone);
+    }
+
+    @Test
+    public void testCompactionThresholdCountsBytes() throws Exception {
+        createSnapshot("");
+        String title = "\u65e5\u672c\u8a9e \u306e\u30bf\u30b9\u30af";
+        String record = "A,T,0," + title + System.lineSeparator();
+        int recordBytes = record.getBytes(java.nio.charset.Charset.defaultCharset()).length;
+        int headerBytes = ("G,1" + System.lineSeparator()).length();
+        JournalStorage storage = new JournalStorage(testFilePath, headerBytes + 3L * recordBytes);
+        List<Task> tasks = storage.load();
+        for (int i = 0; i < 2; i++) {
+            Task added = new ToDo(title);
+            tasks.add(added);
+            storage.saveAdded(tasks, added);
+        }
+        assertFalse(rotatedFile.exists());
+        Task added = new ToDo(title);
+        tasks.add(added);
+        storage.saveAdded(tasks, added);
+        storage.awaitCompaction();
+
+        assertTrue(readFile(snapshotFile).startsWith("G,1"));
+        assertEquals(3, new JournalStorage(testFilePath).load().size());
+    }
+
+    private void createSnapshot(String content) throws IOException {
+        try (FileWriter writer = new FileWriter(snapshotFile)) {
+            writer.write(content);
+        }
+    }
+
+    private String readFile(File file) throws IOException {
+        return new String(java.nio.file.Files.readAllBytes(file.toPath())).replace(System.lineSeparator(), "\n");
+    }
+}
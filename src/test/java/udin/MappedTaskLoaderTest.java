@@ -0,0 +1,124 @@
+package udin;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+public class MappedTaskLoaderTest {
+    private String testFilePath = "test_mapped.txt";
+    private File testFile = new File(testFilePath);
+    private MappedTaskLoader loader = new MappedTaskLoader();
+
+    @AfterEach
+    public void tearDown() {
+        testFile.delete();
+    }
+
+    @Test
+    public void testMatchesScannerPath() throws Exception {
+        createTestFile("T,0,todo task\r\n\n  D,1,deadline task,2024-12-25 1200  \n"
+                + "E,0,event task,2024-12-25 1200,2024-12-25 1400\n   \nT,1,last task");
+        List<Task> expected = new Storage(testFilePath).load();
+        List<Task> actual = loader.load(testFile.toPath());
+
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getClass(), actual.get(i).getClass());
+            assertEquals(expected.get(i).display(), actual.get(i).display());
+            assertEquals(expected.get(i).toSaveFormat(), actual.get(i).toSaveFormat());
+        }
+    }
+
+    @Test
+    public void testParallelChunksKeepFileOrder() throws Exception {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            content.append(i % 2 == 0 ? "T,0,task " + i : "D,1,task " + i + ",2024-12-25 1200").append("\n");
+        }
+        createTestFile(content.toString());
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            List<Task> tasks = new MappedTaskLoader(pool, 1).load(testFile.toPath());
+            assertEquals(1000, tasks.size());
+            for (int i = 0; i < 1000; i++) {
+                assertEquals("task " + i, tasks.get(i).getTitle());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testParallelChunkErrorIsRethrown() throws Exception {
+        createTestFile("T,0,task 1\nT,0,task 2\nD,0,bad,invalid-date\nT,0,task 4\n");
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            assertThrows(DateTimeParseException.class, () -> new MappedTaskLoader(pool, 1).load(testFile.toPath()));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testLenientDatesFallBackToFormatter() throws Exception {
+        createTestFile("D,0,leap,2023-02-29 1200\n");
+        List<Task> expected = new Storage(testFilePath).load();
+        List<Task> actual = loader.load(testFile.toPath());
+        assertEquals(expected.get(0).toSaveFormat(), actual.get(0).toSaveFormat());
+    }
+
+    @Test
+    public void testInvalidDate() throws Exception {
+        createTestFile("D,0,test,invalid-date\n");
+        assertThrows(DateTimeParseException.class, () -> loader.load(testFile.toPath()));
+    }
+
+    @Test
+    public void testLazyDatesMatchEagerLoad() throws Exception {
+        createTestFile("D,1,deadline task,2024-12-25 1200\nE,0,event task,2024-12-25 1200,2024-12-25 1400\n");
+        List<Task> expected = loader.load(testFile.toPath());
+        MappedTaskLoader lazyLoader = new MappedTaskLoader();
+        lazyLoader.setLazyDates(true);
+        List<Task> actual = lazyLoader.load(testFile.toPath());
+
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).toSaveFormat(), actual.get(i).toSaveFormat());
+            assertEquals(expected.get(i).display(), actual.get(i).display());
+        }
+    }
+
+    @Test
+    public void testInvalidTaskType() throws Exception {
+        createTestFile("T,0,valid task\nX,1,invalid task\n");
+        assertThrows(Exception.class, () -> loader.load(testFile.toPath()));
+    }
+
+    @Test
+    public void testSkipsOnlyGenerationHeaders() throws Exception {
+        createTestFile("G,3\nT,0,valid task\n");
+        assertEquals(1, loader.load(testFile.toPath()).size());
+
+        createTestFile("G,3\nGT,0,not a header\n");
+        assertThrows(Exception.class, () -> loader.load(testFile.toPath()));
+    }
+
+    @Test
+    public void testMissingFields() throws Exception {
+        createTestFile("E,0,event,2024-12-25 1200\n");
+        assertThrows(Exception.class, () -> loader.load(testFile.toPath()));
+    }
+
+    private void createTestFile(String content) throws IOException {
+        try (FileWriter writer = new FileWriter(testFile)) {
+            writer.write(content);
+        }
+    }
+}
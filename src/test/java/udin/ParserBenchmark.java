@@ -0,0 +1,59 @@
+package udin;
+
+import java.io.File;
+
+/**
+ * Measures {@link Parser#executeCommand} throughput per command type.
+ * <p>
+ * Not a unit test; run with {@code ./gradlew parserBenchmark} or pass list sizes as arguments.
+ * Commands run against an {@link InMemoryStorage}, so the numbers reflect command handling alone;
+ * a short run against the CSV {@link Storage} is printed alongside for comparison.
+ */
+public class ParserBenchmark {
+    private static final int OPERATIONS = 20000;
+    private static final int DISK_OPERATIONS = 200;
+
+    public static void main(String[] args) throws Exception {
+        String[] sizes = args.length > 0 ? args : new String[]{"1000", "100000"};
+        for (String size : sizes) {
+            int count = Integer.parseInt(size);
+            System.out.printf("%,d tasks%n", count);
+            run("memory", count, new InMemoryStorage(), OPERATIONS);
+
+            File file = File.createTempFile("udin-bench", ".txt");
+            file.deleteOnExit();
+            run("csv   ", count, new Storage(file.getPath()), DISK_OPERATIONS);
+            file.delete();
+        }
+    }
+
+    private static void run(String name, int count, TaskStorage storage, int operations) {
+        TaskList tasks = new TaskList();
+        for (int i = 0; i < count; i++) {
+            tasks.add(i % 2 == 0 ? new ToDo("read chapter " + i) : new Deadline("submit report " + i, "2024-12-25 1800"));
+        }
+        measure(name, "todo  ", operations, i -> Parser.executeCommand("todo task " + i, tasks, storage));
+        measure(name, "mark  ", operations, i -> Parser.executeCommand("mark " + (i % count + 1), tasks, storage));
+        measure(name, "unmark", operations, i -> Parser.executeCommand("unmark " + (i % count + 1), tasks, storage));
+        measure(name, "find  ", Math.max(1, operations / 100),
+                i -> Parser.executeCommand("find chapter " + i, tasks, storage));
+        measure(name, "delete", operations, i -> Parser.executeCommand("delete " + tasks.size(), tasks, storage));
+    }
+
+    private interface Command {
+        String run(int i);
+    }
+
+    private static void measure(String storage, String command, int operations, Command c) {
+        for (int i = 0; i < Math.min(operations, 1000); i++) {
+            c.run(i);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < operations; i++) {
+            c.run(i);
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("  %s %s: %,10.0f ops/s (%,.1f us/op)%n",
+                storage, command, operations / (elapsed / 1e9), elapsed / 1e3 / operations);
+    }
+}
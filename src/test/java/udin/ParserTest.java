@@ -61,6 +61,75 @@ public class ParserTest {
         assertThrows(IllegalArgumentException.class, () -> Parser.parseIndex("delete -1"));
     }
 
+    @Test
+    public void testParseIndexById() {
+        taskList.add(new ToDo("first"));
+        taskList.add(new ToDo("second"));
+        taskList.add(new ToDo("third"));
+        taskList.remove(0);
+
+        assertEquals(1, Parser.parseIndex("mark #3", taskList));
+        assertEquals(-1, Parser.parseIndex("mark #1", taskList));
+        assertEquals(0, Parser.parseIndex("mark 1", taskList));
+        assertThrows(IllegalArgumentException.class, () -> Parser.parseIndex("mark #x", taskList));
+
+        String result = Parser.executeCommand("delete #3", taskList, storage);
+        assertTrue(result.contains("third"));
+        assertEquals("Invalid task number.", Parser.executeCommand("mark #3", taskList, storage));
+        assertTrue(taskList.show().contains("1.[T][ ] second (#2)"));
+        new java.io.File(testFilePath).delete();
+    }
+
+    @Test
+    public void testBulkSelection() {
+        for (int i = 1; i <= 10; i++) {
+            taskList.add(new ToDo("task " + i));
+        }
+        assertTrue(Parser.isBulkSelection("mark 1-5"));
+        assertTrue(Parser.isBulkSelection("unmark 3,7,9"));
+        assertTrue(Parser.isBulkSelection("delete find:milk"));
+        assertFalse(Parser.isBulkSelection("mark 3"));
+        assertFalse(Parser.isBulkSelection("mark #3"));
+
+        assertEquals(List.of("task 2", "task 3", "task 4", "task 9"),
+                titles(Parser.parseSelection("mark 2-4,#9,3", taskList)));
+        assertEquals(List.of("task 1", "task 10"), titles(Parser.parseSelection("mark find:task 1", taskList)));
+        assertThrows(IndexOutOfBoundsException.class, () -> Parser.parseSelection("mark 8-11", taskList));
+        assertThrows(IndexOutOfBoundsException.class, () -> Parser.parseSelection("mark 5-4", taskList));
+        assertThrows(IndexOutOfBoundsException.class, () -> Parser.parseSelection("mark 1,#99", taskList));
+        assertThrows(IllegalArgumentException.class, () -> Parser.parseSelection("mark 1,x", taskList));
+    }
+
+    @Test
+    public void testBulkCommandsSaveOnce() {
+        InMemoryStorage memory = new InMemoryStorage();
+        for (int i = 1; i <= 500; i++) {
+            taskList.add(new ToDo("task " + i));
+        }
+
+        assertEquals("Good boy! Marked 500 task(s) as done.", Parser.executeCommand("mark 1-500", taskList, memory));
+        assertEquals(1, memory.getSaveCount());
+        assertTrue(taskList.getAll().stream().allMatch(t -> t.isDone));
+
+        assertEquals("Unmarked 3 task(s).", Parser.executeCommand("unmark 3,7,9", taskList, memory));
+        assertFalse(taskList.get(6).isDone);
+        assertTrue(taskList.get(7).isDone);
+
+        String result = Parser.executeCommand("delete 10-20", taskList, memory);
+        assertTrue(result.contains("removed 11 task(s)"));
+        assertEquals(489, taskList.size());
+        assertEquals("task 21", taskList.get(9).getTitle());
+
+        result = Parser.executeCommand("delete find:task 4", taskList, memory);
+        assertTrue(result.contains("removed 111 task(s)"));
+        assertTrue(taskList.findTasksByKeyword("task 4").isEmpty());
+        assertEquals(4, memory.getSaveCount());
+
+        assertEquals("Invalid task number.", Parser.executeCommand("mark 1-1000", taskList, memory));
+        assertEquals("No tasks found matching your search.", Parser.executeCommand("mark find:zzz", taskList, memory));
+        assertEquals(4, memory.getSaveCount());
+    }
+
     @Test
     public void testParseDeadlineParts() {
         String[] parts = Parser.parseDeadlineParts("deadline test task /by 2024-12-25 1200");
@@ -237,6 +306,174 @@ public class ParserTest {
         assertEquals("Bye. Hope to see you again soon!", result);
     }
 
+    @Test
+    public void testMalformedLazyDateDoesNotBreakListOrArchive() {
+        taskList.add(Deadline.withLazyDate("broken", "soon"));
+        taskList.add(new ToDo("done"));
+        taskList.mark(0);
+        taskList.mark(1);
+        try {
+            assertTrue(Parser.executeCommand("list", taskList, storage).contains("1.[D][X] broken (by: soon)"));
+            assertTrue(Parser.executeCommand("archive 0", taskList, storage).startsWith("Archived 1 completed task(s)"));
+            assertEquals("broken", taskList.get(0).getTitle());
+        } finally {
+            new java.io.File(testFilePath + ".archive.gz").delete();
+            new java.io.File(testFilePath).delete();
+        }
+    }
+
+    @Test
+    public void testExecuteCommandArchive() {
+        taskList.add(new ToDo("buy groceries"));
+        taskList.add(new Deadline("buy gift", "2000-01-01 1200"));
+        taskList.add(new Deadline("buy tickets", "2999-01-01 1200"));
+        taskList.add(new ToDo("study for exam"));
+        taskList.mark(0);
+        taskList.mark(1);
+        taskList.mark(2);
+        try {
+            String result = Parser.executeCommand("archive 7", taskList, storage);
+            assertTrue(result.startsWith("Archived 2 completed task(s)"));
+            assertTrue(result.endsWith("can no longer be undone either."));
+            assertEquals(2, taskList.size());
+            assertEquals("buy tickets", taskList.get(0).getTitle());
+            assertEquals("Nothing to undo.", Parser.executeCommand("undo", taskList, storage));
+            assertEquals(2, taskList.size());
+
+            String found = Parser.executeCommand("find buy", taskList, storage);
+            assertTrue(found.contains("1.[D][X] buy tickets"));
+            assertTrue(found.contains("Matching archived tasks:"));
+            assertTrue(found.contains("[T][X] buy groceries"));
+            assertTrue(found.contains("buy gift"));
+
+            assertEquals("No completed tasks older than 7 day(s) to archive.",
+                    Parser.executeCommand("archive 7", taskList, storage));
+            assertEquals("Please provide the age in days, e.g. archive 30.",
+                    Parser.executeCommand("archive soon", taskList, storage));
+        } finally {
+            new java.io.File(testFilePath + ".archive.gz").delete();
+            new java.io.File(testFilePath).delete();
+        }
+    }
+
+    @Test
+    public void testExecuteCommandListPages() {
+        for (int i = 1; i <= 120; i++) {
+            taskList.add(new ToDo("task " + i));
+        }
+
+        String first = Parser.executeCommand("list", taskList, storage);
+        assertTrue(first.contains(" 50.[T][ ] task 50 (#50)\n"));
+        assertFalse(first.contains("task 51"));
+        assertTrue(first.endsWith(" Showing tasks 1-50 of 120. Type 'list next' for more.\n"));
+
+        String second = Parser.executeCommand("list next", taskList, storage);
+        assertTrue(second.startsWith("\n Your tasks:\n 51.[T][ ] task 51 (#51)\n"));
+        Parser.executeCommand("list next", taskList, storage);
+        assertEquals("No more tasks. Type 'list' to start from the top.",
+                Parser.executeCommand("list next", taskList, storage));
+
+        String page = Parser.executeCommand("list page 3", taskList, storage);
+        assertTrue(page.contains(" 101.[T][ ] task 101"));
+        assertTrue(page.endsWith(" Showing tasks 101-120 of 120.\n"));
+        assertEquals("There is no page 4; the list has 3 page(s) of 50 tasks.",
+                Parser.executeCommand("list page 4", taskList, storage));
+
+        String limited = Parser.executeCommand("list --limit 100", taskList, storage);
+        assertTrue(limited.contains("task 100 (#100)"));
+        assertTrue(Parser.executeCommand("list next", taskList, storage).contains("Showing tasks 101-120 of 120."));
+
+        String usage = "Please use list, list next, list page <number> or list --limit <tasks per page>,"
+                + " optionally with --sort=<deadline|type|status>.";
+        assertEquals(usage, Parser.executeCommand("list page 0", taskList, storage));
+        assertEquals(usage, Parser.executeCommand("list --limit x", taskList, storage));
+        assertEquals(usage, Parser.executeCommand("list everything", taskList, storage));
+    }
+
+    @Test
+    public void testExecuteCommandSortedList() {
+        taskList.add(new ToDo("read book"));
+        taskList.add(new Deadline("pay rent", "2024-12-05 0900"));
+        taskList.add(new Event("team meeting", "2024-12-01 1400", "2024-12-03 1600"));
+        taskList.add(new Deadline("submit report", "2024-12-02 1800"));
+
+        assertEquals("\n Your tasks:\n 3.[E][ ] team meeting (from: Dec 01 2024, 2:00PM to: Dec 03 2024, 4:00PM) (#3)\n"
+                + " 4.[D][ ] submit report (by: Dec 02 2024, 6:00PM) (#4)\n"
+                + " 2.[D][ ] pay rent (by: Dec 05 2024, 9:00AM) (#2)\n"
+                + " 1.[T][ ] read book (#1)\n"
+                + " Showing tasks 1-4 of 4, sorted by deadline.\n",
+                Parser.executeCommand("list --sort=deadline", taskList, storage));
+
+        Parser.executeCommand("mark 1", taskList, storage);
+        Parser.executeCommand("mark 3", taskList, storage);
+        Parser.executeCommand("list --sort=status --limit 2", taskList, storage);
+        String page = Parser.executeCommand("list --sort=status page 2", taskList, storage);
+        assertTrue(page.startsWith("\n Your tasks:\n 1.[T][X] read book (#1)\n 3.[E][X] team meeting"));
+        assertTrue(page.endsWith("Showing tasks 3-4 of 4, sorted by status.\n"));
+        assertTrue(Parser.executeCommand("list page 1", taskList, storage).contains(" 2.[D][ ] pay rent"));
+        assertTrue(Parser.executeCommand("list", taskList, storage).startsWith("\n Your tasks:\n 1.[T][X] read book"));
+        assertTrue(Parser.executeCommand("list --sort=size", taskList, storage).startsWith("Unknown sort key 'size'"));
+    }
+
+    @Test
+    public void testExecuteCommandUndo() {
+        InMemoryStorage memory = new InMemoryStorage();
+        Parser.executeCommand("todo read book", taskList, memory);
+        Parser.executeCommand("todo write essay", taskList, memory);
+        Parser.executeCommand("todo sleep", taskList, memory);
+        Parser.executeCommand("delete 1-2", taskList, memory);
+
+        assertEquals("Undone: 2 task(s) changed.\nNow you have 3 tasks in the list.",
+                Parser.executeCommand("undo", taskList, memory));
+        assertEquals(List.of("read book", "write essay", "sleep"), titles(memory.load()));
+        assertEquals(1, taskList.get(0).getId());
+        Parser.executeCommand("redo", taskList, memory);
+        assertEquals(List.of("sleep"), titles(memory.load()));
+        assertEquals("Nothing to redo.", Parser.executeCommand("redo", taskList, memory));
+
+        taskList.setUndoLimit(0);
+        assertTrue(Parser.executeCommand("undo", taskList, memory).startsWith("Undo is off."));
+    }
+
+    @Test
+    public void testExecuteCommandStats() {
+        taskList.add(new ToDo("read book"));
+        taskList.add(new Deadline("submit report", "2000-01-01 1200"));
+        taskList.mark(0);
+
+        String stats = Parser.executeCommand("stats", taskList, storage);
+        assertTrue(stats.startsWith("Tasks: 2 (1 done, 1 pending)"));
+        assertTrue(stats.contains("- Deadlines: 1 (0 done, 1 pending)"));
+        assertTrue(stats.contains("Pending deadlines: 1 overdue"));
+    }
+
+    @Test
+    public void testExecuteCommandDateQueries() {
+        taskList.add(new Deadline("submit report", "2024-12-02 1800"));
+        taskList.add(new Event("team meeting", "2024-12-01 1400", "2024-12-03 1600"));
+        taskList.add(new Deadline("pay rent", "2024-12-05 0900"));
+        taskList.add(new ToDo("read book"));
+        taskList.mark(2);
+
+        String due = Parser.executeCommand("due 2024-12-05", taskList, storage);
+        assertTrue(due.startsWith("Here are the tasks due by Dec 05 2024, 11:59PM:"));
+        assertTrue(due.contains("1.[D][ ] submit report"));
+        assertFalse(due.contains("pay rent"));
+
+        String on = Parser.executeCommand("on 2024-12-02", taskList, storage);
+        assertTrue(on.contains("1.[E][ ] team meeting"));
+        assertTrue(on.contains("2.[D][ ] submit report"));
+
+        String between = Parser.executeCommand("between 2024-12-02 1900 2024-12-05", taskList, storage);
+        assertTrue(between.contains("1.[E][ ] team meeting"));
+        assertTrue(between.contains("2.[D][X] pay rent"));
+        assertFalse(between.contains("submit report"));
+
+        assertEquals("No tasks found for that time.", Parser.executeCommand("on 2025-01-01", taskList, storage));
+        assertTrue(Parser.executeCommand("between 2024-12-02", taskList, storage).startsWith("Please enter two dates"));
+        assertTrue(Parser.executeCommand("due tomorrow", taskList, storage).startsWith("Please enter the date"));
+    }
+
     @Test
     public void testFormatFoundTasks() {
         taskList.add(new ToDo("task 1"));
@@ -252,4 +489,12 @@ public class ParserTest {
         String result = Parser.executeCommand("find nonexistent", taskList, storage);
         assertEquals("No tasks found matching your search.", result);
     }
+
+    private static List<String> titles(List<Task> tasks) {
+        List<String> titles = new ArrayList<>();
+        for (Task t : tasks) {
+            titles.add(t.getTitle());
+        }
+        return titles;
+    }
 }
@@ -0,0 +1,156 @@
+package udin;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+public class ReminderSchedulerTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 12, 2, 15, 0);
+    private static final Clock CLOCK = Clock.fixed(NOW.toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+
+    @Test
+    public void testRemindsInDueOrder() {
+        TaskList taskList = new TaskList();
+        taskList.add(new Deadline("submit report", NOW.plusHours(3)));
+        taskList.add(new Event("team meeting", NOW.plusHours(1), NOW.plusHours(2)));
+        taskList.add(new Deadline("already late", NOW.minusMinutes(1)));
+        taskList.add(new ToDo("read book"));
+        taskList.add(Deadline.withLazyDate("broken", "not-a-date"));
+        ReminderScheduler reminders = new ReminderScheduler(taskList, (t, message) -> { }, CLOCK, 0);
+        reminders.load();
+
+        assertEquals(2, reminders.size());
+        assertEquals(List.of(), titles(reminders.takeDue(NOW.plusMinutes(59))));
+        assertEquals(List.of("team meeting"), titles(reminders.takeDue(NOW.plusHours(1))));
+        assertEquals(List.of("submit report"), titles(reminders.takeDue(NOW.plusDays(1))));
+        assertEquals(0, reminders.size());
+        assertTrue(reminders.message(taskList.get(0)).startsWith("Reminder: this task is due in 180 minute(s):\n  [D][ ] submit"));
+        assertTrue(reminders.message(taskList.get(2)).startsWith("Reminder: this task is due now:\n  [D][ ] already late"));
+    }
+
+    @Test
+    public void testFollowsChanges() {
+        TaskList taskList = new TaskList();
+        Task early = new Deadline("early", NOW.plusMinutes(10));
+        Task late = new Deadline("late", NOW.plusMinutes(20));
+        taskList.add(early);
+        taskList.add(late);
+        taskList.add(new Event("party", NOW.plusMinutes(40), NOW.plusMinutes(90)));
+        ReminderScheduler reminders = new ReminderScheduler(taskList, (t, message) -> { }, CLOCK, 5);
+        reminders.load();
+
+        taskList.mark(0);
+        reminders.onNext(List.of(new TaskEvent(TaskEvent.Type.MARKED, 0, early)));
+        Task added = new Deadline("added", NOW.plusMinutes(30));
+        taskList.add(added);
+        reminders.onNext(List.of(new TaskEvent(TaskEvent.Type.ADDED, 3, added)));
+        Task removed = taskList.remove(2);
+        reminders.onNext(List.of(new TaskEvent(TaskEvent.Type.REMOVED, 2, removed)));
+
+        assertEquals(List.of("late", "added"), titles(reminders.takeDue(NOW.plusHours(1))));
+        taskList.unmark(0);
+        reminders.onNext(List.of(new TaskEvent(TaskEvent.Type.UNMARKED, 0, early)));
+        assertEquals(List.of("early"), titles(reminders.takeDue(NOW.plusMinutes(5))));
+        assertEquals("Reminder: this task is due in 10 minute(s):\n  " + early.display(), reminders.message(early));
+    }
+
+    @Test
+    public void testLeadTimeIsClampedToNow() {
+        TaskList taskList = new TaskList();
+        taskList.add(new Deadline("soon", NOW.plusMinutes(10)));
+        taskList.add(new Event("starting", NOW, NOW.plusHours(1)));
+        taskList.add(new Deadline("later", NOW.plusMinutes(40)));
+        taskList.add(new Deadline("missed", NOW.minusMinutes(1)));
+        ReminderScheduler reminders = new ReminderScheduler(taskList, (t, message) -> { }, CLOCK, 15);
+        reminders.load();
+
+        assertEquals(3, reminders.size());
+        assertEquals(List.of("soon", "starting"), titles(reminders.takeDue(NOW)));
+        assertEquals("Reminder: this task is due in 10 minute(s):\n  " + taskList.get(0).display(),
+                reminders.message(taskList.get(0)));
+        assertTrue(reminders.message(taskList.get(1)).startsWith("Reminder: this event starts now:"));
+        assertEquals(List.of(), titles(reminders.takeDue(NOW.plusMinutes(24))));
+        assertEquals(List.of("later"), titles(reminders.takeDue(NOW.plusMinutes(25))));
+    }
+
+    @Test
+    public void testStaleEntriesArePurged() {
+        TaskList taskList = new TaskList();
+        Task t = new Deadline("flip-flop", NOW.plusDays(1));
+        taskList.add(t);
+        ReminderScheduler reminders = new ReminderScheduler(taskList, (task, message) -> { }, CLOCK, 0);
+        reminders.load();
+        for (int i = 0; i < 1000; i++) {
+            reminders.onNext(List.of(new TaskEvent(TaskEvent.Type.MARKED, 0, t),
+                    new TaskEvent(TaskEvent.Type.UNMARKED, 0, t)));
+        }
+        assertEquals(1, reminders.size());
+        assertEquals(List.of("flip-flop"), titles(reminders.takeDue(NOW.plusDays(2))));
+    }
+
+    @Test
+    public void testThreadWakesForNewTask() throws InterruptedException {
+        TaskList taskList = new TaskList();
+        LinkedBlockingQueue<String> received = new LinkedBlockingQueue<>();
+        ReminderScheduler reminders = new ReminderScheduler(taskList, (t, message) -> received.add(t.getTitle()),
+                Clock.systemDefaultZone(), 0);
+        LocalDateTime thisMinute = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES);
+        taskList.add(new Deadline("due tomorrow", thisMinute.plusDays(1)));
+        reminders.start();
+        try {
+            for (int i = 0; i < 100 && reminders.size() == 0; i++) {
+                Thread.sleep(10);
+            }
+            taskList.add(new Deadline("due later", thisMinute.plusMinutes(10)));
+            LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES);
+            taskList.add(new Event("starting now", now, now.plusHours(1)));
+            String first = received.poll(5, TimeUnit.SECONDS);
+            assertEquals("starting now", first);
+            assertNull(received.poll(100, TimeUnit.MILLISECONDS));
+        } finally {
+            reminders.stop();
+        }
+    }
+
+    @Test
+    public void testFollowsReplacedPublisher() throws InterruptedException {
+        TaskList taskList = new TaskList();
+        LinkedBlockingQueue<String> received = new LinkedBlockingQueue<>();
+        ReminderScheduler reminders = new ReminderScheduler(taskList, (t, message) -> received.add(t.getTitle()),
+                Clock.systemDefaultZone(), 0);
+        LocalDateTime thisMinute = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES);
+        taskList.add(new Deadline("due tomorrow", thisMinute.plusDays(1)));
+        reminders.start();
+        try {
+            for (int i = 0; i < 100 && reminders.size() == 0; i++) {
+                Thread.sleep(10);
+            }
+            taskList.setEvents(new TaskEventPublisher());
+            LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES);
+            taskList.add(new Event("starting now", now, now.plusHours(1)));
+            assertEquals("starting now", received.poll(5, TimeUnit.SECONDS));
+            for (int i = 0; i < 100 && !taskList.getEvents().hasSubscribers(); i++) {
+                Thread.sleep(10);
+            }
+            assertTrue(taskList.getEvents().hasSubscribers());
+        } finally {
+            reminders.stop();
+        }
+    }
+
+    private static List<String> titles(List<Task> tasks) {
+        List<String> titles = new ArrayList<>();
+        for (Task t : tasks) {
+            titles.add(t.getTitle());
+        }
+        return titles;
+    }
+}
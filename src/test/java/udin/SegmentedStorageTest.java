@@ -0,0 +1,120 @@
+package udin;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+public class SegmentedStorageTest {
+    private String testFilePath = "test_segmented.txt";
+    private File testFile = new File(testFilePath);
+    private File segmentDir = new File(testFilePath + ".segments");
+    private SegmentedStorage storage;
+    private List<Task> tasks;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        tearDown();
+        storage = new SegmentedStorage(testFilePath, 4);
+        tasks = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            tasks.add(new ToDo("task " + i));
+        }
+        storage.save(tasks);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        File[] files = segmentDir.listFiles();
+        if (files != null) {
+            for (File f : files) {
+                f.delete();
+            }
+        }
+        segmentDir.delete();
+        testFile.delete();
+    }
+
+    @Test
+    public void testSaveSplitsIntoSegments() throws Exception {
+        assertEquals(3, storage.getSegmentCount());
+        List<Task> loaded = new SegmentedStorage(testFilePath, 4).load();
+        assertEquals(10, loaded.size());
+        assertEquals("task 9", loaded.get(9).getTitle());
+    }
+
+    @Test
+    public void testMarkRewritesOnlyOneSegment() throws Exception {
+        List<String> before = segmentFiles();
+        tasks.get(5).mark();
+        storage.saveMarked(tasks, 5);
+
+        List<String> after = segmentFiles();
+        before.retainAll(after);
+        assertEquals(2, before.size());
+
+        List<Task> loaded = new SegmentedStorage(testFilePath, 4).load();
+        assertTrue(loaded.get(5).isDone);
+        assertFalse(loaded.get(4).isDone);
+    }
+
+    @Test
+    public void testAddAndRemove() throws Exception {
+        Task added = new ToDo("task 10");
+        tasks.add(added);
+        storage.saveAdded(tasks, added);
+        tasks.remove(0);
+        storage.saveRemoved(tasks, 0);
+
+        List<Task> loaded = new SegmentedStorage(testFilePath, 4).load();
+        assertEquals(10, loaded.size());
+        assertEquals("task 1", loaded.get(0).getTitle());
+        assertEquals("task 10", loaded.get(9).getTitle());
+    }
+
+    @Test
+    public void testUnderfullSegmentsAreMerged() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            tasks.remove(4);
+            storage.saveRemoved(tasks, 4);
+        }
+        storage.awaitMerge();
+
+        assertEquals(2, storage.getSegmentCount());
+        List<Task> loaded = new SegmentedStorage(testFilePath, 4).load();
+        assertEquals(7, loaded.size());
+        assertEquals("task 3", loaded.get(3).getTitle());
+        assertEquals("task 7", loaded.get(4).getTitle());
+    }
+
+    @Test
+    public void testLoadsPlainFileWithoutManifest() throws Exception {
+        tearDown();
+        try (FileWriter writer = new FileWriter(testFile)) {
+            writer.write("T,0,plain task\n");
+        }
+        SegmentedStorage fresh = new SegmentedStorage(testFilePath, 4);
+        List<Task> loaded = fresh.load();
+        assertEquals(1, loaded.size());
+
+        loaded.get(0).mark();
+        fresh.saveMarked(loaded, 0);
+        assertTrue(new File(segmentDir, "manifest").exists());
+        assertTrue(new SegmentedStorage(testFilePath, 4).load().get(0).isDone);
+    }
+
+    private List<String> segmentFiles() {
+        List<String> names = new ArrayList<>();
+        for (File f : segmentDir.listFiles()) {
+            if (f.getName().startsWith("seg-")) {
+                names.add(f.getName());
+            }
+        }
+        return names;
+    }
+}
@@ -0,0 +1,70 @@
+package udin;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+public class SortedViewTest {
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Test
+    public void testPagesInOrder() {
+        TaskList taskList = new TaskList();
+        Task todo = new ToDo("read book");
+        Task late = new Deadline("late", BASE.plusDays(3));
+        Task event = new Event("meeting", BASE.plusDays(1), BASE.plusDays(2));
+        Task broken = Deadline.withLazyDate("broken", "not-a-date");
+        for (Task t : List.of(todo, late, event, broken)) {
+            taskList.add(t);
+        }
+
+        assertEquals(List.of(event, late, todo, broken), taskList.getSorted(SortOrder.DEADLINE, 0, 10));
+        assertEquals(List.of(late, todo), taskList.getSorted(SortOrder.DEADLINE, 1, 3));
+        assertEquals(List.of(todo, late, broken, event), taskList.getSorted(SortOrder.TYPE, 0, 4));
+        taskList.mark(0);
+        assertEquals(List.of(late, event, broken, todo), taskList.getSorted(SortOrder.STATUS, 0, 4));
+        taskList.unmark(0);
+        taskList.mark(2);
+        assertEquals(List.of(todo, late, broken, event), taskList.getSorted(SortOrder.STATUS, 0, 4));
+        assertTrue(taskList.getSorted(SortOrder.STATUS, 4, 8).isEmpty());
+    }
+
+    @Test
+    public void testMatchesSortAfterMutations() {
+        Random random = new Random(5);
+        TaskList taskList = new TaskList();
+        for (int i = 0; i < 3000; i++) {
+            int op = random.nextInt(10);
+            if (taskList.size() == 0 || op < 5) {
+                LocalDateTime time = BASE.plusMinutes(random.nextInt(500));
+                int type = random.nextInt(3);
+                taskList.add(type == 0 ? new ToDo("t" + i)
+                        : type == 1 ? new Deadline("d" + i, time) : new Event("e" + i, time, time.plusHours(1)));
+            } else if (op < 7) {
+                taskList.mark(random.nextInt(taskList.size()));
+            } else if (op < 8) {
+                taskList.unmark(random.nextInt(taskList.size()));
+            } else if (op < 9) {
+                taskList.remove(random.nextInt(taskList.size()));
+            } else {
+                int k = random.nextInt(5) + 2;
+                taskList.removeMatching(t -> t.getId() % k == 0);
+            }
+            if (i == 50 || i % 500 == 0) {
+                for (SortOrder order : SortOrder.values()) {
+                    List<Task> expected = new ArrayList<>(taskList.snapshot());
+                    expected.sort(Comparator.comparingLong(order::sortValue));
+                    assertEquals(expected, taskList.getSorted(order, 0, taskList.size()), order.getKey());
+                    int from = random.nextInt(taskList.size() + 1);
+                    assertEquals(expected.subList(from, Math.min(expected.size(), from + 7)),
+                            taskList.getSorted(order, from, from + 7), order.getKey());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package udin;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+/**
+ * Compares the {@link java.util.Scanner} load path with {@link MappedTaskLoader} (eager and lazy dates)
+ * and {@link BinaryTaskFormat}.
+ * <p>
+ * Not a unit test; run with {@code ./gradlew loadBenchmark} or pass line counts as arguments.
+ * For each size it reports the best wall-clock time and the bytes allocated by the loading thread.
+ */
+public class StorageLoadBenchmark {
+    private static final int RUNS = 3;
+
+    public static void main(String[] args) throws Exception {
+        String[] sizes = args.length > 0 ? args : new String[]{"1000000", "10000000"};
+        for (String size : sizes) {
+            int lines = Integer.parseInt(size);
+            File file = File.createTempFile("udin-bench", ".txt");
+            file.deleteOnExit();
+            writeTasks(file, lines);
+            System.out.printf("%,d lines (%,d bytes)%n", lines, file.length());
+            measure("scanner", () -> Storage.scanTasks(file));
+            measure("scan lz", () -> Storage.scanTasks(file, true));
+            measure("mapped ", () -> new MappedTaskLoader().load(file.toPath()));
+            measure("lazy   ", () -> {
+                MappedTaskLoader lazy = new MappedTaskLoader();
+                lazy.setLazyDates(true);
+                return lazy.load(file.toPath());
+            });
+
+            File binary = File.createTempFile("udin-bench", ".bin");
+            binary.deleteOnExit();
+            BinaryTaskFormat.convert(file.toPath(), binary.toPath());
+            new File(binary + ".bak").delete();
+            System.out.printf("  binary file: %,d bytes%n", binary.length());
+            measure("binary ", () -> BinaryTaskFormat.read(binary.toPath()));
+            file.delete();
+            binary.delete();
+        }
+    }
+
+    private interface Loader {
+        List<Task> load() throws Exception;
+    }
+
+    private static void measure(String name, Loader loader) throws Exception {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long bestNanos = Long.MAX_VALUE;
+        long allocated = 0;
+        int count = 0;
+        for (int run = 0; run < RUNS; run++) {
+            System.gc();
+            long bytesBefore = threads.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            List<Task> tasks = loader.load();
+            long elapsed = System.nanoTime() - start;
+            allocated = threads.getCurrentThreadAllocatedBytes() - bytesBefore;
+            bestNanos = Math.min(bestNanos, elapsed);
+            count = tasks.size();
+        }
+        double seconds = bestNanos / 1e9;
+        System.out.printf("  %s: %,8.1f ms, %,6.1f MB allocated (%,.0f bytes/task, %,.0f MB/s)%n",
+                name, bestNanos / 1e6, allocated / 1e6, (double) allocated / count, allocated / 1e6 / seconds);
+    }
+
+    private static void writeTasks(File file, int lines) throws IOException {
+        try (BufferedWriter out = new BufferedWriter(new FileWriter(file))) {
+            for (int i = 0; i < lines; i++) {
+                switch (i % 3) {
+                    case 0:
+                        out.write("T," + (i & 1) + ",read chapter " + i);
+                        break;
+                    case 1:
+                        out.write("D," + (i & 1) + ",submit report " + i + ",2024-12-" + (10 + i % 18) + " 1800");
+                        break;
+                    default:
+                        out.write("E," + (i & 1) + ",team meeting " + i + ",2024-11-" + (10 + i % 18) + " 1400,2024-11-"
+                                + (10 + i % 18) + " 1600");
+                        break;
+                }
+                out.newLine();
+            }
+        }
+    }
+}
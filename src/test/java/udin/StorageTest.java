@@ -114,6 +114,25 @@ public class StorageTest {
         assertThrows(Exception.class, () -> storage.load());
     }
 
+    @Test
+    public void testLazyDatesDeferInvalidDate() throws Exception {
+        createTestFile("D,0,test,invalid-date\nE,1,event,2024-12-25 1200,2024-12-25 1400\n");
+        storage.setLazyDates(true);
+        List<Task> tasks = storage.load();
+
+        assertEquals(2, tasks.size());
+        assertEquals("D,0,test,invalid-date", tasks.get(0).toSaveFormat());
+        assertThrows(java.time.format.DateTimeParseException.class, () -> ((Deadline) tasks.get(0)).validateDate());
+        assertThrows(java.time.format.DateTimeParseException.class, () -> ((Deadline) tasks.get(0)).getDeadline());
+        assertEquals("[D][ ] test (by: invalid-date)", tasks.get(0).display());
+
+        Event event = (Event) tasks.get(1);
+        event.validateDates();
+        assertEquals("E,1,event,2024-12-25 1200,2024-12-25 1400", event.toSaveFormat());
+        assertEquals(java.time.LocalDateTime.of(2024, 12, 25, 14, 0), event.getTo());
+        assertEquals("[E][X] event (from: Dec 25 2024, 12:00PM to: Dec 25 2024, 2:00PM)", event.display());
+    }
+
     @Test
     public void testSaveEmptyTaskList() throws IOException {
         List<Task> tasks = List.of();
@@ -226,6 +245,49 @@ public class StorageTest {
         }
     }
 
+    @Test
+    public void testLoadReportSkipsMalformedLines() throws Exception {
+        createTestFile("T,0,valid task\nX,1,invalid task\nD,0,bad date,invalid-date\nE,0,short\nT,1,another valid task\n");
+        LoadReport report = storage.loadReport();
+
+        assertEquals(2, report.getTasks().size());
+        assertEquals("valid task", report.getTasks().get(0).getTitle());
+        assertEquals("another valid task", report.getTasks().get(1).getTitle());
+        assertEquals(3, report.getDiagnostics().size());
+        assertTrue(report.getDiagnostics().get(0).startsWith("line 2:"));
+        assertTrue(report.getDiagnostics().get(1).startsWith("line 3:"));
+        assertTrue(report.getDiagnostics().get(2).startsWith("line 4:"));
+        assertTrue(report.summary().contains("skipped 3 malformed line(s)"));
+
+        File rejected = new File(testFilePath + ".rejected");
+        assertTrue(rejected.exists());
+        String rejectedContent = new String(java.nio.file.Files.readAllBytes(rejected.toPath()));
+        assertTrue(rejectedContent.contains("X,1,invalid task"));
+        rejected.delete();
+    }
+
+    @Test
+    public void testLoadReportCleanFile() throws Exception {
+        createTestFile("T,0,task 1\nT,1,task 2\n");
+        LoadReport report = storage.loadReport();
+        assertFalse(report.hasProblems());
+        assertEquals(2, report.getTasks().size());
+        assertFalse(new File(testFilePath + ".rejected").exists());
+    }
+
+    @Test
+    public void testLoadReportFileNotFound() {
+        assertThrows(Exception.class, () -> storage.loadReport());
+    }
+
+    @Test
+    public void testIsCorrectlyFormatted() throws Exception {
+        createTestFile("T,0,task 1\nD,1,task 2,2024-12-25 1200\n");
+        assertTrue(new SavedTasksFile(testFilePath).isCorrectlyFormatted());
+        createTestFile("T,0,task 1\nT,2,task 2\n");
+        assertFalse(new SavedTasksFile(testFilePath).isCorrectlyFormatted());
+    }
+
     private void createTestFile(String content) throws IOException {
         try (FileWriter writer = new FileWriter(testFile)) {
             writer.write(content);
@@ -0,0 +1,100 @@
+package udin;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class TaskArchiveTest {
+    private String testFilePath = "test_archive.gz";
+    private File testFile = new File(testFilePath);
+
+    @AfterEach
+    public void tearDown() {
+        testFile.delete();
+    }
+
+    @Test
+    public void testIsArchivable() {
+        LocalDateTime cutoff = LocalDateTime.of(2024, 1, 1, 0, 0);
+        Task todo = new ToDo("todo");
+        Task oldDeadline = new Deadline("old", "2023-06-01 1200");
+        Task newEvent = new Event("new", "2023-12-31 1200", "2024-01-02 1200");
+        assertFalse(TaskArchive.isArchivable(todo, cutoff));
+        todo.mark();
+        oldDeadline.mark();
+        newEvent.mark();
+        assertTrue(TaskArchive.isArchivable(todo, cutoff));
+        assertTrue(TaskArchive.isArchivable(oldDeadline, cutoff));
+        assertFalse(TaskArchive.isArchivable(newEvent, cutoff));
+
+        Task broken = Deadline.withLazyDate("broken", "2023-13-45 1200");
+        broken.mark();
+        assertFalse(TaskArchive.isArchivable(broken, cutoff));
+    }
+
+    @Test
+    public void testMissingArchiveIsEmpty() throws Exception {
+        TaskArchive archive = new TaskArchive(testFilePath);
+        assertTrue(archive.find("anything").isEmpty());
+        assertEquals(0, archive.size());
+    }
+
+    @Test
+    public void testAppendAndFindAcrossRuns() throws Exception {
+        TaskArchive archive = new TaskArchive(testFilePath);
+        archive.append(List.of(new ToDo("Buy milk"), new Deadline("pay rent", "2024-01-01 1200")));
+        archive.append(List.of(new Event("buy party", "2024-01-01 1200", "2024-01-01 1400")));
+        assertFalse(archive.isLoaded());
+
+        TaskArchive reopened = new TaskArchive(testFilePath);
+        List<Task> found = reopened.find("BUY");
+        assertTrue(reopened.isLoaded());
+        assertEquals(2, found.size());
+        assertEquals("T,0,Buy milk", found.get(0).toSaveFormat());
+        assertEquals("E,0,buy party,2024-01-01 1200,2024-01-01 1400", found.get(1).toSaveFormat());
+
+        reopened.append(List.of(new ToDo("buy bread")));
+        assertEquals(3, reopened.find("buy").size());
+        assertEquals(4, reopened.size());
+    }
+
+    @Test
+    public void testTruncatedAppendKeepsEarlierTasks() throws Exception {
+        TaskArchive archive = new TaskArchive(testFilePath);
+        archive.append(List.of(new ToDo("first")));
+        long intact = testFile.length();
+        archive.append(List.of(new ToDo("second")));
+        truncate(intact + 5);
+
+        assertEquals(1, new TaskArchive(testFilePath).size());
+    }
+
+    @Test
+    public void testTruncatedMemberKeepsLaterMembers() throws Exception {
+        TaskArchive archive = new TaskArchive(testFilePath);
+        archive.append(List.of(new ToDo("first")));
+        long intact = testFile.length();
+        archive.append(List.of(new ToDo("second"), new ToDo("third")));
+        long truncated = testFile.length() - 4;
+        truncate(truncated);
+        new TaskArchive(testFilePath).append(List.of(new ToDo("fourth")));
+
+        TaskArchive reopened = new TaskArchive(testFilePath);
+        assertEquals(2, reopened.size());
+        assertEquals("fourth", reopened.find("fourth").get(0).getTitle());
+        assertEquals(truncated - intact, reopened.getUnreadableBytes());
+        assertEquals(1, reopened.find("first").size());
+    }
+
+    private void truncate(long length) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(testFile, "rw")) {
+            raf.setLength(length);
+        }
+    }
+}
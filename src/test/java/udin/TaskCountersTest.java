@@ -0,0 +1,121 @@
+package udin;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class TaskCountersTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 12, 2, 15, 0);
+
+    @Test
+    public void testCountsByTypeAndStatus() {
+        Task todo = new ToDo("read book");
+        Task deadline = new Deadline("submit report", NOW.plusDays(1));
+        TaskList taskList = new TaskList(List.of(todo, deadline));
+        taskList.add(new Event("team meeting", NOW, NOW.plusHours(1)));
+        taskList.mark(0);
+        taskList.mark(0);
+        taskList.markAll(List.of(deadline, todo));
+        taskList.unmark(1);
+
+        TaskStats stats = taskList.getStats(NOW);
+        assertEquals(3, stats.getTotal());
+        assertEquals(1, stats.getDone());
+        assertEquals(1, stats.getCount(TaskCounters.TODO, true));
+        assertEquals(1, stats.getCount(TaskCounters.DEADLINE, false));
+        assertEquals(1, stats.getCount(TaskCounters.EVENT, false));
+
+        taskList.removeMatching(t -> t.isDone);
+        taskList.remove(0);
+        assertEquals(1, taskList.getStats(NOW).getTotal());
+        assertEquals(1, taskList.getStats(NOW).getPending());
+    }
+
+    @Test
+    public void testDueBuckets() {
+        TaskList taskList = new TaskList();
+        taskList.add(new Deadline("overdue", NOW.minusMinutes(1)));
+        taskList.add(new Deadline("now", NOW));
+        taskList.add(new Deadline("tonight", NOW.withHour(23).withMinute(59)));
+        taskList.add(new Deadline("tomorrow", NOW.plusDays(1)));
+        taskList.add(new Deadline("in a week", NOW.plusDays(7)));
+        taskList.add(new Deadline("next month", NOW.plusDays(30)));
+        taskList.add(Deadline.withLazyDate("broken", "not-a-date"));
+
+        TaskStats stats = taskList.getStats(NOW);
+        assertEquals(1, stats.getOverdue());
+        assertEquals(2, stats.getDueToday());
+        assertEquals(2, stats.getDueThisWeek());
+        assertEquals(1, stats.getDueLater());
+        assertEquals(7, stats.getPending());
+
+        taskList.mark(0);
+        stats = taskList.getStats(NOW.plusDays(2));
+        assertEquals(3, stats.getOverdue());
+        assertEquals(0, stats.getDueToday());
+        assertEquals(1, stats.getDueThisWeek());
+        assertEquals("Tasks: 7 (1 done, 6 pending)\n"
+                + "- To-dos: 0 (0 done, 0 pending)\n"
+                + "- Deadlines: 7 (1 done, 6 pending)\n"
+                + "- Events: 0 (0 done, 0 pending)\n"
+                + "Pending deadlines: 3 overdue, 0 due today, 1 due this week, 1 due later", stats.summary());
+    }
+
+    @Test
+    public void testMatchesScanAsTimeMoves() {
+        Random random = new Random(11);
+        TaskList taskList = new TaskList();
+        LocalDateTime now = NOW;
+        for (int i = 0; i < 5000; i++) {
+            int op = random.nextInt(10);
+            if (taskList.size() == 0 || op < 5) {
+                LocalDateTime due = NOW.plusMinutes(random.nextInt(40000) - 10000);
+                taskList.add(random.nextBoolean() ? new Deadline("d" + i, due) : new ToDo("t" + i));
+            } else if (op < 7) {
+                taskList.mark(random.nextInt(taskList.size()));
+            } else if (op < 8) {
+                taskList.unmark(random.nextInt(taskList.size()));
+            } else {
+                taskList.remove(random.nextInt(taskList.size()));
+            }
+            if (i % 100 == 0) {
+                now = now.plusMinutes(random.nextInt(2000) - 500);
+                assertBucketsMatchScan(taskList, now);
+            }
+        }
+    }
+
+    private static void assertBucketsMatchScan(TaskList taskList, LocalDateTime now) {
+        int[] expected = new int[4];
+        int pending = 0;
+        LocalDateTime endOfToday = now.toLocalDate().atTime(23, 59);
+        for (Task t : taskList.snapshot()) {
+            if (t.isDone) {
+                continue;
+            }
+            pending++;
+            if (t instanceof Deadline) {
+                LocalDateTime due = ((Deadline) t).getDeadline();
+                if (due.isBefore(now.withSecond(0))) {
+                    expected[0]++;
+                } else if (!due.isAfter(endOfToday)) {
+                    expected[1]++;
+                } else if (!due.isAfter(now.plusDays(7))) {
+                    expected[2]++;
+                } else {
+                    expected[3]++;
+                }
+            }
+        }
+        TaskStats stats = taskList.getStats(now);
+        List<Integer> actual = new ArrayList<>(List.of(stats.getOverdue(), stats.getDueToday(),
+                stats.getDueThisWeek(), stats.getDueLater()));
+        assertEquals(List.of(expected[0], expected[1], expected[2], expected[3]), actual);
+        assertEquals(pending, stats.getPending());
+        assertEquals(taskList.size(), stats.getTotal());
+    }
+}
@@ -0,0 +1,214 @@
+package udin;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+public class TaskEventPublisherTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 12, 2, 15, 0);
+
+    /**
+     * Keeps a copy of the list up to date from the events alone.
+     */
+    private static class Mirror implements Flow.Subscriber<List<TaskEvent>> {
+        private final List<String> lines = new ArrayList<>();
+        private final LinkedBlockingQueue<Integer> batchSizes = new LinkedBlockingQueue<>();
+        private final CountDownLatch gate;
+        private Flow.Subscription subscription;
+
+        Mirror(CountDownLatch gate) {
+            this.gate = gate;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(1);
+        }
+
+        @Override
+        public void onNext(List<TaskEvent> batch) {
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            synchronized (lines) {
+                for (TaskEvent event : batch) {
+                    String line = event.getTask().display() + " #" + event.getId();
+                    if (event.getType() == TaskEvent.Type.ADDED) {
+                        lines.add(event.getPosition(), line);
+                    } else if (event.getType() == TaskEvent.Type.REMOVED) {
+                        assertTrue(lines.remove(event.getPosition()).endsWith(" #" + event.getId()));
+                    } else {
+                        lines.set(event.getPosition(), line);
+                    }
+                }
+            }
+            batchSizes.add(batch.size());
+            subscription.request(1);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            batchSizes.add(-1);
+        }
+
+        @Override
+        public void onComplete() {
+            batchSizes.add(0);
+        }
+
+        List<String> lines() {
+            synchronized (lines) {
+                return new ArrayList<>(lines);
+            }
+        }
+    }
+
+    @Test
+    public void testEventsKeepCopyInStep() throws InterruptedException {
+        Random random = new Random(3);
+        TaskList taskList = new TaskList();
+        Mirror mirror = new Mirror(new CountDownLatch(0));
+        taskList.getEvents().subscribe(mirror);
+        for (int i = 0; i < 500; i++) {
+            int op = random.nextInt(12);
+            if (taskList.size() == 0 || op < 4) {
+                taskList.add(random.nextBoolean() ? new Deadline("d" + i, NOW.plusMinutes(i)) : new ToDo("t" + i));
+            } else if (op < 6) {
+                taskList.mark(random.nextInt(taskList.size()));
+            } else if (op < 7) {
+                taskList.unmark(random.nextInt(taskList.size()));
+            } else if (op < 8) {
+                taskList.remove(random.nextInt(taskList.size()));
+            } else if (op < 9) {
+                int modulus = 2 + random.nextInt(4);
+                taskList.removeMatching(t -> t.getId() % modulus == 0);
+            } else if (op < 10) {
+                taskList.markAll(taskList.findTasksByKeyword("d" + random.nextInt(10)));
+            } else {
+                taskList.undo();
+            }
+        }
+        taskList.getEvents().close();
+        int batch;
+        while ((batch = mirror.batchSizes.poll(5, TimeUnit.SECONDS)) != 0) {
+            assertTrue(batch > 0, "A batch should never be empty or fail");
+        }
+        List<String> expected = new ArrayList<>();
+        for (Task t : taskList.snapshot()) {
+            expected.add(t.display() + " #" + t.getId());
+        }
+        assertEquals(expected, mirror.lines());
+    }
+
+    @Test
+    public void testBulkChangeIsOneBatch() throws InterruptedException {
+        TaskList taskList = new TaskList();
+        Mirror mirror = new Mirror(new CountDownLatch(0));
+        taskList.getEvents().subscribe(mirror);
+        for (int i = 0; i < 10; i++) {
+            taskList.add(new ToDo("task " + i));
+            assertEquals(Integer.valueOf(1), mirror.batchSizes.poll(5, TimeUnit.SECONDS));
+        }
+        taskList.markAll(taskList.getRange(0, 10));
+        assertEquals(Integer.valueOf(10), mirror.batchSizes.poll(5, TimeUnit.SECONDS));
+        taskList.undo();
+        assertEquals(Integer.valueOf(10), mirror.batchSizes.poll(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testEventsRecordDoneState() throws InterruptedException {
+        TaskList taskList = new TaskList();
+        LinkedBlockingQueue<TaskEvent> received = new LinkedBlockingQueue<>();
+        taskList.getEvents().subscribe(new Flow.Subscriber<List<TaskEvent>>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(List<TaskEvent> batch) {
+                received.addAll(batch);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+        taskList.add(new ToDo("task"));
+        taskList.mark(0);
+        taskList.unmark(0);
+
+        assertFalse(received.poll(5, TimeUnit.SECONDS).isDone());
+        TaskEvent marked = received.poll(5, TimeUnit.SECONDS);
+        assertEquals(TaskEvent.Type.MARKED, marked.getType());
+        assertTrue(marked.isDone());
+        assertFalse(marked.getTask().isDone);
+        assertFalse(received.poll(5, TimeUnit.SECONDS).isDone());
+    }
+
+    @Test
+    public void testReplacedPublisherCompletes() throws InterruptedException {
+        TaskList taskList = new TaskList();
+        Mirror old = new Mirror(new CountDownLatch(0));
+        taskList.getEvents().subscribe(old);
+        taskList.add(new ToDo("task 0"));
+        assertEquals(Integer.valueOf(1), old.batchSizes.poll(5, TimeUnit.SECONDS));
+
+        taskList.setEvents(new TaskEventPublisher());
+        assertEquals(Integer.valueOf(0), old.batchSizes.poll(5, TimeUnit.SECONDS));
+        taskList.remove(0);
+        Mirror mirror = new Mirror(new CountDownLatch(0));
+        taskList.getEvents().subscribe(mirror);
+        taskList.add(new ToDo("task 1"));
+        assertEquals(Integer.valueOf(1), mirror.batchSizes.poll(5, TimeUnit.SECONDS));
+        assertNull(old.batchSizes.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testSlowSubscriberHoldsBackWriters() throws InterruptedException {
+        TaskList taskList = new TaskList();
+        taskList.setEvents(new TaskEventPublisher(Executors.newSingleThreadExecutor(), 1));
+        CountDownLatch gate = new CountDownLatch(1);
+        Mirror mirror = new Mirror(gate);
+        taskList.getEvents().subscribe(mirror);
+
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < 50; i++) {
+                taskList.add(new ToDo("task " + i));
+            }
+        });
+        writer.start();
+        writer.join(300);
+        assertTrue(writer.isAlive(), "The writer should wait for the subscriber");
+        assertTrue(taskList.size() < 50);
+        assertEquals("task 0", taskList.get(0).getTitle());
+
+        gate.countDown();
+        writer.join(5000);
+        assertFalse(writer.isAlive());
+        taskList.getEvents().close();
+        int events = 0;
+        int batch;
+        while ((batch = mirror.batchSizes.poll(5, TimeUnit.SECONDS)) != 0) {
+            events += batch;
+        }
+        assertEquals(50, events);
+        assertEquals(50, mirror.lines().size());
+    }
+}
@@ -0,0 +1,166 @@
+package udin;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class TaskHistoryTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 12, 2, 15, 0);
+
+    @Test
+    public void testVersionsShareUnchangedTasks() {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 1; i <= 2000; i++) {
+            Task t = new ToDo("task " + i);
+            t.setId(i);
+            tasks.add(t);
+        }
+        TaskVersion base = TaskVersion.of(tasks);
+        tasks.get(9).mark();
+        TaskVersion marked = base.with(tasks.get(9));
+        TaskVersion grown = marked.without(3).with(withId(new ToDo("late"), 40000));
+
+        assertFalse(base.isDone(10));
+        assertTrue(marked.isDone(10));
+        assertSame(base, base.without(50000));
+        assertSame(marked, marked.with(tasks.get(9)));
+        assertEquals("late", grown.get(40000).getTitle());
+        assertNull(grown.get(3));
+        assertSame(tasks.get(2), marked.get(3));
+
+        List<Integer> changed = new ArrayList<>();
+        base.diff(grown, (id, before, wasDone, after, isDone) -> changed.add(id));
+        assertEquals(List.of(3, 10, 40000), changed);
+    }
+
+    @Test
+    public void testHistoryIsBounded() {
+        TaskHistory history = new TaskHistory(TaskVersion.EMPTY, 2);
+        TaskVersion one = TaskVersion.EMPTY.with(withId(new ToDo("a"), 1));
+        TaskVersion two = one.with(withId(new ToDo("b"), 2));
+        TaskVersion three = two.without(1);
+        history.record(one);
+        history.record(two);
+        history.record(three);
+
+        assertSame(two, history.undo());
+        assertSame(one, history.undo());
+        assertNull(history.undo());
+        assertSame(two, history.redo());
+        history.record(two.without(2));
+        assertNull(history.redo());
+        assertEquals(2, history.undoableCount());
+    }
+
+    @Test
+    public void testUndoAndRedoRestoreEveryVersion() {
+        Random random = new Random(5);
+        TaskList taskList = new TaskList();
+        taskList.setUndoLimit(1000);
+        List<List<String>> states = new ArrayList<>();
+        states.add(describe(taskList));
+        for (int i = 0; i < 300; i++) {
+            int op = random.nextInt(10);
+            if (taskList.size() == 0 || op < 4) {
+                taskList.add(random.nextBoolean() ? new Deadline("pay bill " + i, NOW.plusMinutes(i))
+                        : new ToDo("buy milk " + i));
+            } else if (op < 6) {
+                taskList.mark(random.nextInt(taskList.size()));
+            } else if (op < 7) {
+                taskList.unmark(random.nextInt(taskList.size()));
+            } else if (op < 9) {
+                taskList.remove(random.nextInt(taskList.size()));
+            } else {
+                int modulus = 2 + random.nextInt(3);
+                taskList.removeMatching(t -> t.getId() % modulus == 0);
+            }
+            List<String> state = describe(taskList);
+            if (!state.equals(states.get(states.size() - 1))) {
+                states.add(state);
+            }
+        }
+        taskList.getSorted(SortOrder.STATUS, 0, 1);
+        taskList.findTasksByKeyword("milk");
+        taskList.findDueBy(NOW);
+
+        for (int v = states.size() - 2; v >= 0; v--) {
+            assertTrue(taskList.undo() > 0);
+            assertEquals(states.get(v), describe(taskList), "after undoing to version " + v);
+            assertIndexesMatchScan(taskList);
+        }
+        assertEquals(-1, taskList.undo());
+        for (int v = 1; v < states.size(); v++) {
+            assertTrue(taskList.redo() > 0);
+            assertEquals(states.get(v), describe(taskList), "after redoing to version " + v);
+        }
+        assertIndexesMatchScan(taskList);
+        assertEquals(-1, taskList.redo());
+    }
+
+    @Test
+    public void testNewChangeDropsRedo() {
+        TaskList taskList = new TaskList(List.of(new ToDo("read book")));
+        taskList.add(new ToDo("write essay"));
+        taskList.remove(0);
+        taskList.mark(0);
+        taskList.mark(0);
+
+        assertEquals(1, taskList.undo());
+        assertFalse(taskList.get(0).isDone);
+        assertEquals(1, taskList.undo());
+        assertEquals(2, taskList.size());
+        assertEquals("read book", taskList.get(0).getTitle());
+        assertEquals(1, taskList.get(0).getId());
+
+        taskList.add(new ToDo("sleep"));
+        assertEquals(-1, taskList.redo());
+        assertEquals(1, taskList.undo());
+        assertEquals(1, taskList.undo());
+        assertEquals(1, taskList.size());
+        assertEquals(-1, taskList.undo());
+
+        taskList.setUndoLimit(0);
+        taskList.add(new ToDo("no history"));
+        assertEquals(-1, taskList.undo());
+    }
+
+    private static Task withId(Task t, int id) {
+        t.setId(id);
+        return t;
+    }
+
+    private static List<String> describe(TaskList taskList) {
+        List<String> lines = new ArrayList<>();
+        for (Task t : taskList.snapshot()) {
+            lines.add(t.display() + " #" + t.getId());
+        }
+        return lines;
+    }
+
+    private static void assertIndexesMatchScan(TaskList taskList) {
+        List<Task> milk = new ArrayList<>();
+        List<Task> pending = new ArrayList<>();
+        for (Task t : taskList.snapshot()) {
+            if (t.getTitle().contains("milk")) {
+                milk.add(t);
+            }
+            if (!t.isDone) {
+                pending.add(t);
+            }
+        }
+        assertEquals(milk, taskList.findTasksByKeyword("milk"));
+        assertEquals(milk, taskList.findTasksByQuery("milk"));
+        assertEquals(pending.size(), taskList.getStats(NOW).getPending());
+        int sortedPending = 0;
+        for (Task t : taskList.getSorted(SortOrder.STATUS, 0, taskList.size())) {
+            if (!t.isDone) {
+                sortedPending++;
+            }
+        }
+        assertEquals(pending.size(), sortedPending);
+    }
+}
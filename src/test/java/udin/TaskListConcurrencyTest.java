@@ -0,0 +1,148 @@
+package udin;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class TaskListConcurrencyTest {
+    private static final int WRITERS = 8;
+    private static final int READERS = 4;
+    private static final int ADDS_PER_WRITER = 2000;
+
+    @Test
+    public void testConcurrentWritersLoseNoUpdates() throws Exception {
+        TaskList taskList = new TaskList();
+        Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        AtomicBoolean isWriting = new AtomicBoolean(true);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> writers = new ArrayList<>();
+        List<Thread> readers = new ArrayList<>();
+
+        for (int w = 0; w < WRITERS; w++) {
+            int writer = w;
+            writers.add(new Thread(() -> run(start, failures, () -> {
+                for (int i = 0; i < ADDS_PER_WRITER; i++) {
+                    Task t = i % 2 == 0
+                            ? new ToDo("task " + writer + " " + i)
+                            : new Deadline("task " + writer + " " + i, "2024-12-" + (10 + i % 20) + " 1200");
+                    taskList.add(t);
+                    taskList.mark(ThreadLocalRandom.current().nextInt(taskList.size()));
+                }
+            })));
+        }
+        for (int r = 0; r < READERS; r++) {
+            readers.add(new Thread(() -> run(start, failures, () -> {
+                int lastSize = 0;
+                while (isWriting.get()) {
+                    List<Task> snapshot = taskList.snapshot();
+                    assertTrue(snapshot.size() >= lastSize, "Snapshots went backwards");
+                    lastSize = snapshot.size();
+                    assertTrue(taskList.show().startsWith("\n Your tasks:"));
+                    taskList.findTasksByKeyword("task 3");
+                    taskList.findTasksByQuery("task OR 7");
+                    taskList.findBetween(LocalDateTime.of(2024, 12, 1, 0, 0), LocalDateTime.of(2024, 12, 31, 0, 0));
+                    if (!snapshot.isEmpty()) {
+                        assertNotNull(taskList.get(ThreadLocalRandom.current().nextInt(snapshot.size())));
+                    }
+                    for (Task t : taskList.getAll()) {
+                        assertNotNull(t);
+                    }
+                }
+            })));
+        }
+
+        runAll(writers, readers, start, isWriting);
+        assertTrue(failures.isEmpty(), "Failed: " + failures.peek());
+
+        int total = WRITERS * ADDS_PER_WRITER;
+        assertEquals(total, taskList.size());
+        assertEquals(2L * total, taskList.getModificationCount());
+        Set<Integer> ids = new HashSet<>();
+        for (Task t : taskList.getAll()) {
+            assertTrue(ids.add(t.getId()), "Duplicate ID " + t.getId());
+        }
+        assertEquals(total, taskList.findTasksByKeyword("task").size());
+        assertEquals(total, taskList.findTasksByQuery("task").size());
+        assertEquals(total / 2, taskList.findBetween(LocalDateTime.of(2024, 1, 1, 0, 0),
+                LocalDateTime.of(2025, 1, 1, 0, 0)).size());
+    }
+
+    @Test
+    public void testConcurrentRemovesTakeEachTaskOnce() throws Exception {
+        int total = WRITERS * ADDS_PER_WRITER;
+        List<Task> initial = new ArrayList<>();
+        for (int i = 0; i < total; i++) {
+            initial.add(new ToDo("task " + i));
+        }
+        TaskList taskList = new TaskList(initial);
+        taskList.findTasksByKeyword("task");
+        Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        Queue<Task> removed = new ConcurrentLinkedQueue<>();
+        AtomicBoolean isWriting = new AtomicBoolean(true);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> writers = new ArrayList<>();
+        List<Thread> readers = new ArrayList<>();
+
+        for (int w = 0; w < WRITERS; w++) {
+            writers.add(new Thread(() -> run(start, failures, () -> {
+                for (int i = 0; i < ADDS_PER_WRITER / 2; i++) {
+                    removed.add(taskList.remove(0));
+                }
+            })));
+        }
+        for (int r = 0; r < READERS; r++) {
+            readers.add(new Thread(() -> run(start, failures, () -> {
+                while (isWriting.get()) {
+                    List<Task> snapshot = taskList.snapshot();
+                    assertEquals(snapshot.size(), new HashSet<>(snapshot).size());
+                    taskList.findTasksByKeyword("task 1");
+                }
+            })));
+        }
+
+        runAll(writers, readers, start, isWriting);
+        assertTrue(failures.isEmpty(), "Failed: " + failures.peek());
+
+        assertEquals(total / 2, taskList.size());
+        assertEquals(total / 2, new HashSet<>(removed).size());
+        assertEquals(initial.subList(total / 2, total), taskList.snapshot());
+        assertEquals(total / 2, taskList.findTasksByKeyword("task").size());
+    }
+
+    private static void run(CountDownLatch start, Queue<Throwable> failures, Runnable body) {
+        try {
+            start.await();
+            body.run();
+        } catch (Throwable e) {
+            failures.add(e);
+        }
+    }
+
+    private static void runAll(List<Thread> writers, List<Thread> readers, CountDownLatch start,
+            AtomicBoolean isWriting) throws InterruptedException {
+        for (Thread t : writers) {
+            t.start();
+        }
+        for (Thread t : readers) {
+            t.start();
+        }
+        start.countDown();
+        for (Thread t : writers) {
+            t.join();
+        }
+        isWriting.set(false);
+        for (Thread t : readers) {
+            t.join();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package udin;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares the heap taken per task by an object-backed {@link TaskList} and a {@link TaskList#columnar} one.
+ * <p>
+ * Each list is measured whole and then as its bare slot store, since the word index a list keeps
+ * costs the same either way.
+ * <p>
+ * Not a unit test; run with {@code ./gradlew heapBenchmark} or pass list sizes as arguments.
+ * Heap use is read after a forced collection, so the figures are approximate.
+ */
+public class TaskListHeapBenchmark {
+    public static void main(String[] args) {
+        String[] sizes = args.length > 0 ? args : new String[]{"1000000"};
+        for (String size : sizes) {
+            int count = Integer.parseInt(size);
+            System.out.printf("%,d tasks%n", count);
+            measure("objects ", count, false);
+            measure("columnar", count, true);
+            measureSlots("objects  slots", count, new TaskSlots());
+            measureSlots("columnar slots", count, new ColumnarTaskSlots());
+        }
+    }
+
+    private static void measure(String name, int count, boolean isColumnar) {
+        long before = usedHeap();
+        long start = System.nanoTime();
+        TaskList tasks = isColumnar ? TaskList.columnar(List.of()) : new TaskList();
+        for (int i = 0; i < count; i++) {
+            tasks.add(createTask(i));
+        }
+        long elapsed = System.nanoTime() - start;
+        long used = usedHeap() - before;
+        System.out.printf("  %s: %,6.1f bytes/task, %,6.0f ms to build (%d tasks kept)%n",
+                name, (double) used / count, elapsed / 1e6, tasks.size());
+    }
+
+    private static void measureSlots(String name, int count, TaskSlots slots) {
+        long before = usedHeap();
+        for (int i = 0; i < count; i++) {
+            slots.add(createTask(i));
+        }
+        long used = usedHeap() - before;
+        System.out.printf("  %s: %,6.1f bytes/task (%d tasks kept)%n", name, (double) used / count, slots.size());
+    }
+
+    private static Task createTask(int i) {
+        switch (i % 3) {
+        case 0:
+            return new ToDo("read chapter " + i);
+        case 1:
+            return new Deadline("submit report " + i, "2024-12-25 1800");
+        default:
+            return new Event("team meeting " + i, "2024-12-25 1400", "2024-12-25 1600");
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -156,6 +156,18 @@ public class TaskListTest {
         assertTrue(result.contains(deadline.display()));
     }
 
+    @Test
+    public void testRenderedLengthIsExact() throws Exception {
+        taskList.add(todo1);
+        taskList.add(deadline);
+        for (int i = 0; i < 20; i++) {
+            taskList.add(new Event("event " + i, "2024-12-25 1400", "2024-12-25 1600"));
+        }
+        StringBuilder out = new StringBuilder();
+        TaskList.render(out, taskList.snapshot(), 7);
+        assertEquals(out.length(), TaskList.renderedLength(taskList.snapshot(), 7));
+    }
+
     @Test
     public void testConstructorWithInitialTasks() {
         List<Task> initialTasks = new ArrayList<>();
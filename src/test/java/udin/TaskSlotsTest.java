@@ -0,0 +1,117 @@
+package udin;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+public class TaskSlotsTest {
+    @Test
+    public void testIdsStayStableAcrossDeletes() {
+        TaskSlots slots = new TaskSlots();
+        Task a = new ToDo("a");
+        Task b = new ToDo("b");
+        Task c = new ToDo("c");
+        assertEquals(1, slots.add(a));
+        assertEquals(2, slots.add(b));
+        assertEquals(3, slots.add(c));
+
+        assertEquals(a, slots.remove(0));
+        assertEquals(2, b.getId());
+        assertEquals(0, slots.positionOf(2));
+        assertEquals(1, slots.positionOf(3));
+        assertEquals(-1, slots.positionOf(1));
+        assertSame(c, slots.getById(3));
+        assertNull(slots.getById(1));
+        assertEquals(4, slots.add(new ToDo("d")));
+    }
+
+    @Test
+    public void testOutOfRange() {
+        TaskSlots slots = new TaskSlots();
+        slots.add(new ToDo("a"));
+        assertThrows(IndexOutOfBoundsException.class, () -> slots.get(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> slots.remove(-1));
+    }
+
+    @Test
+    public void testMatchesArrayListUnderRandomEdits() {
+        Random random = new Random(1);
+        TaskSlots slots = new TaskSlots();
+        List<Task> reference = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            int op = random.nextInt(10);
+            if (reference.isEmpty() || op < 5) {
+                Task t = new ToDo("task " + i);
+                slots.add(t);
+                reference.add(t);
+            } else if (op < 9) {
+                int position = random.nextInt(reference.size());
+                assertSame(reference.remove(position), slots.remove(position));
+            } else {
+                int k = random.nextInt(7) + 2;
+                List<Task> removed = slots.removeMatching(t -> t.getId() % k == 0);
+                reference.removeIf(t -> t.getId() % k == 0);
+                assertTrue(removed.stream().allMatch(t -> t.getId() % k == 0));
+            }
+            assertEquals(reference.size(), slots.size());
+            if (i % 1000 == 0) {
+                int position = 0;
+                for (Task t : slots) {
+                    assertSame(reference.get(position), t);
+                    assertSame(t, slots.get(position));
+                    assertEquals(position, slots.positionOf(t.getId()));
+                    position++;
+                }
+                assertEquals(reference.size(), position);
+            }
+        }
+    }
+
+    @Test
+    public void testRestorePutsTaskBackInPlace() {
+        for (TaskSlots slots : List.of(new TaskSlots(), new ColumnarTaskSlots())) {
+            for (int i = 0; i < 40; i++) {
+                slots.add(new ToDo("task " + i));
+            }
+            Task kept = slots.remove(5);
+            slots.restore(kept);
+            assertEquals(40, slots.size());
+            assertEquals("task 5", slots.get(5).getTitle());
+            assertEquals(5, slots.positionOf(6));
+
+            // Compaction drops the tombstones, so these go back by moving later slots up.
+            List<Task> removed = slots.removeMatching(t -> t.getId() % 4 != 0);
+            assertEquals(10, slots.size());
+            slots.restore(removed.get(0));
+            slots.restore(removed.get(29));
+            slots.restore(removed.get(13));
+            List<String> titles = new ArrayList<>();
+            for (Task t : slots) {
+                titles.add(t.getTitle());
+            }
+            assertEquals(List.of("task 0", "task 3", "task 7", "task 11", "task 15", "task 17", "task 19",
+                    "task 23", "task 27", "task 31", "task 35", "task 38", "task 39"), titles);
+            assertEquals(12, slots.positionOf(40));
+            assertEquals("task 17", slots.getById(18).getTitle());
+
+            assertThrows(IllegalArgumentException.class, () -> slots.restore(slots.get(0)));
+            assertEquals(41, slots.add(new ToDo("task 40")));
+        }
+    }
+
+    @Test
+    public void testIteratorDetectsStructuralChange() {
+        TaskSlots slots = new TaskSlots();
+        slots.add(new ToDo("a"));
+        slots.add(new ToDo("b"));
+        Iterator<Task> it = slots.iterator();
+        it.next();
+        slots.add(new ToDo("c"));
+        assertThrows(ConcurrentModificationException.class, it::next);
+    }
+}
@@ -0,0 +1,137 @@
+package udin;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class TimeIndexTest {
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private final TaskSlots slots = new TaskSlots();
+
+    @Test
+    public void testDeadlinesBetween() {
+        TimeIndex index = new TimeIndex(slots::getById);
+        Task late = new Deadline("late", BASE.plusDays(3));
+        Task early = new Deadline("early", BASE.plusDays(1));
+        add(index, late);
+        add(index, new ToDo("undated"));
+        add(index, early);
+
+        assertEquals(List.of(early, late), index.deadlinesBetween(BASE, BASE.plusDays(3)));
+        assertEquals(List.of(early), index.pendingDeadlinesUntil(BASE.plusDays(2)));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    public void testEventsOverlappingRange() {
+        TimeIndex index = new TimeIndex(slots::getById);
+        Task longEvent = new Event("conference", BASE, BASE.plusDays(5));
+        Task shortEvent = new Event("lunch", BASE.plusDays(2), BASE.plusDays(2).plusHours(1));
+        Task afterEvent = new Event("party", BASE.plusDays(6), BASE.plusDays(6).plusHours(3));
+        add(index, afterEvent);
+        add(index, shortEvent);
+        add(index, longEvent);
+
+        assertEquals(List.of(longEvent, shortEvent), index.eventsBetween(BASE.plusDays(2), BASE.plusDays(2)));
+        assertEquals(List.of(longEvent), index.eventsBetween(BASE.plusDays(4), BASE.plusDays(5)));
+        assertEquals(List.of(afterEvent), index.eventsBetween(BASE.plusDays(6).plusHours(3), BASE.plusDays(9)));
+        assertTrue(index.eventsBetween(BASE.minusDays(3), BASE.minusMinutes(1)).isEmpty());
+    }
+
+    @Test
+    public void testBetweenMergesByTime() {
+        TimeIndex index = new TimeIndex(slots::getById);
+        Task deadline = new Deadline("report", BASE.plusHours(12));
+        Task event = new Event("meeting", BASE.plusHours(9), BASE.plusHours(10));
+        add(index, deadline);
+        add(index, event);
+        assertEquals(List.of(event, deadline), index.between(BASE, BASE.plusDays(1)));
+    }
+
+    @Test
+    public void testMatchesScanAfterMutations() {
+        Random random = new Random(7);
+        TaskList taskList = new TaskList();
+        List<Task> reference = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            if (taskList.size() > 0 && random.nextInt(3) == 0) {
+                int index = random.nextInt(taskList.size());
+                taskList.remove(index);
+                reference.remove(index);
+            } else {
+                LocalDateTime start = BASE.plusMinutes(random.nextInt(100000));
+                Task t = random.nextBoolean()
+                        ? new Deadline("d" + i, start)
+                        : new Event("e" + i, start, start.plusMinutes(random.nextInt(5000)));
+                taskList.add(t);
+                reference.add(t);
+            }
+            if (i == 100) {
+                taskList.findBetween(BASE, BASE);
+            }
+        }
+        for (int q = 0; q < 50; q++) {
+            LocalDateTime from = BASE.plusMinutes(random.nextInt(100000));
+            LocalDateTime to = from.plusMinutes(random.nextInt(3000));
+            List<Task> expected = new ArrayList<>();
+            for (Task t : reference) {
+                if (t instanceof Deadline) {
+                    LocalDateTime due = ((Deadline) t).getDeadline();
+                    if (!due.isBefore(from) && !due.isAfter(to)) {
+                        expected.add(t);
+                    }
+                } else if (!((Event) t).getTo().isBefore(from) && !((Event) t).getFrom().isAfter(to)) {
+                    expected.add(t);
+                }
+            }
+            List<Task> actual = taskList.findBetween(from, to);
+            assertEquals(expected.size(), actual.size());
+            assertTrue(actual.containsAll(expected));
+        }
+    }
+
+    @Test
+    public void testDueSkipsDoneDeadlines() {
+        TaskList taskList = new TaskList();
+        Task first = new Deadline("first", BASE.plusHours(1));
+        Task second = new Deadline("second", BASE.plusHours(2));
+        Task third = new Deadline("third", BASE.plusHours(3));
+        taskList.add(first);
+        taskList.add(second);
+        taskList.add(third);
+        assertEquals(List.of(first, second, third), taskList.findDueBy(BASE.plusDays(1)));
+
+        taskList.mark(1);
+        taskList.markAll(List.of(first, third));
+        assertTrue(taskList.findDueBy(BASE.plusDays(1)).isEmpty());
+        assertEquals(List.of(first, second, third), taskList.findBetween(BASE, BASE.plusDays(1)));
+
+        taskList.unmark(2);
+        taskList.remove(0);
+        assertEquals(List.of(third), taskList.findDueBy(BASE.plusDays(1)));
+        assertEquals(List.of(second, third), taskList.findBetween(BASE, BASE.plusDays(1)));
+        assertEquals(1, taskList.undo());
+        assertEquals(List.of(first, second, third), taskList.findBetween(BASE, BASE.plusDays(1)));
+        assertEquals(1, taskList.undo());
+        assertTrue(taskList.findDueBy(BASE.plusDays(1)).isEmpty());
+    }
+
+    @Test
+    public void testMalformedLazyDateIsSkipped() {
+        TimeIndex index = new TimeIndex(slots::getById);
+        Task bad = Deadline.withLazyDate("bad", "not-a-date");
+        add(index, bad);
+        assertTrue(index.pendingDeadlinesUntil(BASE.plusYears(100)).isEmpty());
+        index.remove(bad);
+        assertEquals(0, index.size());
+    }
+
+    private void add(TimeIndex index, Task t) {
+        slots.add(t);
+        index.add(t);
+    }
+}
@@ -0,0 +1,64 @@
+package udin;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TitlePoolTest {
+    @Test
+    public void testSharesEqualTitles() {
+        TitlePool pool = new TitlePool(10);
+        String first = pool.intern(new String("buy milk"));
+        String second = pool.intern(new String("buy milk"));
+        assertSame(first, second);
+        assertEquals(1, pool.size());
+        assertEquals(1, pool.getDuplicates());
+        assertEquals(TitlePool.sizeOf("buy milk"), pool.getBytesSaved());
+        assertSame(first, pool.intern(first));
+        assertEquals(1, pool.getDuplicates());
+    }
+
+    @Test
+    public void testStopsPoolingWhenFull() {
+        TitlePool pool = new TitlePool(2);
+        List<String> kept = new ArrayList<>();
+        for (String title : List.of("a", "b", "c")) {
+            kept.add(pool.intern(title));
+        }
+        String c = new String("c");
+        assertSame(c, pool.intern(c));
+        assertEquals(2, pool.size());
+        assertTrue(pool.report().contains("2 title(s) were not pooled"));
+    }
+
+    @Test
+    public void testReleasesUnusedTitles() throws InterruptedException {
+        TitlePool pool = new TitlePool(1000);
+        for (int i = 0; i < 100; i++) {
+            pool.intern("chore " + i);
+        }
+        for (int i = 0; i < 50 && pool.size() > 0; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertEquals(0, pool.size());
+    }
+
+    @Test
+    public void testTasksUseSharedPool() {
+        TitlePool.setShared(new TitlePool(10));
+        try {
+            Task todo = new ToDo(new String("water plants"));
+            Task deadline = new Deadline(new String("water plants"), "2024-12-25 1800");
+            assertSame(todo.getTitle(), deadline.getTitle());
+            String stats = Parser.executeCommand("stats", new TaskList(), new InMemoryStorage());
+            assertTrue(stats.contains("Title pool: 1 title(s) pooled (limit 10), 1 of 2 titles were duplicates"), stats);
+        } finally {
+            TitlePool.setShared(null);
+        }
+        assertNotSame(new ToDo(new String("x")).getTitle(), new ToDo(new String("x")).getTitle());
+        assertTrue(Parser.executeCommand("stats", new TaskList(), new InMemoryStorage()).contains("Title pooling is off"));
+    }
+}
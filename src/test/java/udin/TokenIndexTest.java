@@ -0,0 +1,84 @@
+package udin;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TokenIndexTest {
+    private TaskList taskList;
+
+    @BeforeEach
+    public void setUp() {
+        taskList = new TaskList(List.of(new ToDo("Buy milk"), new ToDo("buy bread"),
+                new ToDo("bake bread"), new ToDo("Stale milk, buy again")));
+    }
+
+    @Test
+    public void testIsBooleanQuery() {
+        assertTrue(TokenIndex.isBooleanQuery("buy AND milk"));
+        assertTrue(TokenIndex.isBooleanQuery("NOT milk"));
+        assertFalse(TokenIndex.isBooleanQuery("buy and milk"));
+        assertFalse(TokenIndex.isBooleanQuery("ANDROID"));
+    }
+
+    @Test
+    public void testAndOrNot() {
+        assertEquals(List.of("Buy milk", "Stale milk, buy again"), titles(taskList.findTasksByQuery("buy AND milk")));
+        assertEquals(List.of("Buy milk", "Stale milk, buy again"), titles(taskList.findTasksByQuery("BUY milk AND")));
+        assertEquals(List.of("buy bread", "bake bread", "Stale milk, buy again"),
+                titles(taskList.findTasksByQuery("bread OR stale")));
+        assertEquals(List.of("Buy milk"), titles(taskList.findTasksByQuery("milk NOT stale")));
+        assertEquals(List.of("buy bread", "bake bread"), titles(taskList.findTasksByQuery("NOT milk")));
+        assertEquals(List.of("Buy milk", "buy bread", "bake bread"),
+                titles(taskList.findTasksByQuery("buy NOT stale OR bake")));
+        assertTrue(taskList.findTasksByQuery("buy AND cheese").isEmpty());
+    }
+
+    @Test
+    public void testWordsMatchWhole() {
+        assertTrue(taskList.findTasksByQuery("bu OR brea").isEmpty());
+    }
+
+    @Test
+    public void testIndexFollowsMutations() {
+        taskList.remove(0);
+        taskList.add(new ToDo("buy milk tea"));
+        assertEquals(List.of("Stale milk, buy again", "buy milk tea"),
+                titles(taskList.findTasksByQuery("buy AND milk")));
+
+        taskList.removeMatching(t -> t.getTitle().startsWith("Stale"));
+        assertEquals(List.of("buy milk tea"), titles(taskList.findTasksByQuery("milk OR stale")));
+    }
+
+    @Test
+    public void testRemoveMatchingManyAtOnce() {
+        taskList.removeMatching(t -> t.getTitle().toLowerCase().contains("buy"));
+        assertEquals(List.of("bake bread"), titles(taskList.findTasksByQuery("milk OR bread")));
+        assertTrue(taskList.findTasksByQuery("buy OR milk").isEmpty());
+        assertEquals(List.of("bake bread"), titles(taskList.findTasksByQuery("NOT milk")));
+    }
+
+    @Test
+    public void testChangesThroughGetAllAreReindexed() {
+        taskList.getAll().add(new ToDo("milk run"));
+        assertEquals(List.of("Buy milk", "Stale milk, buy again", "milk run"),
+                titles(taskList.findTasksByQuery("milk OR run")));
+    }
+
+    @Test
+    public void testMatchesWithoutIndex() {
+        assertTrue(TokenIndex.matches("buy AND milk", "stale milk, buy again"));
+        assertFalse(TokenIndex.matches("milk NOT stale", "stale milk, buy again"));
+    }
+
+    private static List<String> titles(List<Task> tasks) {
+        List<String> titles = new ArrayList<>();
+        for (Task t : tasks) {
+            titles.add(t.getTitle());
+        }
+        return titles;
+    }
+}
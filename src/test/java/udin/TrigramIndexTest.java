@@ -0,0 +1,79 @@
+package udin;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class TrigramIndexTest {
+    private final TaskSlots slots = new TaskSlots();
+
+    @Test
+    public void testFindSubstrings() {
+        TrigramIndex index = new TrigramIndex(slots::getById);
+        for (String title : List.of("Buy milk", "buy bread", "milkshake", "ABRACADABRA")) {
+            add(index, new ToDo(title));
+        }
+        assertEquals(List.of("Buy milk", "milkshake"), titles(index.find("MILK")));
+        assertEquals(List.of("Buy milk", "buy bread"), titles(index.find("uy ")));
+        assertEquals(List.of("ABRACADABRA"), titles(index.find("bracadabr")));
+        assertTrue(index.find("milq").isEmpty());
+    }
+
+    @Test
+    public void testVerifiesCandidates() {
+        TrigramIndex index = new TrigramIndex(slots::getById);
+        add(index, new ToDo("abcd xbcdy"));
+        assertTrue(index.find("abcdy").isEmpty());
+    }
+
+    @Test
+    public void testMatchesScanAfterMutations() {
+        Random random = new Random(42);
+        TaskList taskList = new TaskList();
+        List<Task> reference = new ArrayList<>();
+        String[] words = {"buy", "milk", "Bread", "MEETING", "report", "\u00e9t\u00e9", "x"};
+        for (int i = 0; i < 3000; i++) {
+            if (random.nextInt(100) == 0) {
+                int digit = random.nextInt(10);
+                taskList.removeMatching(t -> t.getTitle().endsWith(Integer.toString(digit)));
+                reference.removeIf(t -> t.getTitle().endsWith(Integer.toString(digit)));
+            } else if (taskList.size() > 0 && random.nextInt(3) == 0) {
+                int index = random.nextInt(taskList.size());
+                taskList.remove(index);
+                reference.remove(index);
+            } else {
+                Task t = new ToDo(words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)] + i);
+                taskList.add(t);
+                reference.add(t);
+            }
+            if (i % 500 == 0) {
+                taskList.findTasksByKeyword("eet");
+            }
+        }
+        for (String keyword : List.of("milk", "MILK b", "ead", "\u00c9T\u00c9", "x1", "k m", "report 29", "zzz")) {
+            List<Task> expected = new ArrayList<>();
+            for (Task t : reference) {
+                if (t.getTitle().toLowerCase().contains(keyword.toLowerCase())) {
+                    expected.add(t);
+                }
+            }
+            assertEquals(titles(expected), titles(taskList.findTasksByKeyword(keyword)), keyword);
+        }
+    }
+
+    private void add(TrigramIndex index, Task t) {
+        slots.add(t);
+        index.add(t);
+    }
+
+    private static List<String> titles(List<Task> tasks) {
+        List<String> titles = new ArrayList<>();
+        for (Task t : tasks) {
+            titles.add(t.getTitle());
+        }
+        return titles;
+    }
+}
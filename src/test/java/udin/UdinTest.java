@@ -206,6 +206,26 @@ public class UdinTest {
         assertTrue(response.contains("[X]")); // Marked task should be done
     }
 
+    @Test
+    public void testSalvagedLinesAreRejectedOnce() throws Exception {
+        File saveFile = new File("test_udin_salvage.txt").getAbsoluteFile();
+        File rejected = new File(saveFile.getPath() + ".rejected");
+        try {
+            java.nio.file.Files.writeString(saveFile.toPath(), "T,0,good task\nX,1,bad task\n");
+            new Udin(saveFile.getPath());
+            new Udin(saveFile.getPath());
+
+            String saved = java.nio.file.Files.readString(saveFile.toPath());
+            assertTrue(saved.contains("good task"));
+            assertFalse(saved.contains("bad task"));
+            List<String> rejectedLines = java.nio.file.Files.readAllLines(rejected.toPath());
+            assertEquals(List.of("X,1,bad task"), rejectedLines);
+        } finally {
+            saveFile.delete();
+            rejected.delete();
+        }
+    }
+
     @Test
     public void testHelpContent() {
         String help = Udin.HELP;